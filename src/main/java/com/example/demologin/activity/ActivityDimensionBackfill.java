@@ -0,0 +1,149 @@
+package com.example.demologin.activity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the device and location of activity logs written before
+ * {@link ActivityDimensions} out of the row's own columns (still in the table,
+ * as Hibernate never drops columns) into the dictionaries, {@code chunk-size}
+ * rows per statement. The old values are cleared as each row is converted.
+ *
+ * Each run converts at most {@code chunks-per-run} chunks on the
+ * {@code maintenanceScheduler} thread, resuming after the last id converted.
+ * Once nothing is left it stops looking. The old columns can then be dropped
+ * with {@code db/dimensions/drop-legacy-columns.sql}, after which it finds
+ * nothing to do from the start.
+ *
+ * Off by default: enable it ({@code backfill.enabled}) on one instance only,
+ * as several would read and convert the same rows.
+ */
+@Component
+@Slf4j
+public class ActivityDimensionBackfill {
+
+    private static final String[] LEGACY_COLUMNS = {"user_agent", "browser", "browser_version", "operating_system",
+            "device", "device_type", "city", "region", "country", "country_code"};
+
+    private static final String PROBE_SQL = "SELECT user_agent FROM user_activity_logs WHERE 1 = 0";
+    // Seeks past the last converted id, so each chunk starts where the previous one ended
+    private static final String LEGACY_SQL = "SELECT id, " + String.join(", ", LEGACY_COLUMNS)
+            + " FROM user_activity_logs WHERE id > ? AND ("
+            + Arrays.stream(LEGACY_COLUMNS).map(c -> c + " IS NOT NULL").collect(Collectors.joining(" OR "))
+            + ") ORDER BY id";
+    private static final String UPDATE_SQL = "UPDATE user_activity_logs SET device_id = ?, location_id = ?, "
+            + Arrays.stream(LEGACY_COLUMNS).map(c -> c + " = NULL").collect(Collectors.joining(", "))
+            + " WHERE id = ?";
+
+    private record Legacy(long id, ActivityDimensions.Device device, ActivityDimensions.Location location) {
+    }
+
+    private record Converted(long id, Integer deviceId, Integer locationId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate chunkTemplate;
+    private final ActivityDimensions activityDimensions;
+    private final boolean enabled;
+    private final int chunksPerRun;
+
+    // Only touched by the scheduler thread
+    private long lastId;
+    private volatile boolean done;
+
+    public ActivityDimensionBackfill(DataSource dataSource,
+                                     ActivityDimensions activityDimensions,
+                                     @Value("${activity-log.dimensions.backfill.enabled:false}") boolean enabled,
+                                     @Value("${activity-log.dimensions.backfill.chunk-size:1000}") int chunkSize,
+                                     @Value("${activity-log.dimensions.backfill.chunks-per-run:50}") int chunksPerRun) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.chunkTemplate = new JdbcTemplate(dataSource);
+        this.chunkTemplate.setMaxRows(Math.max(1, chunkSize));
+        this.activityDimensions = activityDimensions;
+        this.enabled = enabled;
+        this.chunksPerRun = Math.max(1, chunksPerRun);
+    }
+
+    @Scheduled(fixedDelayString = "${activity-log.dimensions.backfill.interval-ms:60000}",
+            initialDelayString = "${activity-log.dimensions.backfill.interval-ms:60000}",
+            scheduler = "maintenanceScheduler")
+    public void run() {
+        if (!enabled || done) {
+            return;
+        }
+        try {
+            long converted = backfill();
+            if (converted > 0) {
+                log.info("Moved device/location of {} older activity log(s) into the dictionaries", converted);
+            }
+        } catch (DataAccessException e) {
+            // Tried again on the next run
+            log.error("Activity log dimension backfill failed: {}", e.toString());
+        }
+    }
+
+    /**
+     * Convert up to {@code chunks-per-run} chunks, continuing after the last
+     * row converted; returns how many rows were. Once a run finds nothing
+     * left, {@link #isDone()}.
+     */
+    long backfill() {
+        try {
+            jdbcTemplate.queryForList(PROBE_SQL);
+        } catch (BadSqlGrammarException e) {
+            // The old columns are gone
+            done = true;
+            return 0;
+        }
+        long converted = 0;
+        for (int chunks = 0; chunks < chunksPerRun; chunks++) {
+            // Read first, then resolve, so no query runs while the cursor is open
+            List<Legacy> rows = chunkTemplate.query(LEGACY_SQL, (rs, n) -> new Legacy(rs.getLong(1),
+                    new ActivityDimensions.Device(rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getString(5), rs.getString(6), rs.getString(7)),
+                    new ActivityDimensions.Location(rs.getString(8), rs.getString(9), rs.getString(10),
+                            rs.getString(11))), lastId);
+            List<Converted> chunk = new ArrayList<>(rows.size());
+            for (Legacy row : rows) {
+                chunk.add(new Converted(row.id(), activityDimensions.deviceId(row.device()),
+                        activityDimensions.locationId(row.location())));
+            }
+            if (chunk.isEmpty()) {
+                done = true;
+                return converted;
+            }
+            lastId = chunk.get(chunk.size() - 1).id();
+            jdbcTemplate.batchUpdate(UPDATE_SQL, chunk, chunk.size(), (ps, row) -> {
+                if (row.deviceId() != null) {
+                    ps.setInt(1, row.deviceId());
+                } else {
+                    ps.setNull(1, Types.INTEGER);
+                }
+                if (row.locationId() != null) {
+                    ps.setInt(2, row.locationId());
+                } else {
+                    ps.setNull(2, Types.INTEGER);
+                }
+                ps.setLong(3, row.id());
+            });
+            converted += chunk.size();
+        }
+        return converted;
+    }
+
+    boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.entity.UserActivityLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Dictionaries for the device (User-Agent and what it parses to) and location
+ * of an activity log. A row stores two small ids instead of ten strings. Each
+ * distinct value is stored once, in {@code activity_devices} or
+ * {@code activity_locations}, and found again by a hash of its fields.
+ *
+ * Values and ids are interned in memory in both directions, in LRUs of up to
+ * {@code cache-size} entries per dictionary; values evicted from them are
+ * looked up in the database again. Traffic comes from few distinct devices
+ * and places, so the caches usually hold all of them.
+ */
+@Component
+@Slf4j
+public class ActivityDimensions {
+
+    public record Device(String userAgent, String browser, String browserVersion, String operatingSystem,
+                         String device, String deviceType) {
+    }
+
+    public record Location(String city, String region, String country, String countryCode) {
+    }
+
+    private static final int LOAD_CHUNK = 500;
+
+    private final Dictionary<Device> devices;
+    private final Dictionary<Location> locations;
+
+    public ActivityDimensions(DataSource dataSource,
+                              MeterRegistry meterRegistry,
+                              @Value("${activity-log.dimensions.cache-size:100000}") int cacheSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        this.devices = new Dictionary<>(jdbcTemplate, "activity_devices",
+                new String[]{"user_agent", "browser", "browser_version", "operating_system", "device", "device_type"},
+                new int[]{1000, 100, 50, 100, 100, 20},
+                d -> new String[]{d.userAgent(), d.browser(), d.browserVersion(), d.operatingSystem(), d.device(), d.deviceType()},
+                f -> new Device(f[0], f[1], f[2], f[3], f[4], f[5]),
+                cacheSize);
+        this.locations = new Dictionary<>(jdbcTemplate, "activity_locations",
+                new String[]{"city", "region", "country", "country_code"},
+                new int[]{100, 100, 100, 10},
+                l -> new String[]{l.city(), l.region(), l.country(), l.countryCode()},
+                f -> new Location(f[0], f[1], f[2], f[3]),
+                cacheSize);
+
+        Gauge.builder("activity.log.dimensions.cached", devices, Dictionary::cached)
+                .tag("dimension", "device")
+                .register(meterRegistry);
+        Gauge.builder("activity.log.dimensions.cached", locations, Dictionary::cached)
+                .tag("dimension", "location")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Set the row's device and location ids from its device and location
+     * fields, adding values not seen before to the dictionaries.
+     */
+    public void intern(UserActivityLog row) {
+        row.setDeviceId(deviceId(new Device(row.getUserAgent(), row.getBrowser(), row.getBrowserVersion(),
+                row.getOperatingSystem(), row.getDevice(), row.getDeviceType())));
+        row.setLocationId(locationId(new Location(row.getCity(), row.getRegion(), row.getCountry(),
+                row.getCountryCode())));
+    }
+
+    public Integer deviceId(Device device) {
+        return devices.idOf(device);
+    }
+
+    public Integer locationId(Location location) {
+        return locations.idOf(location);
+    }
+
+    /**
+     * Fill the row's device and location fields from its ids.
+     */
+    public void resolve(UserActivityLog row) {
+        Device device = devices.valueOf(row.getDeviceId());
+        if (device != null) {
+            row.setUserAgent(device.userAgent());
+            row.setBrowser(device.browser());
+            row.setBrowserVersion(device.browserVersion());
+            row.setOperatingSystem(device.operatingSystem());
+            row.setDevice(device.device());
+            row.setDeviceType(device.deviceType());
+        }
+        Location location = locations.valueOf(row.getLocationId());
+        if (location != null) {
+            row.setCity(location.city());
+            row.setRegion(location.region());
+            row.setCountry(location.country());
+            row.setCountryCode(location.countryCode());
+        }
+    }
+
+    /**
+     * Load every id the rows reference that is not cached yet, one query per
+     * dictionary, so resolving them afterwards needs no further round trips.
+     */
+    public void preload(Collection<UserActivityLog> rows) {
+        devices.load(rows.stream().map(UserActivityLog::getDeviceId).filter(Objects::nonNull).distinct().toList());
+        locations.load(rows.stream().map(UserActivityLog::getLocationId).filter(Objects::nonNull).distinct().toList());
+    }
+
+    private static final class Dictionary<V> {
+        private final JdbcTemplate jdbcTemplate;
+        private final String table;
+        private final int[] lengths;
+        private final Function<V, String[]> fields;
+        private final Function<String[], V> factory;
+        private final String insertSql;
+        private final String selectByHashSql;
+        private final String selectByIdsSql;
+
+        // Access-ordered, each guarded by its own monitor
+        private final Map<V, Integer> ids;
+        private final Map<Integer, V> values;
+
+        Dictionary(JdbcTemplate jdbcTemplate, String table, String[] columns, int[] lengths,
+                   Function<V, String[]> fields, Function<String[], V> factory, int maxCached) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.table = table;
+            this.lengths = lengths;
+            this.fields = fields;
+            this.factory = factory;
+            this.ids = lru(Math.max(0, maxCached));
+            this.values = lru(Math.max(0, maxCached));
+            String columnList = String.join(", ", columns);
+            this.insertSql = "INSERT INTO " + table + " (hash, " + columnList + ") VALUES (?"
+                    + ", ?".repeat(columns.length) + ")";
+            this.selectByHashSql = "SELECT id, " + columnList + " FROM " + table + " WHERE hash = ?";
+            this.selectByIdsSql = "SELECT id, " + columnList + " FROM " + table + " WHERE id IN (%s)";
+        }
+
+        Integer idOf(V value) {
+            Integer id;
+            synchronized (ids) {
+                id = ids.get(value);
+            }
+            if (id != null) {
+                return id;
+            }
+            // Stored as the columns will hold it, so the stored row compares equal
+            String[] stored = fields.apply(value);
+            boolean empty = true;
+            for (int i = 0; i < stored.length; i++) {
+                if (stored[i] != null && stored[i].length() > lengths[i]) {
+                    stored[i] = stored[i].substring(0, lengths[i]);
+                }
+                empty &= stored[i] == null;
+            }
+            if (empty) {
+                return null;
+            }
+            V normalized = factory.apply(stored);
+            long hash = hash(stored);
+
+            Entry<V> row = findByHash(hash);
+            if (row == null) {
+                Object[] args = new Object[stored.length + 1];
+                args[0] = hash;
+                System.arraycopy(stored, 0, args, 1, stored.length);
+                try {
+                    jdbcTemplate.update(insertSql, args);
+                } catch (DuplicateKeyException e) {
+                    // Inserted concurrently, by another thread or instance
+                }
+                row = findByHash(hash);
+            }
+            if (row == null || !row.value().equals(normalized)) {
+                log.warn("Hash collision in {} for {}; the activity is logged without it", table, normalized);
+                return null;
+            }
+            synchronized (ids) {
+                ids.put(value, row.id());
+            }
+            cache(row.id(), row.value());
+            return row.id();
+        }
+
+        V valueOf(Integer id) {
+            if (id == null) {
+                return null;
+            }
+            V value;
+            synchronized (values) {
+                value = values.get(id);
+            }
+            return value != null ? value : load(List.of(id)).get(id);
+        }
+
+        /**
+         * Read uncached ids from the table; returns what was read, whether or
+         * not it is still cached by the time the caller looks.
+         */
+        Map<Integer, V> load(Collection<Integer> wanted) {
+            Map<Integer, V> loaded = new HashMap<>();
+            List<Integer> missing = new ArrayList<>();
+            synchronized (values) {
+                for (Integer id : wanted) {
+                    if (!values.containsKey(id)) {
+                        missing.add(id);
+                    }
+                }
+            }
+            for (int from = 0; from < missing.size(); from += LOAD_CHUNK) {
+                List<Integer> chunk = missing.subList(from, Math.min(from + LOAD_CHUNK, missing.size()));
+                String sql = String.format(selectByIdsSql, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                    Entry<V> row = read(rs);
+                    loaded.put(row.id(), row.value());
+                    cache(row.id(), row.value());
+                }, chunk.toArray());
+            }
+            return loaded;
+        }
+
+        private void cache(Integer id, V value) {
+            synchronized (values) {
+                values.put(id, value);
+            }
+        }
+
+        int cached() {
+            synchronized (values) {
+                return values.size();
+            }
+        }
+
+        private static <K, T> Map<K, T> lru(int maxEntries) {
+            return new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, T> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        private Entry<V> findByHash(long hash) {
+            List<Entry<V>> rows = jdbcTemplate.query(selectByHashSql, (rs, n) -> read(rs), hash);
+            return rows.isEmpty() ? null : rows.get(0);
+        }
+
+        private Entry<V> read(ResultSet rs) throws SQLException {
+            String[] stored = new String[lengths.length];
+            for (int i = 0; i < stored.length; i++) {
+                stored[i] = rs.getString(i + 2);
+            }
+            return new Entry<>(rs.getInt(1), factory.apply(stored));
+        }
+    }
+
+    private record Entry<V>(Integer id, V value) {
+    }
+
+    /**
+     * First 64 bits of SHA-256 over the fields, null told apart from any string.
+     */
+    static long hash(String[] fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (String field : fields) {
+            if (field == null) {
+                digest.update((byte) 0);
+            } else {
+                digest.update((byte) 1);
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.enums.ActivityType;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a request knows about an activity at the moment it happens. Everything
+ * that needs the database or a remote call (resolving the login user, parsing
+ * the User-Agent, geo lookup) is left to {@link ActivityLogWriter}.
+ *
+ * @param userId        authenticated user, or null
+ * @param fullName      name of the authenticated user, or null
+ * @param loginName     username or email to resolve the user from when
+ *                      {@code userId} is not known (login attempts)
+ * @param ipForLocation address to geolocate (the loopback is mapped to a public one)
+ */
+public record ActivityLogEvent(
+        ActivityType activityType,
+        String status,
+        Long userId,
+        String fullName,
+        String loginName,
+        String details,
+        String clientIp,
+        String userAgent,
+        String ipForLocation,
+        LocalDateTime timestamp) {
+}
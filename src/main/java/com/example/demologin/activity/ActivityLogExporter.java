@@ -0,0 +1,277 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams activity logs matching an export request as CSV or NDJSON. Rows are
+ * read from a forward-only, read-only cursor ({@code fetch-size} rows per round
+ * trip) and written straight to the output as they arrive, so memory use does
+ * not depend on how many rows match. Rows come in id order.
+ *
+ * The cursor runs in a read-only transaction: PostgreSQL only honours the
+ * fetch size with auto-commit off, and MySQL streams row by row when asked
+ * for {@link Integer#MIN_VALUE}.
+ */
+@Component
+@Slf4j
+public class ActivityLogExporter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    static final String[] COLUMNS = {"id", "timestamp", "activityType", "status", "userId", "fullName",
+            "ipAddress", "userAgent", "browser", "browserVersion", "operatingSystem", "device", "deviceType",
+            "city", "region", "country", "countryCode", "details"};
+
+    // Device and location come from their dictionaries (see ActivityDimensions)
+    private static final String SELECT_SQL = "SELECT l.id, l.timestamp, l.activity_type, l.status, l.user_id, "
+            + "l.full_name, l.ip_address, d.user_agent, d.browser, d.browser_version, d.operating_system, d.device, "
+            + "d.device_type, g.city, g.region, g.country, g.country_code, l.details FROM user_activity_logs l "
+            + "LEFT JOIN activity_devices d ON d.id = l.device_id LEFT JOIN activity_locations g ON g.id = l.location_id "
+            + "WHERE l.timestamp >= ? AND l.timestamp < ?";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ActivityLogExporter(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${activity-log.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     * Write every matching row to {@code out}, gzip-compressed if asked. The
+     * stream is finished but not closed; returns the number of rows written.
+     */
+    public long export(UserActivityLogExportRequest request, Format format, boolean gzip, OutputStream out)
+            throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rows = format == Format.NDJSON ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+
+        long started = System.nanoTime();
+        long count;
+        try {
+            rows.start();
+            count = transactionTemplate.execute(status -> query(request, rows));
+            rows.finish();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is already closed
+            throw e.getCause();
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        log.info("Exported {} activity log(s) as {}{} in {} ms", count, format, gzip ? " (gzip)" : "",
+                (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+
+    private long query(UserActivityLogExportRequest request, RowWriter rows) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        args.add(Timestamp.valueOf(request.getStartDate().atStartOfDay()));
+        args.add(Timestamp.valueOf(request.getEndDate().plusDays(1).atStartOfDay()));
+        if (request.getUserId() != null) {
+            sql.append(" AND l.user_id = ?");
+            args.add(request.getUserId());
+        }
+        if (request.getActivityType() != null) {
+            sql.append(" AND l.activity_type = ?");
+            args.add(request.getActivityType().name());
+        }
+        if (request.getStatus() != null && !request.getStatus().isBlank()) {
+            sql.append(" AND l.status = ?");
+            args.add(request.getStatus().trim());
+        }
+        sql.append(" ORDER BY l.id");
+
+        PreparedStatementCreator cursor = con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(isMySql(con) ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        };
+        long[] count = {0};
+        jdbcTemplate.query(cursor, rs -> {
+            try {
+                rows.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private static boolean isMySql(Connection con) throws SQLException {
+        return con.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(COLUMNS[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                if (i == 2) {
+                    Timestamp timestamp = rs.getTimestamp(i);
+                    if (timestamp != null) {
+                        writer.write(timestamp.toLocalDateTime().toString());
+                    }
+                } else {
+                    writeField(rs.getString(i));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields holding a separator, quote or line break; double embedded quotes
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private JsonGenerator json;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            json = jsonFactory.createGenerator(writer);
+            json.setRootValueSeparator(null);
+            // The generator writes through to the shared buffered writer and leaves it open
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField(COLUMNS[0], rs.getLong(1));
+            Timestamp timestamp = rs.getTimestamp(2);
+            json.writeStringField(COLUMNS[1], timestamp == null ? null : timestamp.toLocalDateTime().toString());
+            for (int i = 3; i <= COLUMNS.length; i++) {
+                if (i == 5) {
+                    long userId = rs.getLong(i);
+                    if (rs.wasNull()) {
+                        json.writeNullField(COLUMNS[i - 1]);
+                    } else {
+                        json.writeNumberField(COLUMNS[i - 1], userId);
+                    }
+                } else {
+                    json.writeStringField(COLUMNS[i - 1], rs.getString(i));
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly layout and retention for {@code user_activity_logs}. A month is the
+ * unit of retention: months older than {@code retention.months} (before the
+ * current one) are retired whole, each first archived as a gzipped CSV to
+ * {@code retention.archive-dir} when one is set.
+ *
+ * On a table partitioned by month (see {@code db/partitioning/*.sql}) the job
+ * keeps {@code partitions-ahead} future partitions created and retires a month
+ * by dropping its partition, a metadata-only change. Any other table, and H2,
+ * is treated as logically partitioned by the same month ranges: rows are
+ * deleted oldest first in chunks of {@code retention.chunk-size}, each its own
+ * statement, so no lock is held for long.
+ *
+ * The job runs on the {@code maintenanceScheduler} thread, so however long a
+ * backlog takes to delete, other scheduled jobs keep their cadence. Run it
+ * with retention on one instance only; several would archive the same month
+ * more than once.
+ */
+@Component
+@Slf4j
+public class ActivityLogRetention {
+
+    enum Layout { POSTGRESQL, MYSQL, UNPARTITIONED }
+
+    static final String TABLE = "user_activity_logs";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("(?:" + TABLE + "_)?p(\\d{6})");
+
+    private static final String PG_LAYOUT_SQL =
+            "SELECT c.relkind FROM pg_class c WHERE c.relname = ? AND pg_table_is_visible(c.oid)";
+    private static final String PG_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+            + "WHERE p.relname = ? AND pg_table_is_visible(p.oid)";
+    private static final String MYSQL_PARTITIONS_SQL = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL";
+    private static final String OLDEST_SQL = "SELECT MIN(timestamp) FROM " + TABLE;
+    private static final String CHUNK_IDS_SQL =
+            "SELECT id FROM " + TABLE + " WHERE timestamp < ? ORDER BY timestamp, id";
+    private static final String DELETE_IDS_SQL = "DELETE FROM " + TABLE + " WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate chunkTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+    private final ActivityLogExporter exporter;
+    private final int retentionMonths;
+    private final long chunkPauseMillis;
+    private final Path archiveDir;
+    private final int partitionsAhead;
+
+    public ActivityLogRetention(DataSource dataSource,
+                                ActivityLogExporter exporter,
+                                @Value("${activity-log.retention.months:0}") int retentionMonths,
+                                @Value("${activity-log.retention.chunk-size:5000}") int chunkSize,
+                                @Value("${activity-log.retention.chunk-pause-ms:100}") long chunkPauseMillis,
+                                @Value("${activity-log.retention.archive-dir:}") String archiveDir,
+                                @Value("${activity-log.partitions-ahead:2}") int partitionsAhead) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Bounds each chunk without dialect-specific LIMIT syntax
+        this.chunkTemplate = new JdbcTemplate(dataSource);
+        this.chunkTemplate.setMaxRows(Math.max(1, chunkSize));
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.exporter = exporter;
+        this.retentionMonths = retentionMonths;
+        this.chunkPauseMillis = Math.max(0, chunkPauseMillis);
+        this.archiveDir = archiveDir == null || archiveDir.isBlank() ? null : Path.of(archiveDir.trim());
+        this.partitionsAhead = Math.max(0, partitionsAhead);
+    }
+
+    /**
+     * Makes sure the coming months have partitions before any row needs them.
+     */
+    @PostConstruct
+    public void preparePartitions() {
+        try {
+            Layout layout = layout();
+            if (layout != Layout.UNPARTITIONED) {
+                ensurePartitions(layout, YearMonth.now(), partitions(layout));
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to prepare activity log partitions: {}", e.toString());
+        }
+    }
+
+    @Scheduled(cron = "${activity-log.retention.cron:0 30 3 * * *}", scheduler = "maintenanceScheduler")
+    public void run() {
+        run(YearMonth.now());
+    }
+
+    void run(YearMonth current) {
+        try {
+            Layout layout = layout();
+            Map<YearMonth, String> partitions = layout == Layout.UNPARTITIONED ? Map.of() : partitions(layout);
+            if (layout != Layout.UNPARTITIONED) {
+                ensurePartitions(layout, current, partitions);
+            }
+            if (retentionMonths <= 0) {
+                return;
+            }
+            YearMonth keepFrom = current.minusMonths(retentionMonths);
+            if (layout == Layout.UNPARTITIONED) {
+                YearMonth month = oldestMonth();
+                while (month != null && month.isBefore(keepFrom)) {
+                    // Archived once, then deleted to the end before moving on
+                    archive(month);
+                    long deleted = deleteBefore(month.plusMonths(1));
+                    if (Thread.currentThread().isInterrupted()) {
+                        log.warn("Activity log retention interrupted in {} after {} row(s)", month, deleted);
+                        return;
+                    }
+                    log.info("Retired activity logs for {}: {} row(s) deleted", month, deleted);
+                    YearMonth next = oldestMonth();
+                    if (next != null && !next.isAfter(month)) {
+                        // Rows were written into the month meanwhile; left for the next run
+                        return;
+                    }
+                    month = next;
+                }
+            } else {
+                for (Map.Entry<YearMonth, String> partition : partitions.entrySet()) {
+                    if (partition.getKey().isBefore(keepFrom)) {
+                        archive(partition.getKey());
+                        dropPartition(layout, partition.getValue());
+                        log.info("Retired activity logs for {}: dropped partition {}", partition.getKey(), partition.getValue());
+                    }
+                }
+            }
+        } catch (IOException | DataAccessException e) {
+            // Whatever was not retired is picked up by the next run
+            log.error("Activity log retention failed: {}", e.toString());
+        }
+    }
+
+    Layout layout() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                con.getMetaData().getDatabaseProductName().toLowerCase());
+        if (product == null) {
+            return Layout.UNPARTITIONED;
+        }
+        if (product.contains("postgresql")) {
+            List<String> kind = jdbcTemplate.queryForList(PG_LAYOUT_SQL, String.class, TABLE);
+            return kind.contains("p") ? Layout.POSTGRESQL : Layout.UNPARTITIONED;
+        }
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return jdbcTemplate.queryForList(MYSQL_PARTITIONS_SQL, String.class, TABLE).isEmpty()
+                    ? Layout.UNPARTITIONED : Layout.MYSQL;
+        }
+        return Layout.UNPARTITIONED;
+    }
+
+    /**
+     * Monthly partitions by month, oldest first; others (such as MySQL's
+     * catch-all {@code pmax}) are left alone.
+     */
+    private Map<YearMonth, String> partitions(Layout layout) {
+        List<String> names = jdbcTemplate.queryForList(
+                layout == Layout.POSTGRESQL ? PG_PARTITIONS_SQL : MYSQL_PARTITIONS_SQL, String.class, TABLE);
+        Map<YearMonth, String> byMonth = new TreeMap<>();
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                byMonth.put(YearMonth.parse(matcher.group(1), PARTITION_MONTH), name);
+            }
+        }
+        return byMonth;
+    }
+
+    private void ensurePartitions(Layout layout, YearMonth current, Map<YearMonth, String> existing) {
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(partitionsAhead)); month = month.plusMonths(1)) {
+            if (existing.containsKey(month)) {
+                continue;
+            }
+            String suffix = month.format(PARTITION_MONTH);
+            String from = month.atDay(1).toString();
+            String to = month.plusMonths(1).atDay(1).toString();
+            if (layout == Layout.POSTGRESQL) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + "_p" + suffix + " PARTITION OF " + TABLE
+                        + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            } else {
+                // Splits the empty catch-all partition, so no rows move
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO (PARTITION p" + suffix
+                        + " VALUES LESS THAN ('" + to + "'), PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+            }
+            log.info("Created activity log partition for {}", month);
+        }
+    }
+
+    private void dropPartition(Layout layout, String name) {
+        if (layout == Layout.POSTGRESQL) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+            jdbcTemplate.execute("DROP TABLE " + name);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+        }
+    }
+
+    private YearMonth oldestMonth() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_SQL, Timestamp.class);
+        return oldest == null ? null : YearMonth.from(oldest.toLocalDateTime());
+    }
+
+    /**
+     * Delete rows older than {@code end} in chunks, walking the (timestamp, id)
+     * index; returns the number of rows deleted. Returns early only when
+     * interrupted, leaving the thread's interrupt flag set.
+     */
+    long deleteBefore(YearMonth end) {
+        Timestamp before = Timestamp.valueOf(end.atDay(1).atStartOfDay());
+        long deleted = 0;
+        while (true) {
+            List<Long> ids = chunkTemplate.queryForList(CHUNK_IDS_SQL, Long.class, before);
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            deleted += namedTemplate.update(DELETE_IDS_SQL, Map.of("ids", ids));
+            if (chunkPauseMillis > 0) {
+                try {
+                    Thread.sleep(chunkPauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return deleted;
+                }
+            }
+        }
+    }
+
+    private void archive(YearMonth month) throws IOException {
+        if (archiveDir == null) {
+            return;
+        }
+        Files.createDirectories(archiveDir);
+        UserActivityLogExportRequest request = new UserActivityLogExportRequest();
+        request.setStartDate(month.atDay(1));
+        request.setEndDate(month.atEndOfMonth());
+
+        // Written aside and moved into place, so a crash never leaves a partial archive
+        Path partial = Files.createTempFile(archiveDir, "activity-logs-" + month, ".part");
+        try {
+            long rows;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                rows = exporter.export(request, ActivityLogExporter.Format.CSV, true, out);
+            }
+            Path target = archiveDir.resolve("activity-logs-" + month + ".csv.gz");
+            // A run interrupted after archiving leaves the rest of the month for another file
+            for (int n = 1; Files.exists(target); n++) {
+                target = archiveDir.resolve("activity-logs-" + month + "-" + n + ".csv.gz");
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archived {} activity log(s) for {} to {}", rows, month, target);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.entity.User;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.utils.EmailUtils;
+import com.example.demologin.utils.LocationUtil;
+import com.example.demologin.utils.UserAgentUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind for user activity logs. Requests only {@link #submit} an
+ * {@link ActivityLogEvent} into a bounded {@link MpscRingBuffer}; a single
+ * background thread enriches the events (login user, User-Agent, location) and
+ * writes them in JDBC batches of up to {@code flush-size}, at least every
+ * {@code flush-interval-ms}. Buffered events are flushed on shutdown.
+ *
+ * When the buffer is full the event is dropped ({@code DROP}, the default) or
+ * the request waits up to {@code block-timeout-ms} for space ({@code BLOCK})
+ * before dropping it. Drops are counted in {@code activity.log.events{result=dropped}}.
+ *
+ * As before, an activity repeated by the same user from the same address and
+ * User-Agent refreshes the user's latest matching row instead of adding one.
+ * Such rows are identified by a {@code fingerprint} hash of those four values
+ * and held in a per-node coalescing map for up to {@code coalesce.window-ms}
+ * (or until it holds {@code coalesce.max-entries}), so a burst of repeats costs
+ * one row write. The row id behind a fingerprint is found with one indexed
+ * {@code IN} query per flush and remembered for later windows; a remembered
+ * row that has since been deleted updates nothing, so its fingerprint is
+ * forgotten and the activity inserted as a new row. Every event is
+ * still counted in {@link ActivityStatsRollup}. Device and location are written
+ * as ids from {@link ActivityDimensions}.
+ */
+@Component
+@Slf4j
+public class ActivityLogWriter {
+
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    private static final String INSERT_SQL = "INSERT INTO user_activity_logs (activity_type, user_id, full_name, "
+            + "timestamp, status, details, ip_address, fingerprint, device_id, location_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE user_activity_logs SET full_name = ?, timestamp = ?, "
+            + "details = ?, device_id = ?, location_id = ? WHERE id = ?";
+    private static final String LATEST_BY_FINGERPRINT_SQL =
+            "SELECT fingerprint, MAX(id) FROM user_activity_logs WHERE fingerprint IN (%s) GROUP BY fingerprint";
+    private static final int LOOKUP_CHUNK = 500;
+
+    private final UserRepository userRepository;
+    private final LocationUtil locationUtil;
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityStatsRollup activityStatsRollup;
+    private final ActivityDimensions activityDimensions;
+    private final MpscRingBuffer<ActivityLogEvent> buffer;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final long coalesceWindowNanos;
+    private final int coalesceMaxEntries;
+
+    // Owned by the buffer's consumer, like the batch itself
+    private final Map<Long, Coalesced> coalescing = new LinkedHashMap<>();
+    private final Map<Long, Long> rowIdsByFingerprint;
+    private long coalesceDeadline;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile Thread writerThread;
+    private volatile boolean running;
+
+    public ActivityLogWriter(UserRepository userRepository,
+                             LocationUtil locationUtil,
+                             JdbcTemplate jdbcTemplate,
+                             ActivityStatsRollup activityStatsRollup,
+                             ActivityDimensions activityDimensions,
+                             MeterRegistry meterRegistry,
+                             @Value("${activity-log.write-behind.capacity:8192}") int capacity,
+                             @Value("${activity-log.write-behind.flush-size:200}") int flushSize,
+                             @Value("${activity-log.write-behind.flush-interval-ms:500}") long flushIntervalMillis,
+                             @Value("${activity-log.write-behind.overflow:DROP}") OverflowPolicy overflowPolicy,
+                             @Value("${activity-log.write-behind.block-timeout-ms:20}") long blockTimeoutMillis,
+                             @Value("${activity-log.coalesce.window-ms:5000}") long coalesceWindowMillis,
+                             @Value("${activity-log.coalesce.max-entries:10000}") int coalesceMaxEntries) {
+        this.userRepository = userRepository;
+        this.locationUtil = locationUtil;
+        this.jdbcTemplate = jdbcTemplate;
+        this.activityStatsRollup = activityStatsRollup;
+        this.activityDimensions = activityDimensions;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.flushSize = Math.max(1, flushSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.coalesceWindowNanos = TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis);
+        this.coalesceMaxEntries = Math.max(1, coalesceMaxEntries);
+        this.rowIdsByFingerprint = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > ActivityLogWriter.this.coalesceMaxEntries;
+            }
+        };
+
+        for (Map.Entry<String, AtomicLong> counter : Map.of(
+                "accepted", accepted, "dropped", dropped, "written", written, "failed", failed).entrySet()) {
+            FunctionCounter.builder("activity.log.events", counter.getValue(), AtomicLong::get)
+                    .tag("result", counter.getKey())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("activity.log.buffer.size", buffer, MpscRingBuffer::size)
+                .register(meterRegistry);
+        Gauge.builder("activity.log.coalescing.size", coalescing, Map::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "activity-log-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop the writer thread and write whatever is still buffered or coalescing.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.warn("Activity log writer did not stop, {} event(s) not written",
+                        buffer.size() + coalescing.size());
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Queue an event for writing. Never touches the database; returns false
+     * if the event was dropped because the buffer stayed full.
+     */
+    public boolean submit(ActivityLogEvent event) {
+        boolean queued = buffer.offer(event);
+        if (!queued && overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (!queued && System.nanoTime() < deadline) {
+                wakeWriter();
+                LockSupport.parkNanos(50_000);
+                queued = buffer.offer(event);
+            }
+        }
+        if (!queued) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        accepted.incrementAndGet();
+        if (buffer.size() >= flushSize) {
+            wakeWriter();
+        }
+        return true;
+    }
+
+    /**
+     * Write everything currently buffered or coalescing, in batches. Only while
+     * the writer thread is not running: the buffer has a single consumer.
+     */
+    void flush() {
+        List<ActivityLogEvent> batch = new ArrayList<>(flushSize);
+        while (buffer.drain(batch::add, flushSize) > 0) {
+            writeSafely(batch);
+            batch.clear();
+        }
+        flushCoalescedSafely();
+    }
+
+    public int pendingCount() {
+        return buffer.size();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    private void wakeWriter() {
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        List<ActivityLogEvent> batch = new ArrayList<>(flushSize);
+        long deadline = 0;
+        while (running) {
+            boolean wasEmpty = batch.isEmpty();
+            int drained = buffer.drain(batch::add, flushSize - batch.size());
+            long now = System.nanoTime();
+            if (wasEmpty && drained > 0) {
+                deadline = now + flushIntervalNanos;
+            }
+            if (batch.size() >= flushSize || (!batch.isEmpty() && now - deadline >= 0)) {
+                writeSafely(batch);
+                batch.clear();
+            } else if (coalesceDue(now)) {
+                flushCoalescedSafely();
+            } else if (drained == 0) {
+                long wait = batch.isEmpty() ? flushIntervalNanos : deadline - now;
+                if (!coalescing.isEmpty()) {
+                    wait = Math.min(wait, coalesceDeadline - now);
+                }
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+        writeSafely(batch);
+        flushCoalescedSafely();
+    }
+
+    private boolean coalesceDue(long now) {
+        return !coalescing.isEmpty() && now - coalesceDeadline >= 0;
+    }
+
+    private void writeSafely(List<ActivityLogEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Enrichment enrichment = new Enrichment();
+        List<UserActivityLog> anonymous = new ArrayList<>();
+        int coalesced = 0;
+        for (ActivityLogEvent event : batch) {
+            UserActivityLog row;
+            try {
+                row = enrichment.toLog(event);
+            } catch (RuntimeException e) {
+                log.error("Failed to log user activity {}: {}", event.activityType(), e.getMessage());
+                row = failedLog(event, e.getMessage());
+            }
+            // Counted per event, so repeats folded into one row still show in the stats
+            activityStatsRollup.record(row);
+            try {
+                activityDimensions.intern(row);
+            } catch (RuntimeException e) {
+                // Still logged, without device and location
+                log.error("Failed to resolve device/location ids: {}", e.getMessage());
+            }
+            if (row.getUserId() == null) {
+                anonymous.add(row);
+            } else {
+                coalesce(row);
+                coalesced++;
+            }
+        }
+
+        if (!anonymous.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, anonymous, anonymous.size(), this::bindInsert);
+                written.addAndGet(anonymous.size());
+            } catch (RuntimeException e) {
+                // Keep the thread alive; the rows are lost like a failed synchronous save was
+                failed.addAndGet(anonymous.size());
+                log.error("Failed to write {} activity log(s): {}", anonymous.size(), e.getMessage());
+            }
+        }
+        log.debug("Wrote {} activity log event(s), coalescing {}", anonymous.size(), coalesced);
+    }
+
+    private void coalesce(UserActivityLog row) {
+        long fingerprint = fingerprint(row);
+        row.setFingerprint(fingerprint);
+        Coalesced pending = coalescing.get(fingerprint);
+        if (pending != null) {
+            copyMutableFields(row, pending.row);
+            pending.events++;
+            return;
+        }
+        if (coalescing.isEmpty()) {
+            coalesceDeadline = System.nanoTime() + coalesceWindowNanos;
+        }
+        coalescing.put(fingerprint, new Coalesced(row));
+        if (coalescing.size() >= coalesceMaxEntries) {
+            flushCoalescedSafely();
+        }
+    }
+
+    private void flushCoalescedSafely() {
+        if (coalescing.isEmpty()) {
+            return;
+        }
+        List<Coalesced> pending = new ArrayList<>(coalescing.values());
+        coalescing.clear();
+        int events = pending.stream().mapToInt(c -> c.events).sum();
+        try {
+            flushCoalesced(pending);
+            written.addAndGet(events);
+        } catch (RuntimeException e) {
+            failed.addAndGet(events);
+            log.error("Failed to write {} coalesced activity log(s): {}", pending.size(), e.getMessage());
+        }
+    }
+
+    private void flushCoalesced(List<Coalesced> pending) {
+        List<Long> unknown = new ArrayList<>();
+        for (Coalesced c : pending) {
+            if (!rowIdsByFingerprint.containsKey(c.row.getFingerprint())) {
+                unknown.add(c.row.getFingerprint());
+            }
+        }
+        lookupLatestRowIds(unknown);
+
+        List<UserActivityLog> inserts = new ArrayList<>();
+        List<UserActivityLog> updates = new ArrayList<>();
+        for (Coalesced c : pending) {
+            Long id = rowIdsByFingerprint.get(c.row.getFingerprint());
+            if (id == null) {
+                inserts.add(c.row);
+            } else {
+                c.row.setId(id);
+                updates.add(c.row);
+            }
+        }
+        int updated = updates.size();
+        if (!updates.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), this::bindUpdate);
+            int i = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    UserActivityLog row = updates.get(i++);
+                    if (count == 0) {
+                        // The row was deleted since its id was remembered; start a new one
+                        rowIdsByFingerprint.remove(row.getFingerprint());
+                        row.setId(null);
+                        inserts.add(row);
+                        updated--;
+                    }
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), this::bindInsert);
+        }
+        log.debug("Flushed {} coalesced activity log(s): {} insert(s), {} update(s)",
+                pending.size(), inserts.size(), updated);
+    }
+
+    /**
+     * Remember the newest row for each fingerprint that has one. Rows inserted
+     * by the previous flush are found here the next time they repeat.
+     */
+    private void lookupLatestRowIds(List<Long> fingerprints) {
+        for (int from = 0; from < fingerprints.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = fingerprints.subList(from, Math.min(from + LOOKUP_CHUNK, fingerprints.size()));
+            String sql = String.format(LATEST_BY_FINGERPRINT_SQL, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> rowIdsByFingerprint.put(rs.getLong(1), rs.getLong(2)),
+                    chunk.toArray());
+        }
+    }
+
+    /**
+     * First 64 bits of SHA-256 over user, activity type, address and User-Agent.
+     */
+    static long fingerprint(UserActivityLog row) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        String key = row.getUserId() + "\0" + row.getActivityType() + "\0"
+                + row.getIpAddress() + "\0" + row.getUserAgent();
+        return ByteBuffer.wrap(digest.digest(key.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    private static final class Coalesced {
+        private final UserActivityLog row;
+        private int events = 1;
+
+        Coalesced(UserActivityLog row) {
+            this.row = row;
+        }
+    }
+
+    private static void copyMutableFields(UserActivityLog from, UserActivityLog to) {
+        to.setFullName(from.getFullName());
+        to.setTimestamp(from.getTimestamp());
+        to.setDetails(from.getDetails());
+        to.setDeviceId(from.getDeviceId());
+        to.setLocationId(from.getLocationId());
+    }
+
+    private static UserActivityLog failedLog(ActivityLogEvent event, String error) {
+        return UserActivityLog.builder()
+                .activityType(event.activityType())
+                .status("FAILED")
+                .timestamp(event.timestamp())
+                .details("Failed to log activity: " + error)
+                .ipAddress(event.clientIp())
+                .userAgent(event.userAgent())
+                .build();
+    }
+
+    private void bindInsert(PreparedStatement ps, UserActivityLog row) throws SQLException {
+        ps.setString(1, row.getActivityType().name());
+        if (row.getUserId() != null) {
+            ps.setLong(2, row.getUserId());
+        } else {
+            ps.setNull(2, Types.BIGINT);
+        }
+        ps.setString(3, row.getFullName());
+        ps.setTimestamp(4, Timestamp.valueOf(row.getTimestamp()));
+        ps.setString(5, row.getStatus());
+        ps.setString(6, row.getDetails());
+        ps.setString(7, row.getIpAddress());
+        if (row.getFingerprint() != null) {
+            ps.setLong(8, row.getFingerprint());
+        } else {
+            ps.setNull(8, Types.BIGINT);
+        }
+        bindDeviceAndLocation(ps, 9, row);
+    }
+
+    private void bindUpdate(PreparedStatement ps, UserActivityLog row) throws SQLException {
+        ps.setString(1, row.getFullName());
+        ps.setTimestamp(2, Timestamp.valueOf(row.getTimestamp()));
+        ps.setString(3, row.getDetails());
+        bindDeviceAndLocation(ps, 4, row);
+        ps.setLong(6, row.getId());
+    }
+
+    private static void bindDeviceAndLocation(PreparedStatement ps, int first, UserActivityLog row) throws SQLException {
+        if (row.getDeviceId() != null) {
+            ps.setInt(first, row.getDeviceId());
+        } else {
+            ps.setNull(first, Types.INTEGER);
+        }
+        if (row.getLocationId() != null) {
+            ps.setInt(first + 1, row.getLocationId());
+        } else {
+            ps.setNull(first + 1, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Per-batch lookups, so a burst from one client costs one of each.
+     */
+    private final class Enrichment {
+        private final Map<String, Optional<User>> users = new HashMap<>();
+        private final Map<String, UserAgentUtil.DeviceInfo> devices = new HashMap<>();
+        private final Map<String, LocationUtil.LocationInfo> locations = new HashMap<>();
+
+        UserActivityLog toLog(ActivityLogEvent event) {
+            Long userId = event.userId();
+            String fullName = event.fullName();
+            if (event.loginName() != null) {
+                Optional<User> user = users.computeIfAbsent(event.loginName(), this::findUser);
+                if (user.isPresent()) {
+                    userId = user.get().getUserId();
+                    fullName = user.get().getFullName();
+                }
+            }
+            UserAgentUtil.DeviceInfo device = devices.computeIfAbsent(String.valueOf(event.userAgent()),
+                    ua -> UserAgentUtil.parseUserAgent(event.userAgent()));
+            LocationUtil.LocationInfo location = locations.computeIfAbsent(String.valueOf(event.ipForLocation()),
+                    ip -> locationUtil.getLocationIfCached(event.ipForLocation()));
+
+            return UserActivityLog.builder()
+                    .activityType(event.activityType())
+                    .userId(userId)
+                    .fullName(fullName)
+                    .status(event.status())
+                    .timestamp(event.timestamp())
+                    .details(event.details())
+                    .ipAddress(event.clientIp())
+                    .userAgent(event.userAgent())
+                    .browser(device.getBrowser())
+                    .browserVersion(device.getBrowserVersion())
+                    .operatingSystem(device.getOperatingSystem())
+                    .device(device.getDevice())
+                    .deviceType(device.getDeviceType())
+                    .city(location.getCity())
+                    .region(location.getRegion())
+                    .country(location.getCountry())
+                    .countryCode(location.getCountryCode())
+                    .build();
+        }
+
+        private Optional<User> findUser(String loginName) {
+            return EmailUtils.isValidEmail(loginName)
+                    ? userRepository.findByEmail(loginName)
+                    : userRepository.findByUsername(loginName);
+        }
+    }
+}
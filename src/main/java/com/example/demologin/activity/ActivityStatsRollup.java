@@ -0,0 +1,262 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Activity counts per hour and (activity type, status, country code, device
+ * type), so dashboards read a number of rows bounded by buckets and dimension
+ * values rather than scanning the log. Activities are counted in memory as
+ * they are logged and added to the hourly rows every {@code flush-interval-ms};
+ * hourly rows older than {@code hourly-retention-hours} are folded into daily
+ * rows. Every activity counts, including repeats that only refresh an existing
+ * log row.
+ *
+ * Several instances may share the table: increments are additive upserts, and
+ * compaction locks the hourly rows it folds and deletes exactly those, so each
+ * is counted once and none written meanwhile is lost.
+ */
+@Component
+@Slf4j
+public class ActivityStatsRollup {
+
+    static final String HOUR = "HOUR";
+    static final String DAY = "DAY";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private static final String UPDATE_SQL = "UPDATE activity_stats_rollups SET activity_count = activity_count + ? "
+            + "WHERE granularity = ? AND bucket_start = ? AND activity_type = ? AND status = ? "
+            + "AND country_code = ? AND device_type = ?";
+    private static final String INSERT_SQL = "INSERT INTO activity_stats_rollups (activity_count, granularity, "
+            + "bucket_start, activity_type, status, country_code, device_type) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String LOCK_HOURLY_SQL = "SELECT id, bucket_start, activity_type, status, country_code, "
+            + "device_type, activity_count FROM activity_stats_rollups "
+            + "WHERE granularity = 'HOUR' AND bucket_start < ? FOR UPDATE";
+    private static final String DELETE_IDS_SQL = "DELETE FROM activity_stats_rollups WHERE id IN (:ids)";
+    private static final int DELETE_CHUNK = 500;
+    private static final String SUMMARY_SQL = "SELECT granularity, bucket_start, activity_type, status, "
+            + "country_code, device_type, activity_count FROM activity_stats_rollups "
+            + "WHERE (granularity = 'HOUR' AND bucket_start >= ? AND bucket_start < ?) "
+            + "OR (granularity = 'DAY' AND bucket_start >= ? AND bucket_start < ?)";
+
+    record Key(LocalDateTime bucketStart, String activityType, String status, String countryCode, String deviceType) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long hourlyRetentionHours;
+
+    private final ConcurrentHashMap<Key, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ActivityStatsRollup(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${activity-stats.rollup.enabled:true}") boolean enabled,
+                               @Value("${activity-stats.rollup.hourly-retention-hours:168}") long hourlyRetentionHours) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.hourlyRetentionHours = Math.max(1, hourlyRetentionHours);
+
+        for (Map.Entry<String, AtomicLong> counter : Map.of(
+                "recorded", recorded, "flushed", flushed, "failed", failed).entrySet()) {
+            FunctionCounter.builder("activity.stats.rollup.events", counter.getValue(), AtomicLong::get)
+                    .tag("result", counter.getKey())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("activity.stats.rollup.pending", pending, Map::size)
+                .register(meterRegistry);
+    }
+
+    public void record(UserActivityLog activity) {
+        record(activity.getTimestamp(), activity.getActivityType(), activity.getStatus(),
+                activity.getCountryCode(), activity.getDeviceType());
+    }
+
+    /**
+     * Count one activity. Only touches memory; the database sees it on the next flush.
+     */
+    public void record(LocalDateTime timestamp, ActivityType activityType, String status,
+                       String countryCode, String deviceType) {
+        if (!enabled || activityType == null) {
+            return;
+        }
+        LocalDateTime at = timestamp != null ? timestamp : LocalDateTime.now();
+        Key key = new Key(at.truncatedTo(ChronoUnit.HOURS), activityType.name(),
+                dimension(status, 20), dimension(countryCode, 10), dimension(deviceType, 20));
+        pending.merge(key, 1L, Long::sum);
+        recorded.incrementAndGet();
+    }
+
+    private static String dimension(String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            return UNKNOWN;
+        }
+        String trimmed = value.trim();
+        return trimmed.length() > maxLength ? trimmed.substring(0, maxLength) : trimmed;
+    }
+
+    /**
+     * Add the counts gathered since the last flush to the hourly rows. A count
+     * that cannot be written stays pending for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${activity-stats.rollup.flush-interval-ms:10000}")
+    public void flush() {
+        for (Key key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count == null) {
+                continue;
+            }
+            try {
+                add(HOUR, key, count);
+                flushed.addAndGet(count);
+            } catch (DataAccessException e) {
+                pending.merge(key, count, Long::sum);
+                failed.addAndGet(count);
+                log.warn("Failed to flush activity stats for {}: {}", key, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void add(String granularity, Key key, long count) {
+        if (update(granularity, key, count) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, count, granularity, Timestamp.valueOf(key.bucketStart()),
+                    key.activityType(), key.status(), key.countryCode(), key.deviceType());
+        } catch (DuplicateKeyException e) {
+            // Another instance created the row first
+            update(granularity, key, count);
+        }
+    }
+
+    private int update(String granularity, Key key, long count) {
+        return jdbcTemplate.update(UPDATE_SQL, count, granularity, Timestamp.valueOf(key.bucketStart()),
+                key.activityType(), key.status(), key.countryCode(), key.deviceType());
+    }
+
+    /**
+     * Fold hourly rows from days before the retention window into daily rows.
+     */
+    @Scheduled(fixedDelayString = "${activity-stats.rollup.compact-interval-ms:3600000}",
+            initialDelayString = "${activity-stats.rollup.compact-interval-ms:3600000}")
+    public void compact() {
+        compactBefore(LocalDateTime.now().minusHours(hourlyRetentionHours).truncatedTo(ChronoUnit.DAYS));
+    }
+
+    void compactBefore(LocalDateTime cutoff) {
+        if (!enabled) {
+            return;
+        }
+        Timestamp before = Timestamp.valueOf(cutoff);
+        Integer days = transactionTemplate.execute(status -> {
+            Map<Key, Long> daily = new HashMap<>();
+            List<Long> folded = new ArrayList<>();
+            // Locking the rows keeps a concurrent compaction from folding them twice
+            jdbcTemplate.query(LOCK_HOURLY_SQL, rs -> {
+                folded.add(rs.getLong(1));
+                Key day = new Key(rs.getTimestamp(2).toLocalDateTime().truncatedTo(ChronoUnit.DAYS),
+                        rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6));
+                daily.merge(day, rs.getLong(7), Long::sum);
+            }, before);
+            if (daily.isEmpty()) {
+                return 0;
+            }
+            // Only the rows read above; one a flush inserted since is left for the next pass
+            for (int from = 0; from < folded.size(); from += DELETE_CHUNK) {
+                namedTemplate.update(DELETE_IDS_SQL,
+                        Map.of("ids", folded.subList(from, Math.min(from + DELETE_CHUNK, folded.size()))));
+            }
+            daily.forEach((key, count) -> {
+                if (update(DAY, key, count) == 0) {
+                    jdbcTemplate.update(INSERT_SQL, count, DAY, Timestamp.valueOf(key.bucketStart()),
+                            key.activityType(), key.status(), key.countryCode(), key.deviceType());
+                }
+            });
+            return (int) daily.keySet().stream().map(Key::bucketStart).distinct().count();
+        });
+        if (days != null && days > 0) {
+            log.info("Compacted hourly activity stats before {} into {} daily bucket(s)", cutoff, days);
+        }
+    }
+
+    /**
+     * Activity counts between two instants. Recent hours are exact to the
+     * hour; older periods, already compacted, to the day.
+     */
+    public ActivityStatsResponse summarize(LocalDateTime since, LocalDateTime until) {
+        LocalDateTime fromHour = since.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime fromDay = since.truncatedTo(ChronoUnit.DAYS);
+        Map<String, Long> byActivityType = new TreeMap<>();
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, Long> byCountryCode = new TreeMap<>();
+        Map<String, Long> byDeviceType = new TreeMap<>();
+        Map<LocalDateTime, Long> timeline = new TreeMap<>();
+        long[] total = {0};
+
+        jdbcTemplate.query(SUMMARY_SQL, rs -> {
+            long count = rs.getLong(7);
+            total[0] += count;
+            timeline.merge(rs.getTimestamp(2).toLocalDateTime(), count, Long::sum);
+            byActivityType.merge(rs.getString(3), count, Long::sum);
+            byStatus.merge(rs.getString(4), count, Long::sum);
+            byCountryCode.merge(rs.getString(5), count, Long::sum);
+            byDeviceType.merge(rs.getString(6), count, Long::sum);
+        }, Timestamp.valueOf(fromHour), Timestamp.valueOf(until), Timestamp.valueOf(fromDay), Timestamp.valueOf(until));
+
+        return ActivityStatsResponse.builder()
+                .since(since)
+                .until(until)
+                .total(total[0])
+                .byActivityType(byActivityType)
+                .byStatus(byStatus)
+                .byCountryCode(byCountryCode)
+                .byDeviceType(byDeviceType)
+                .timeline(timeline)
+                .build();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demologin.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link SmartCache} tags invalidated after a transaction that inserted,
+ * updated or deleted this entity (or changed one of its collections) commits.
+ * {@code "#id"} in a tag is replaced by the entity id, e.g. {@code "role:#id"}
+ * matches {@code @SmartCache(tags = "role:#0")} on a lookup by id.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheTags {
+
+    String[] value();
+}
@@ -6,8 +6,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Annotation to automatically convert Page<T> response to PageResponse<T> format
- * Apply this to controller methods that return Page<T> to get standardized pagination response
+ * Annotation to automatically convert Page<T> or CursorSlice<T> response to PageResponse<T> format
+ * Apply this to controller methods that return Page<T> or CursorSlice<T> to get standardized pagination response
  */
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
@@ -5,8 +5,45 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Cache the method's result per argument list. Each annotated method gets its
+ * own bounded cache; attributes left at -1 use the {@code smartcache.default.*}
+ * properties.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SmartCache {
-    // No parameters needed - fully automatic
-}
\ No newline at end of file
+
+    /** Maximum number of entries before the least valuable ones are evicted. */
+    int maxEntries() default -1;
+
+    /** Time to live after the value was loaded; 0 means no expiry. */
+    long ttlSeconds() default -1;
+
+    /**
+     * Age after which a read triggers a background reload while still returning
+     * the current value (the old value is kept if the reload fails); 0 disables.
+     * The reload runs without the caller's request context.
+     */
+    long refreshAfterSeconds() default -1;
+
+    /** How long after expiry the old value is still served if reloading it fails; 0 disables. */
+    long staleIfErrorSeconds() default -1;
+
+    /**
+     * Budget of the off-heap second tier that takes entries evicted from the
+     * heap (serializable values only, promoted back on access); 0 disables.
+     */
+    long offHeapMaxBytes() default -1;
+
+    /** Maximum total weight (elements of collections, maps and arrays); 0 means unweighted. */
+    long maxWeight() default -1;
+
+    /**
+     * Dependency tags attached to each entry, invalidated when a {@link CacheTags}
+     * entity is written.
+     * {@code "roles"} is a literal tag; {@code "role:#0"} expands to one tag per
+     * value of argument 0 (per element for collections).
+     */
+    String[] tags() default {};
+}
@@ -1,6 +1,8 @@
 package com.example.demologin.aspect;
 
 import com.example.demologin.annotation.PageResponse;
+import com.example.demologin.dto.response.CursorSlice;
+import com.example.demologin.dto.response.ResponseObject;
 import org.springframework.core.MethodParameter;
 import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
@@ -11,8 +13,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
 /**
- * Aspect to automatically convert Page<T> to PageResponse<T>
- * when method is annotated with @PageResponse
+ * Aspect to automatically convert Page<T> (offset) or CursorSlice<T> (keyset)
+ * to PageResponse<T> when method is annotated with @PageResponse
  * 
  * This aspect intercepts responses from controller methods that return Page objects
  * and automatically wraps them in our custom PageResponse format for consistent API responses.
@@ -30,9 +32,21 @@ public class PageResponseAspect implements ResponseBodyAdvice<Object> {
     public Object beforeBodyWrite(Object body, MethodParameter returnType,
                                   MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
                                   ServerHttpRequest request, ServerHttpResponse response) {
-        // Convert Spring Data Page<T> to our custom PageResponse<T>
-        if (body instanceof Page<?>) {
-            return new com.example.demologin.dto.response.PageResponse<>((Page<?>) body);
+        // @ApiResponse has already wrapped the page by the time the body is written
+        if (body instanceof ResponseObject wrapped) {
+            wrapped.setData(toPageResponse(wrapped.getData()));
+            return wrapped;
+        }
+        return toPageResponse(body);
+    }
+
+    private static Object toPageResponse(Object body) {
+        // Convert Spring Data Page<T> (or a keyset CursorSlice<T>) to our custom PageResponse<T>
+        if (body instanceof Page<?> page) {
+            return new com.example.demologin.dto.response.PageResponse<>(page);
+        }
+        if (body instanceof CursorSlice<?> slice) {
+            return new com.example.demologin.dto.response.PageResponse<>(slice);
         }
         return body;
     }
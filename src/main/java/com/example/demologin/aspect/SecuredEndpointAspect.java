@@ -2,36 +2,23 @@ package com.example.demologin.aspect;
 
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.exception.exceptions.*;
-import com.example.demologin.service.RolePermissionService;
-import com.example.demologin.utils.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.example.demologin.security.AuthenticatedRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.Set;
 
 @Aspect
 @Component
 @Slf4j
 public class SecuredEndpointAspect {
 
-    @Autowired
-    private HttpServletRequest request;
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private RolePermissionService rolePermissionService;
-
     @Around("@within(securedEndpoint) || @annotation(securedEndpoint)")
     public Object checkSecuredEndpoint(ProceedingJoinPoint joinPoint, SecuredEndpoint securedEndpoint) throws Throwable {
         // Resolve annotation from method or class
@@ -52,31 +39,21 @@ public class SecuredEndpointAspect {
             throw new UserNotAuthenticatedException("Authentication required");
         }
 
-        // Extract token
-        String token = extractTokenFromRequest();
-
-        try {
-            // Extract roles from token
-            Set<String> userRoles = jwtUtil.extractRoles(token);
-            String username = jwtUtil.extractUsernameWithValidation(token);
-
-            // Get permissions
-            Set<String> userPermissions = rolePermissionService.getPermissionsForRoles(userRoles);
-
-            // Check permission
-            if (!userPermissions.contains(requiredPermission)) {
-                log.warn("Permission denied for user: {} - Required: {}, Available: {}",
-                        username, requiredPermission, userPermissions);
-                throw new AccessDenyException("Insufficient permissions");
-            }
-
-            log.debug("Permission check passed for user: {} with permission: {}", username, requiredPermission);
-            return joinPoint.proceed();
+        // Token, roles and permissions were verified and resolved once by the filter
+        AuthenticatedRequest authenticated = AuthenticatedRequest.current().orElse(null);
+        if (authenticated == null) {
+            log.warn("Missing verified token context for secured endpoint: {}", joinPoint.getSignature().getName());
+            throw new InvalidTokenException("Invalid authorization token format");
+        }
 
-        } catch (TokenValidationException e) {
-            String errorMsg = handleTokenValidationException(e, joinPoint);
-            throw new InvalidTokenException(errorMsg);
+        if (!authenticated.hasPermission(requiredPermission)) {
+            log.warn("Permission denied for userId: {} - Required: {}, Available: {}",
+                    authenticated.userId(), requiredPermission, authenticated.permissions());
+            throw new AccessDenyException("Insufficient permissions");
         }
+
+        log.debug("Permission check passed for userId: {} with permission: {}", authenticated.userId(), requiredPermission);
+        return joinPoint.proceed();
     }
 
     private SecuredEndpoint resolveAnnotation(ProceedingJoinPoint joinPoint, SecuredEndpoint securedEndpoint) {
@@ -90,43 +67,4 @@ public class SecuredEndpointAspect {
         }
         return securedEndpoint;
     }
-
-    private String extractTokenFromRequest() {
-        String token = request.getHeader("Authorization");
-        if (token == null || !token.startsWith("Bearer ")) {
-            log.warn("Missing or invalid Authorization header");
-            throw new InvalidTokenException("Invalid authorization token format");
-        }
-        return token.substring(7);
-    }
-
-    private String handleTokenValidationException(TokenValidationException e, ProceedingJoinPoint joinPoint) {
-        String endpoint = joinPoint.getSignature().getName();
-        String errorMsg;
-
-        switch (e.getErrorType()) {
-            case EXPIRED:
-                errorMsg = "Token has expired";
-                log.warn("Token expired for endpoint: {} - {}", endpoint, e.getMessage());
-                break;
-            case INVALID_SIGNATURE:
-                errorMsg = "Invalid token signature";
-                log.warn("Invalid token signature for endpoint: {} - {}", endpoint, e.getMessage());
-                break;
-            case MISSING_PERMISSIONS:
-                errorMsg = "Invalid token permissions format";
-                log.warn("Missing permissions in token for endpoint: {} - {}", endpoint, e.getMessage());
-                break;
-            case MALFORMED:
-                errorMsg = "Malformed token";
-                log.warn("Malformed token for endpoint: {} - {}", endpoint, e.getMessage());
-                break;
-            default:
-                errorMsg = "Token validation failed";
-                log.warn("Token validation failed for endpoint: {} - {}", endpoint, e.getMessage());
-                break;
-        }
-
-        return errorMsg;
-    }
-}
\ No newline at end of file
+}
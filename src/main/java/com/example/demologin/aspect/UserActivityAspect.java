@@ -1,128 +1,105 @@
 package com.example.demologin.aspect;
 
+import com.example.demologin.activity.ActivityLogEvent;
+import com.example.demologin.activity.ActivityLogWriter;
 import com.example.demologin.annotation.UserActivity;
-import com.example.demologin.entity.UserActivityLog;
-import com.example.demologin.entity.User;
-import com.example.demologin.exception.exceptions.InvalidPrincipalTypeException;
-import com.example.demologin.exception.exceptions.UserActivityLoggingException;
-import com.example.demologin.exception.exceptions.UserNotAuthenticatedException;
-import com.example.demologin.repository.UserActivityLogRepository;
-import com.example.demologin.repository.UserRepository;
-import com.example.demologin.utils.*;
 import com.example.demologin.dto.request.login.LoginRequest;
+import com.example.demologin.entity.User;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.security.PrincipalSnapshot;
+import com.example.demologin.utils.IpUtilsWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.Optional;
 
+/**
+ * Captures {@link UserActivity} methods as {@link ActivityLogEvent}s from what
+ * the request already has in memory (principal, client address, User-Agent)
+ * and hands them to {@link ActivityLogWriter}; user lookup, User-Agent parsing,
+ * geolocation and the insert all happen off the request thread.
+ */
 @Aspect
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class UserActivityAspect {
 
-    private final UserActivityLogRepository userActivityLogRepository;
-    private final UserRepository userRepository;
-    private final AccountUtils accountUtils;
+    private final ActivityLogWriter activityLogWriter;
     private final IpUtilsWrapper ipUtils;
-    private final UserAgentUtil userAgentUtil;
-    private final LocationUtil locationUtil;
 
     @AfterReturning(value = "@annotation(userActivity)", returning = "result")
     public void logUserActivity(JoinPoint joinPoint, UserActivity userActivity, Object result) {
+        ClientInfo clientInfo = null;
         try {
-            User currentUser = getCurrentUserOrFromLoginAttempt(joinPoint, userActivity, result);
-            UserActivityLog activityLog = createOrUpdateActivityLog(joinPoint, userActivity, currentUser);
-
-            userActivityLogRepository.save(activityLog);
-            logActivitySuccess(userActivity, activityLog);
+            clientInfo = getClientInfo();
+            ActivityLogEvent event = captureEvent(joinPoint, userActivity, clientInfo);
+            if (!activityLogWriter.submit(event)) {
+                log.debug("Activity log buffer full, dropped {}", userActivity.activityType());
+            }
         } catch (Exception e) {
             log.error("Failed to log user activity for method {}: {}",
                     joinPoint.getSignature().getName(), e.getMessage());
-            saveFailedLogEntry(joinPoint, userActivity, e.getMessage());
+            submitFailedEntry(userActivity, clientInfo, e.getMessage());
         }
     }
 
-    private User getCurrentUserOrFromLoginAttempt(JoinPoint joinPoint, UserActivity userActivity, Object result) {
-        // For login attempts, try to get user from request first
-        if ("LOGIN_ATTEMPT".equals(userActivity.activityType().name())) {
-            try {
-                return extractUserFromLoginRequest(joinPoint);
-            } catch (UserActivityLoggingException e) {
-                log.debug("Could not extract user from login request: {}", e.getMessage());
+    private ActivityLogEvent captureEvent(JoinPoint joinPoint, UserActivity userActivity, ClientInfo clientInfo) {
+        Long userId = null;
+        String fullName = null;
+        String loginName = null;
+        if (userActivity.logUserId()) {
+            // For login attempts, the user named in the request; resolved by the writer
+            if (userActivity.activityType() == ActivityType.LOGIN_ATTEMPT) {
+                loginName = extractLoginName(joinPoint);
+            }
+            Object principal = currentPrincipal();
+            if (principal instanceof PrincipalSnapshot snapshot) {
+                userId = snapshot.userId();
+                fullName = snapshot.fullName();
+            } else if (principal instanceof User user) {
+                userId = user.getUserId();
+                fullName = user.getFullName();
+            } else if (principal instanceof String username && loginName == null
+                    && !"anonymousUser".equals(username)) {
+                loginName = username;
             }
         }
 
-        // For other activities, get authenticated user
-        try {
-            return accountUtils.getCurrentUser();
-        } catch (UserNotAuthenticatedException | InvalidPrincipalTypeException e) {
-            return null;
-        }
+        return new ActivityLogEvent(userActivity.activityType(), "SUCCESS", userId, fullName, loginName,
+                getDetails(userActivity, joinPoint), clientInfo.clientIp(), clientInfo.userAgent(),
+                clientInfo.ipForLocation(), LocalDateTime.now());
     }
 
-    private User extractUserFromLoginRequest(JoinPoint joinPoint) throws UserActivityLoggingException {
-        LoginRequest loginRequest = Arrays.stream(joinPoint.getArgs())
-                .filter(arg -> arg instanceof LoginRequest)
-                .map(arg -> (LoginRequest) arg)
-                .findFirst()
-                .orElseThrow(() -> new UserActivityLoggingException("No LoginRequest found in method arguments"));
-
-        String username = loginRequest.getUsername();
-
-        // Skip if username is invalid or anonymous
-        if (username == null || username.equals("anonymousUser")) {
-            throw new UserActivityLoggingException("Invalid username for login attempt");
-        }
-
-        if (EmailUtils.isValidEmail(username)) {
-            return userRepository.findByEmail(username)
-                    .orElseThrow(() -> new UserActivityLoggingException("User not found with email: " + username));
-        }
-
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserActivityLoggingException("User not found with username: " + username));
+    private static Object currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getPrincipal() : null;
     }
 
-    private UserActivityLog createOrUpdateActivityLog(JoinPoint joinPoint, UserActivity userActivity, User currentUser) {
-        ClientInfo clientInfo = getClientInfo();
-        UserAgentUtil.DeviceInfo deviceInfo = userAgentUtil.parseUserAgent(clientInfo.userAgent());
-        LocationUtil.LocationInfo locationInfo = locationUtil.getLocationFromIP(clientInfo.ipForLocation());
-
-        Long userId = userActivity.logUserId() && currentUser != null ? currentUser.getUserId() : null;
-        String fullName = userActivity.logUserId() && currentUser != null ? currentUser.getFullName() : null;
-        String status = "SUCCESS";
-        String details = getDetails(userActivity, joinPoint);
-
-        return findExistingActivityLog(userId, userActivity, clientInfo)
-                .map(existingLog -> updateExistingLog(existingLog, fullName, details, deviceInfo, locationInfo))
-                .orElseGet(() -> createNewActivityLog(userActivity, userId, fullName, status, details, clientInfo, deviceInfo, locationInfo));
+    private static String extractLoginName(JoinPoint joinPoint) {
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof LoginRequest loginRequest) {
+                String username = loginRequest.getUsername();
+                // Skip if username is invalid or anonymous
+                return username == null || username.equals("anonymousUser") ? null : username;
+            }
+        }
+        return null;
     }
 
-    private void saveFailedLogEntry(JoinPoint joinPoint, UserActivity userActivity, String error) {
-        try {
-            ClientInfo clientInfo = getClientInfo();
-
-            UserActivityLog activityLog = UserActivityLog.builder()
-                    .activityType(userActivity.activityType())
-                    .status("FAILED")
-                    .timestamp(LocalDateTime.now())
-                    .details("Failed to log activity: " + error)
-                    .ipAddress(clientInfo.clientIp())
-                    .userAgent(clientInfo.userAgent())
-                    .build();
-
-            userActivityLogRepository.save(activityLog);
-            log.debug("Saved failed activity log for {}", userActivity.activityType());
-        } catch (Exception e) {
-            log.error("Failed to save error log entry: {}", e.getMessage());
-        }
+    private void submitFailedEntry(UserActivity userActivity, ClientInfo clientInfo, String error) {
+        activityLogWriter.submit(new ActivityLogEvent(userActivity.activityType(), "FAILED", null, null, null,
+                "Failed to log activity: " + error,
+                clientInfo != null ? clientInfo.clientIp() : null,
+                clientInfo != null ? clientInfo.userAgent() : null,
+                clientInfo != null ? clientInfo.ipForLocation() : null,
+                LocalDateTime.now()));
     }
 
     private ClientInfo getClientInfo() {
@@ -156,75 +133,4 @@ public class UserActivityAspect {
                 ? String.format("%s - %s", userActivity.activityType(), joinPoint.getSignature().getName())
                 : userActivity.details();
     }
-
-    private Optional<UserActivityLog> findExistingActivityLog(Long userId, UserActivity userActivity, ClientInfo clientInfo) {
-        if (userId == null) return Optional.empty();
-
-        return Optional.ofNullable(
-                userActivityLogRepository.findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(
-                        userId, userActivity.activityType(), clientInfo.clientIp(), clientInfo.userAgent())
-        );
-    }
-
-    private UserActivityLog updateExistingLog(UserActivityLog existingLog, String fullName, String details,
-                                              UserAgentUtil.DeviceInfo deviceInfo, LocationUtil.LocationInfo locationInfo) {
-        existingLog.setTimestamp(LocalDateTime.now());
-        existingLog.setFullName(fullName);
-        existingLog.setDetails(details);
-        updateDeviceInfo(existingLog, deviceInfo);
-        updateLocationInfo(existingLog, locationInfo);
-
-        log.debug("Updated existing user activity log for user {} from {}", fullName, existingLog.getIpAddress());
-        return existingLog;
-    }
-
-    private UserActivityLog createNewActivityLog(UserActivity userActivity, Long userId, String fullName, String status,
-                                                 String details, ClientInfo clientInfo, UserAgentUtil.DeviceInfo deviceInfo,
-                                                 LocationUtil.LocationInfo locationInfo) {
-        UserActivityLog activityLog = UserActivityLog.builder()
-                .activityType(userActivity.activityType())
-                .userId(userId)
-                .fullName(fullName)
-                .status(status)
-                .timestamp(LocalDateTime.now())
-                .details(details)
-                .ipAddress(clientInfo.clientIp())
-                .userAgent(clientInfo.userAgent())
-                .browser(deviceInfo.getBrowser())
-                .browserVersion(deviceInfo.getBrowserVersion())
-                .operatingSystem(deviceInfo.getOperatingSystem())
-                .device(deviceInfo.getDevice())
-                .deviceType(deviceInfo.getDeviceType())
-                .city(locationInfo.getCity())
-                .region(locationInfo.getRegion())
-                .country(locationInfo.getCountry())
-                .countryCode(locationInfo.getCountryCode())
-                .build();
-
-        log.debug("Created new user activity log for user {} from {}", fullName, clientInfo.clientIp());
-        return activityLog;
-    }
-
-    private void updateDeviceInfo(UserActivityLog log, UserAgentUtil.DeviceInfo deviceInfo) {
-        log.setBrowser(deviceInfo.getBrowser());
-        log.setBrowserVersion(deviceInfo.getBrowserVersion());
-        log.setOperatingSystem(deviceInfo.getOperatingSystem());
-        log.setDevice(deviceInfo.getDevice());
-        log.setDeviceType(deviceInfo.getDeviceType());
-    }
-
-    private void updateLocationInfo(UserActivityLog log, LocationUtil.LocationInfo locationInfo) {
-        log.setCity(locationInfo.getCity());
-        log.setRegion(locationInfo.getRegion());
-        log.setCountry(locationInfo.getCountry());
-        log.setCountryCode(locationInfo.getCountryCode());
-    }
-
-    private void logActivitySuccess(UserActivity userActivity, UserActivityLog activityLog) {
-        log.debug("User activity logged: {} for user {} from {} using {}",
-                userActivity.activityType(),
-                activityLog.getFullName() != null ? activityLog.getFullName() : "anonymous",
-                LocationUtil.formatLocationInfo(locationUtil.getLocationFromIP(activityLog.getIpAddress())),
-                UserAgentUtil.formatDeviceInfo(userAgentUtil.parseUserAgent(activityLog.getUserAgent())));
-    }
-}
\ No newline at end of file
+}
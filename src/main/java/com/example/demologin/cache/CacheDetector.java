@@ -40,12 +40,17 @@ public class CacheDetector {
         return generateCacheKey(joinPoint);
     }
 
-    public Set<String> getRelatedCacheKeys(ProceedingJoinPoint joinPoint) {
+    /**
+     * Entries a create/update/delete may have made stale: {@code getAll} of the
+     * same class and, for update/delete, {@code getById} of the first argument.
+     */
+    public Set<SmartCacheKey> getRelatedCacheKeys(ProceedingJoinPoint joinPoint) {
         Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-        Set<String> relatedKeys = new HashSet<>();
+        String owner = method.getDeclaringClass().getSimpleName();
+        Set<SmartCacheKey> relatedKeys = new HashSet<>();
 
         // Add getAll key
-        relatedKeys.add(method.getDeclaringClass().getSimpleName() + ":getAll");
+        relatedKeys.add(SmartCacheKey.of(owner + ".getAll"));
 
         // For methods that modify specific entities, also invalidate getById caches
         if (method.getName().startsWith("update") || method.getName().startsWith("delete")) {
@@ -53,24 +58,19 @@ public class CacheDetector {
             if (args.length > 0) {
                 // Handle different argument types
                 if (args[0] instanceof Long id) {
-                    relatedKeys.add(method.getDeclaringClass().getSimpleName() + ":getById:" + id);
+                    relatedKeys.add(SmartCacheKey.of(owner + ".getById", id));
                 } else if (args[0] instanceof String stringId) {
                     try {
                         Long id = Long.parseLong(stringId);
-                        relatedKeys.add(method.getDeclaringClass().getSimpleName() + ":getById:" + id);
+                        relatedKeys.add(SmartCacheKey.of(owner + ".getById", id));
                     } catch (NumberFormatException e) {
                         // If it's not a number, use string as is
-                        relatedKeys.add(method.getDeclaringClass().getSimpleName() + ":getById:" + stringId);
+                        relatedKeys.add(SmartCacheKey.of(owner + ".getById", stringId));
                     }
                 }
             }
         }
 
-        // For create operations, only invalidate getAll
-        if (method.getName().startsWith("create")) {
-            relatedKeys.add(method.getDeclaringClass().getSimpleName() + ":getAll");
-        }
-
         return relatedKeys;
     }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.CacheTags;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invalidates {@link com.example.demologin.annotation.SmartCache} entries from
+ * Hibernate events, so any write to a {@link CacheTags} entity (through any
+ * service, repository or cascade) drops the dependent entries once its
+ * transaction commits; a rolled-back write invalidates nothing.
+ *
+ * Entity inserts, updates and deletes use Hibernate's post-commit listeners.
+ * Collection changes (e.g. a role's permission set) have no post-commit event,
+ * so they are deferred to the Spring transaction's afterCommit.
+ */
+@Component
+@Slf4j
+public class EntityCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final String ID_PLACEHOLDER = "#id";
+    private static final String[] NO_TAGS = new String[0];
+
+    private final SmartCacheManager cacheManager;
+    // @CacheTags per entity class, empty when not annotated
+    private final Map<Class<?>, String[]> tagsByType = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EntityCacheInvalidator(SmartCacheManager cacheManager, EntityManagerFactory entityManagerFactory) {
+        this(cacheManager);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    EntityCacheInvalidator(SmartCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return tagsOf(persister.getMappedClass()).length > 0;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getPersister().getMappedClass(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Not committed: cached entries are still accurate
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        onCollectionChange(event);
+    }
+
+    private void onCollectionChange(AbstractCollectionEvent event) {
+        Object owner = event.getAffectedOwnerOrNull();
+        if (owner == null) {
+            return;
+        }
+        Class<?> type = Hibernate.getClass(owner);
+        Object id = event.getAffectedOwnerIdOrNull();
+        if (tagsOf(type).length == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(type, id);
+                }
+            });
+        } else {
+            invalidate(type, id);
+        }
+    }
+
+    private void invalidate(Class<?> type, Object id) {
+        String[] templates = tagsOf(type);
+        if (templates.length == 0) {
+            return;
+        }
+        List<String> tags = new ArrayList<>(templates.length);
+        for (String template : templates) {
+            tags.add(template.replace(ID_PLACEHOLDER, String.valueOf(id)));
+        }
+        log.debug("{} {} changed, invalidating cache tags {}", type.getSimpleName(), id, tags);
+        cacheManager.invalidateCommittedTags(tags);
+    }
+
+    private String[] tagsOf(Class<?> type) {
+        return tagsByType.computeIfAbsent(type, t -> {
+            CacheTags annotation = t.getAnnotation(CacheTags.class);
+            return annotation != null ? annotation.value() : NO_TAGS;
+        });
+    }
+}
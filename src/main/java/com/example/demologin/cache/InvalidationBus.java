@@ -0,0 +1,66 @@
+package com.example.demologin.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations between instances, so a write on one node does
+ * not leave the others serving its pre-write state until TTL. Every cache
+ * invalidates itself locally first and publishes the event; the bus delivers
+ * it to the handlers subscribed on the other nodes, never back to the
+ * publisher. Handlers must only touch local state (no re-publishing).
+ *
+ * {@link JdbcInvalidationBus} is the shipped transport; {@link #NOOP} serves
+ * single-instance deployments and tests.
+ */
+public interface InvalidationBus {
+
+    /** Single instance: nothing to tell, nothing to hear. */
+    InvalidationBus NOOP = new InvalidationBus() {
+        @Override
+        public void publish(InvalidationEvent event) {
+        }
+
+        @Override
+        public void subscribe(InvalidationEvent.Type type, Consumer<InvalidationEvent> handler) {
+        }
+    };
+
+    /**
+     * Whether events actually reach other instances; caches that rely on them
+     * for cross-instance freshness fall back to shorter lifetimes otherwise.
+     */
+    default boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Queue the event for the other instances. Delivery is asynchronous and
+     * may be batched with other events.
+     */
+    void publish(InvalidationEvent event);
+
+    /**
+     * Handle events of the given type published by other instances.
+     */
+    void subscribe(InvalidationEvent.Type type, Consumer<InvalidationEvent> handler);
+
+    /**
+     * Publish once the surrounding transaction commits (dropped on rollback),
+     * or right away outside a transaction.
+     */
+    default void publishAfterCommit(InvalidationEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+}
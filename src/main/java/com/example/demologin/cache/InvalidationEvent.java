@@ -0,0 +1,62 @@
+package com.example.demologin.cache;
+
+/**
+ * One cache invalidation to replay on the other instances. {@code key} is the
+ * userId, tag or JTI the type refers to (empty for the "everything" types);
+ * {@code expiresAtMillis} is only used by {@link Type#ACCESS_TOKEN_REVOKED}.
+ */
+public record InvalidationEvent(Type type, String key, long expiresAtMillis) {
+
+    public enum Type {
+        /** {@link PrincipalSnapshotCache#evictUser}: token version or account state changed. */
+        PRINCIPAL_USER,
+        /** {@link PrincipalSnapshotCache#evictAll}: role or permission change. */
+        PRINCIPAL_ALL,
+        /** {@link SmartCacheManager#invalidateTags}: one SmartCache tag. */
+        CACHE_TAG,
+        /** Access token revoked before its {@code exp}. */
+        ACCESS_TOKEN_REVOKED,
+        /** Refresh token deleted. */
+        REFRESH_TOKEN_REMOVED,
+        /** All refresh tokens of a user deleted. */
+        REFRESH_TOKENS_OF_USER,
+        /** Role/permission assignments changed: reload the permission registry. */
+        PERMISSIONS
+    }
+
+    public InvalidationEvent {
+        key = key == null ? "" : key;
+    }
+
+    public static InvalidationEvent principal(Long userId) {
+        return new InvalidationEvent(Type.PRINCIPAL_USER, String.valueOf(userId), 0);
+    }
+
+    public static InvalidationEvent allPrincipals() {
+        return new InvalidationEvent(Type.PRINCIPAL_ALL, "", 0);
+    }
+
+    public static InvalidationEvent cacheTag(String tag) {
+        return new InvalidationEvent(Type.CACHE_TAG, tag, 0);
+    }
+
+    public static InvalidationEvent accessTokenRevoked(String jti, long expiresAtMillis) {
+        return new InvalidationEvent(Type.ACCESS_TOKEN_REVOKED, jti, expiresAtMillis);
+    }
+
+    public static InvalidationEvent refreshTokenRemoved(String jti) {
+        return new InvalidationEvent(Type.REFRESH_TOKEN_REMOVED, jti, 0);
+    }
+
+    public static InvalidationEvent refreshTokensOfUser(Long userId) {
+        return new InvalidationEvent(Type.REFRESH_TOKENS_OF_USER, String.valueOf(userId), 0);
+    }
+
+    public static InvalidationEvent permissions() {
+        return new InvalidationEvent(Type.PERMISSIONS, "", 0);
+    }
+
+    public Long userId() {
+        return Long.valueOf(key);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.demologin.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * {@link InvalidationBus} over the shared database: published events are
+ * appended to {@code cache_invalidations} in batches, and every instance polls
+ * the rows after its high-water mark, skipping its own. Works on any database
+ * the application runs on, at the cost of up to one flush plus one poll
+ * interval of staleness on the other nodes.
+ *
+ * Identity values are allocated before commit, so a row can become visible
+ * after a higher id was already read. Ids skipped over are kept as gaps and
+ * re-queried until they show up or {@code gap-timeout-ms} passes (a rolled
+ * back insert never does). Rows older than {@code retention-seconds} are
+ * purged; instances only ever read forward from their start.
+ *
+ * Flush, poll and purge run on their own {@code invalidationBusScheduler}
+ * thread, so long maintenance jobs on the shared scheduler cannot stretch
+ * that staleness. The per-instance caches of principals
+ * ({@link PrincipalSnapshotCache}), refresh-token JTIs and revoked access
+ * tokens are only correct across several instances with the bus enabled.
+ */
+@Component
+@Slf4j
+public class JdbcInvalidationBus implements InvalidationBus {
+
+    private static final String INSERT_SQL = "INSERT INTO cache_invalidations "
+            + "(node_id, event_type, event_key, expires_at_millis, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMNS =
+            "SELECT id, node_id, event_type, event_key, expires_at_millis FROM cache_invalidations ";
+    private static final int MAX_GAPS = 1_000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long retentionMillis;
+    private final long gapTimeoutMillis;
+    private final LinkedBlockingQueue<InvalidationEvent> pending;
+    private final Map<InvalidationEvent.Type, List<Consumer<InvalidationEvent>>> handlers =
+            new EnumMap<>(InvalidationEvent.Type.class);
+    // Unseen id -> time after which it is given up on
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // -1 until the first poll reads the current maximum
+    private volatile long highWaterMark = -1;
+
+    public JdbcInvalidationBus(DataSource dataSource,
+                               MeterRegistry meterRegistry,
+                               @Value("${cache.invalidation-bus.enabled:false}") boolean enabled,
+                               @Value("${cache.invalidation-bus.batch-size:200}") int batchSize,
+                               @Value("${cache.invalidation-bus.max-pending:10000}") int maxPending,
+                               @Value("${cache.invalidation-bus.retention-seconds:600}") long retentionSeconds,
+                               @Value("${cache.invalidation-bus.gap-timeout-ms:10000}") long gapTimeoutMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setMaxRows(batchSize);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retentionMillis = retentionSeconds * 1000;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.pending = new LinkedBlockingQueue<>(maxPending);
+        for (InvalidationEvent.Type type : InvalidationEvent.Type.values()) {
+            handlers.put(type, new CopyOnWriteArrayList<>());
+        }
+
+        FunctionCounter.builder("cache.invalidation.bus.events", published, AtomicLong::get)
+                .tag("result", "published")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.invalidation.bus.events", received, AtomicLong::get)
+                .tag("result", "received")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.invalidation.bus.events", dropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("cache.invalidation.bus.pending", pending, LinkedBlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!pending.offer(event)) {
+            // Peers keep the stale entry until its TTL; better than blocking the writer
+            dropped.incrementAndGet();
+            log.warn("Invalidation bus backlog full, dropped {}", event);
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationEvent.Type type, Consumer<InvalidationEvent> handler) {
+        handlers.get(type).add(handler);
+    }
+
+    /**
+     * Write queued events, one JDBC batch per {@code batch-size} events.
+     * Duplicates within a batch (the same tag from several writes) are sent once.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation-bus.flush-interval-ms:100}", scheduler = "invalidationBusScheduler")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<InvalidationEvent> drained = new ArrayList<>(batchSize);
+        while (pending.drainTo(drained, batchSize) > 0) {
+            Set<InvalidationEvent> batch = new LinkedHashSet<>(drained);
+            drained.clear();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                    ps.setString(1, nodeId);
+                    ps.setString(2, event.type().name());
+                    ps.setString(3, event.key());
+                    ps.setLong(4, event.expiresAtMillis());
+                    ps.setTimestamp(5, now);
+                });
+                published.addAndGet(batch.size());
+            } catch (DataAccessException e) {
+                log.warn("Failed to publish {} invalidation(s), retrying on next flush: {}",
+                        batch.size(), e.getMessage());
+                for (InvalidationEvent event : batch) {
+                    if (!pending.offer(event)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Apply events other instances wrote since the last poll, then any late
+     * rows filling earlier gaps.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation-bus.poll-interval-ms:500}", scheduler = "invalidationBusScheduler")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (highWaterMark < 0) {
+                Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+                highWaterMark = max == null ? 0 : max;
+                return;
+            }
+            List<Row> rows;
+            do {
+                rows = jdbcTemplate.query(SELECT_COLUMNS + "WHERE id > ? ORDER BY id", this::mapRow, highWaterMark);
+                for (Row row : rows) {
+                    trackGaps(row.id());
+                    highWaterMark = row.id();
+                    apply(row);
+                }
+            } while (rows.size() >= batchSize);
+            pollGaps();
+        } catch (DataAccessException e) {
+            log.warn("Invalidation bus poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation-bus.purge-interval-ms:60000}", scheduler = "invalidationBusScheduler")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusNanos(retentionMillis * 1_000_000)));
+            if (purged > 0) {
+                log.debug("Purged {} invalidation row(s)", purged);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Invalidation bus purge failed: {}", e.getMessage());
+        }
+    }
+
+    public long publishedCount() {
+        return published.get();
+    }
+
+    public long receivedCount() {
+        return received.get();
+    }
+
+    private void trackGaps(long id) {
+        long deadline = System.currentTimeMillis() + gapTimeoutMillis;
+        for (long missing = highWaterMark + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+            gaps.put(missing, deadline);
+        }
+    }
+
+    private void pollGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(deadline -> deadline < now);
+        List<Long> ids = gaps.keySet().stream().limit(batchSize).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<Row> rows = jdbcTemplate.query(SELECT_COLUMNS + "WHERE id IN (" + placeholders + ")",
+                this::mapRow, ids.toArray());
+        for (Row row : rows) {
+            if (gaps.remove(row.id()) != null) {
+                apply(row);
+            }
+        }
+    }
+
+    private void apply(Row row) {
+        if (nodeId.equals(row.nodeId())) {
+            return;
+        }
+        InvalidationEvent.Type type;
+        try {
+            type = InvalidationEvent.Type.valueOf(row.type());
+        } catch (IllegalArgumentException e) {
+            // Written by a newer version during a rolling deploy
+            log.debug("Ignoring unknown invalidation type {}", row.type());
+            return;
+        }
+        InvalidationEvent event = new InvalidationEvent(type, row.key(), row.expiresAtMillis());
+        received.incrementAndGet();
+        for (Consumer<InvalidationEvent> handler : handlers.get(type)) {
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation handler failed for {}", event, e);
+            }
+        }
+    }
+
+    private Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5));
+    }
+
+    private record Row(long id, String nodeId, String type, String key, long expiresAtMillis) {}
+}
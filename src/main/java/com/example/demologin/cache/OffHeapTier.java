@@ -0,0 +1,301 @@
+package com.example.demologin.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Second tier of a {@link SmartCacheStore}: entries evicted from the heap are
+ * kept here encoded by {@link SmartCacheCodec}, in direct {@link ByteBuffer}
+ * slabs outside the Java heap, so they cost the GC nothing but a small key
+ * record. A read that misses the heap takes the entry back out (promotion).
+ *
+ * Memory is reserved in 256 KiB slabs up to the byte budget. Each slab is cut
+ * into equal blocks of one power-of-two size class (64 B to 64 KiB); larger
+ * values stay heap-only. Every size class has its own LRU, so making room for
+ * a value only evicts entries whose blocks it can reuse. Once the budget is
+ * reserved, a size class with nothing left to evict takes a whole slab from
+ * the class holding the most slabs, so a shift in value sizes cannot lock a
+ * class out of the tier for good.
+ */
+final class OffHeapTier {
+
+    /** Told about every entry that leaves the tier other than by {@link #take}. */
+    @FunctionalInterface
+    interface RemovalListener {
+        void onRemoval(Object key, String[] tags);
+    }
+
+    record Entry(byte[] bytes, long loadedAtNanos, String[] tags) {}
+
+    static final int SLAB_BYTES = 256 * 1024;
+    private static final int MIN_BLOCK_SHIFT = 6;
+    private static final int MAX_BLOCK_SHIFT = 16;
+    private static final int SIZE_CLASSES = MAX_BLOCK_SHIFT - MIN_BLOCK_SHIFT + 1;
+    // Block handle: slab index * BLOCKS_PER_SLAB + block index within the slab
+    private static final int BLOCKS_PER_SLAB = SLAB_BYTES >> MIN_BLOCK_SHIFT;
+
+    private final int maxSlabs;
+    private final RemovalListener removalListener;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    // Size class each slab is currently cut for, and how many slabs each class holds
+    private int[] slabClass = new int[16];
+    private final int[] slabsPerClass = new int[SIZE_CLASSES];
+    private final IntStack[] freeBlocks = new IntStack[SIZE_CLASSES];
+    private final Map<Object, Slot> index = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final LinkedHashMap<Object, Slot>[] lru = new LinkedHashMap[SIZE_CLASSES];
+    private long usedBytes;
+    private long evictions;
+    private long rejections;
+
+    OffHeapTier(long maxBytes, RemovalListener removalListener) {
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE / BLOCKS_PER_SLAB,
+                Math.max(1, (maxBytes + SLAB_BYTES - 1) / SLAB_BYTES));
+        this.removalListener = removalListener;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeBlocks[i] = new IntStack();
+            lru[i] = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+
+    /**
+     * Store an encoded value, evicting least recently used entries of the
+     * same size class if needed, or moving a slab over from another class when
+     * this one has none. False if the value is too large or no block of its
+     * size can be freed.
+     */
+    synchronized boolean put(Object key, byte[] bytes, long loadedAtNanos, String[] tags) {
+        int sizeClass = sizeClassOf(bytes.length);
+        if (sizeClass < 0) {
+            rejections++;
+            return false;
+        }
+        Slot previous = index.remove(key);
+        if (previous != null) {
+            // Same key: its tag references carry over to the new entry
+            release(previous);
+        }
+
+        int block = allocate(sizeClass);
+        while (block < 0) {
+            Iterator<Slot> eldest = lru[sizeClass].values().iterator();
+            if (eldest.hasNext()) {
+                evict(eldest.next());
+            } else if (!reassignSlab(sizeClass)) {
+                rejections++;
+                return false;
+            }
+            block = allocate(sizeClass);
+        }
+
+        slabs.get(block / BLOCKS_PER_SLAB).put(offsetOf(block, sizeClass), bytes);
+        Slot slot = new Slot(key, sizeClass, block, bytes.length, loadedAtNanos, tags);
+        index.put(key, slot);
+        lru[sizeClass].put(key, slot);
+        usedBytes += blockSize(sizeClass);
+        return true;
+    }
+
+    /**
+     * Remove the entry and return its bytes, for promotion back to the heap.
+     */
+    synchronized Entry take(Object key) {
+        Slot slot = index.remove(key);
+        if (slot == null) {
+            return null;
+        }
+        byte[] bytes = new byte[slot.length];
+        slabs.get(slot.block / BLOCKS_PER_SLAB).get(offsetOf(slot.block, slot.sizeClass), bytes);
+        release(slot);
+        return new Entry(bytes, slot.loadedAtNanos, slot.tags);
+    }
+
+    synchronized boolean remove(Object key) {
+        Slot slot = index.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        release(slot);
+        removalListener.onRemoval(slot.key, slot.tags);
+        return true;
+    }
+
+    /**
+     * Drop entries loaded at least {@code maxAgeNanos} ago.
+     */
+    synchronized void cleanUp(long now, long maxAgeNanos) {
+        Iterator<Slot> slots = index.values().iterator();
+        while (slots.hasNext()) {
+            Slot slot = slots.next();
+            if (now - slot.loadedAtNanos >= maxAgeNanos) {
+                slots.remove();
+                release(slot);
+                removalListener.onRemoval(slot.key, slot.tags);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        for (Slot slot : List.copyOf(index.values())) {
+            index.remove(slot.key);
+            release(slot);
+            removalListener.onRemoval(slot.key, slot.tags);
+        }
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    /** Bytes held by live entries, rounded up to their block sizes. */
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /** Direct memory reserved so far; slabs are kept once allocated. */
+    synchronized long reservedBytes() {
+        return (long) slabs.size() * SLAB_BYTES;
+    }
+
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /** Puts turned away: too large for a block, or no room could be made. */
+    synchronized long rejectionCount() {
+        return rejections;
+    }
+
+    private void evict(Slot victim) {
+        index.remove(victim.key);
+        release(victim);
+        evictions++;
+        removalListener.onRemoval(victim.key, victim.tags);
+    }
+
+    /**
+     * Empty one slab of the size class holding the most slabs and recut it for
+     * {@code sizeClass}. The slab taken is the one holding that class's least
+     * recently used entry, so the entries lost with it are among the coldest.
+     */
+    private boolean reassignSlab(int sizeClass) {
+        int donor = -1;
+        for (int c = 0; c < SIZE_CLASSES; c++) {
+            if (c != sizeClass && slabsPerClass[c] > 0 && (donor < 0 || slabsPerClass[c] > slabsPerClass[donor])) {
+                donor = c;
+            }
+        }
+        if (donor < 0) {
+            return false;
+        }
+        int slab = -1;
+        Iterator<Slot> eldest = lru[donor].values().iterator();
+        if (eldest.hasNext()) {
+            slab = eldest.next().block / BLOCKS_PER_SLAB;
+        } else {
+            for (int s = 0; s < slabs.size() && slab < 0; s++) {
+                if (slabClass[s] == donor) {
+                    slab = s;
+                }
+            }
+        }
+        for (Slot victim : List.copyOf(lru[donor].values())) {
+            if (victim.block / BLOCKS_PER_SLAB == slab) {
+                evict(victim);
+            }
+        }
+        int first = slab * BLOCKS_PER_SLAB;
+        freeBlocks[donor].removeRange(first, first + BLOCKS_PER_SLAB);
+        slabsPerClass[donor]--;
+        cutSlab(slab, sizeClass);
+        return true;
+    }
+
+    private void cutSlab(int slab, int sizeClass) {
+        if (slab == slabClass.length) {
+            slabClass = Arrays.copyOf(slabClass, slab * 2);
+        }
+        slabClass[slab] = sizeClass;
+        slabsPerClass[sizeClass]++;
+        IntStack free = freeBlocks[sizeClass];
+        int blocks = SLAB_BYTES / blockSize(sizeClass);
+        // Pushed in reverse so blocks are handed out in address order
+        for (int i = blocks - 1; i >= 0; i--) {
+            free.push(slab * BLOCKS_PER_SLAB + i);
+        }
+    }
+
+    private void release(Slot slot) {
+        lru[slot.sizeClass].remove(slot.key);
+        freeBlocks[slot.sizeClass].push(slot.block);
+        usedBytes -= blockSize(slot.sizeClass);
+    }
+
+    private int allocate(int sizeClass) {
+        IntStack free = freeBlocks[sizeClass];
+        if (free.isEmpty()) {
+            if (slabs.size() >= maxSlabs) {
+                return -1;
+            }
+            int slab = slabs.size();
+            slabs.add(ByteBuffer.allocateDirect(SLAB_BYTES));
+            cutSlab(slab, sizeClass);
+        }
+        return free.pop();
+    }
+
+    private static int offsetOf(int block, int sizeClass) {
+        return (block % BLOCKS_PER_SLAB) * blockSize(sizeClass);
+    }
+
+    private static int blockSize(int sizeClass) {
+        return 1 << (sizeClass + MIN_BLOCK_SHIFT);
+    }
+
+    private static int sizeClassOf(int length) {
+        if (length > (1 << MAX_BLOCK_SHIFT)) {
+            return -1;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+        return Math.max(shift, MIN_BLOCK_SHIFT) - MIN_BLOCK_SHIFT;
+    }
+
+    private record Slot(Object key, int sizeClass, int block, int length, long loadedAtNanos, String[] tags) {}
+
+    private static final class IntStack {
+        private int[] values = new int[16];
+        private int size;
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /** Drop every value in [from, to), keeping the order of the rest. */
+        void removeRange(int from, int to) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (values[i] < from || values[i] >= to) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
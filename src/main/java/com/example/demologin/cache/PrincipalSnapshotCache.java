@@ -0,0 +1,193 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.security.PrincipalSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-based cache of {@link PrincipalSnapshot}s keyed by userId and
+ * tokenVersion. Only one snapshot per user is kept: a token carrying an older
+ * version than the cached one is answered from cache (and then rejected by the
+ * version check), a newer version forces a reload.
+ *
+ * Any committed write to a {@code User} row evicts that user, through the
+ * {@code user:<id>} tag {@link EntityCacheInvalidator} raises. Evictions reach
+ * other instances only through the {@link InvalidationBus}; without it a
+ * snapshot lives at most {@code ttl-seconds-without-bus}, so a token version
+ * bumped on another instance takes effect within seconds.
+ */
+@Component
+@Slf4j
+public class PrincipalSnapshotCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final String USER_TAG = "user:";
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final InvalidationBus invalidationBus;
+
+    @Autowired
+    public PrincipalSnapshotCache(@Value("${security.principal-cache.max-entries:10000}") int maxEntries,
+                                  @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                                  @Value("${security.principal-cache.ttl-seconds-without-bus:5}") long ttlSecondsWithoutBus,
+                                  MeterRegistry meterRegistry,
+                                  InvalidationBus invalidationBus,
+                                  SmartCacheManager smartCacheManager) {
+        this(maxEntries, ttlSeconds, ttlSecondsWithoutBus, meterRegistry, invalidationBus);
+        smartCacheManager.addTagListener(this::onTagInvalidated);
+    }
+
+    PrincipalSnapshotCache(int maxEntries, long ttlSeconds, long ttlSecondsWithoutBus,
+                           MeterRegistry meterRegistry, InvalidationBus invalidationBus) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(
+                invalidationBus.isEnabled() ? ttlSeconds : Math.min(ttlSeconds, ttlSecondsWithoutBus));
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationEvent.Type.PRINCIPAL_USER, event -> evictNow(event.userId()));
+        invalidationBus.subscribe(InvalidationEvent.Type.PRINCIPAL_ALL, event -> clearNow());
+
+        FunctionCounter.builder("security.principal.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.principal.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("security.principal.cache.evictions", evictions, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("security.principal.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached snapshot for the user at (or after) the given token
+     * version, loading it with {@code loader} on a miss.
+     */
+    public PrincipalSnapshot get(Long userId, int tokenVersion, Supplier<PrincipalSnapshot> loader) {
+        if (maxEntries > 0) {
+            Entry entry = entries.get(userId);
+            if (entry != null && System.nanoTime() - entry.loadedAtNanos() < ttlNanos
+                    && tokenVersion <= entry.snapshot().tokenVersion()) {
+                hits.incrementAndGet();
+                return entry.snapshot();
+            }
+        }
+
+        misses.incrementAndGet();
+        PrincipalSnapshot snapshot = loader.get();
+        if (maxEntries > 0 && snapshot != null) {
+            if (entries.size() >= maxEntries) {
+                evictExpired();
+            }
+            entries.put(userId, new Entry(snapshot, System.nanoTime()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drop the user's snapshot now and again once the surrounding transaction
+     * commits, so a concurrent reader cannot re-cache the pre-commit row.
+     * Other instances drop theirs when the committed change reaches them.
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evictNow(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        }
+        invalidationBus.publishAfterCommit(InvalidationEvent.principal(userId));
+    }
+
+    /**
+     * Drop every snapshot, e.g. after a role or permission change that may affect any user.
+     */
+    public void evictAll() {
+        clearNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearNow();
+                }
+            });
+        }
+        invalidationBus.publishAfterCommit(InvalidationEvent.allPrincipals());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    // A committed User write, here or on another instance
+    void onTagInvalidated(String tag) {
+        if (!tag.startsWith(USER_TAG)) {
+            return;
+        }
+        try {
+            evictNow(Long.valueOf(tag.substring(USER_TAG.length())));
+        } catch (NumberFormatException e) {
+            // Not a user id tag
+        }
+    }
+
+    private void evictNow(Long userId) {
+        if (entries.remove(userId) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void clearNow() {
+        int size = entries.size();
+        entries.clear();
+        evictions.addAndGet(size);
+        log.debug("Principal snapshot cache cleared ({} entries)", size);
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        int before = entries.size();
+        entries.values().removeIf(entry -> now - entry.loadedAtNanos() >= ttlNanos);
+
+        // Still full: drop an arbitrary tenth rather than grow past the bound
+        Iterator<Long> it = entries.keySet().iterator();
+        int overflow = entries.size() >= maxEntries ? Math.max(1, maxEntries / 10) : 0;
+        while (overflow-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        evictions.addAndGet(Math.max(0, before - entries.size()));
+    }
+
+    private record Entry(PrincipalSnapshot snapshot, long loadedAtNanos) {}
+}
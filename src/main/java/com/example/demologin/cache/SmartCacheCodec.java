@@ -0,0 +1,240 @@
+package com.example.demologin.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Byte encoding of cached values for the off-heap tier. Strings, boxed
+ * numbers and collections of strings (permission sets, role names) get a
+ * compact form with varint lengths; other {@link Serializable} values fall
+ * back to Java serialization. Anything else cannot leave the heap.
+ */
+final class SmartCacheCodec {
+
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INT = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte STRING_SET = 5;
+    private static final byte STRING_LIST = 6;
+    private static final byte SERIALIZED = 9;
+
+    private SmartCacheCodec() {
+    }
+
+    /**
+     * Encoded value, or null if the value cannot be encoded.
+     */
+    static byte[] encode(Object value) {
+        Writer out = new Writer();
+        if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeString(s);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeLong(i);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeByte(b ? 1 : 0);
+        } else if (value instanceof Set<?> set && allStrings(set)) {
+            out.writeByte(STRING_SET);
+            out.writeStrings(set);
+        } else if (value instanceof List<?> list && allStrings(list)) {
+            out.writeByte(STRING_LIST);
+            out.writeStrings(list);
+        } else if (value instanceof Serializable) {
+            return serialize(value);
+        } else {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    static Object decode(byte[] encoded) {
+        Reader in = new Reader(encoded);
+        byte type = encoded[in.position++];
+        return switch (type) {
+            case STRING -> in.readString();
+            case LONG -> in.readLong();
+            case INT -> (int) in.readLong();
+            case BOOLEAN -> encoded[in.position] != 0;
+            case STRING_SET -> in.readStrings(HashSet::newHashSet);
+            case STRING_LIST -> in.readStrings(ArrayList::new);
+            case SERIALIZED -> deserialize(encoded);
+            default -> throw new IllegalStateException("Unknown cache value type " + type);
+        };
+    }
+
+    private static boolean allStrings(Collection<?> values) {
+        for (Object value : values) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] serialize(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            bytes.write(SERIALIZED);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Serializable but with a non-serializable field somewhere inside
+            return null;
+        }
+    }
+
+    private static Object deserialize(byte[] encoded) {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(encoded, 1, encoded.length - 1))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Growable byte array; ASCII strings are copied char by char without an intermediate array. */
+    private static final class Writer {
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        /** Zig-zag varint, so small negative numbers stay short too. */
+        void writeLong(long value) {
+            ensure(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeStrings(Collection<?> values) {
+            writeVarInt(values.size());
+            for (Object value : values) {
+                writeString((String) value);
+            }
+        }
+
+        void writeString(String value) {
+            int length = value.length();
+            ensure(length + 5);
+            int start = position;
+            writeVarInt(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    position = start;
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    // Negative length marks UTF-8 bytes rather than ASCII chars
+                    writeVarInt(~utf8.length);
+                    ensure(utf8.length);
+                    System.arraycopy(utf8, 0, buffer, position, utf8.length);
+                    position += utf8.length;
+                    return;
+                }
+                buffer[position++] = (byte) c;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = buffer[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed length in cached value");
+        }
+
+        long readLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                long b = buffer[position++];
+                zigzag |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IllegalStateException("Malformed number in cached value");
+        }
+
+        <C extends Collection<String>> C readStrings(IntFunction<C> factory) {
+            int size = readVarInt();
+            C values = factory.apply(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            boolean ascii = length >= 0;
+            if (!ascii) {
+                length = ~length;
+            }
+            String value = new String(buffer, position, length,
+                    ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
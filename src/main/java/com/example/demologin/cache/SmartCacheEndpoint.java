@@ -0,0 +1,56 @@
+package com.example.demologin.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/smartcache}: per-cache policy and statistics, and clearing
+ * one cache ({@code DELETE /actuator/smartcache/{name}}) or all of them.
+ */
+@Component
+@Endpoint(id = "smartcache")
+@RequiredArgsConstructor
+public class SmartCacheEndpoint {
+
+    private final SmartCacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, CacheDescriptor> caches() {
+        Map<String, CacheDescriptor> caches = new TreeMap<>();
+        cacheManager.getStores().forEach(store -> caches.put(store.getName(), describe(store)));
+        return caches;
+    }
+
+    @ReadOperation
+    public CacheDescriptor cache(@Selector String name) {
+        SmartCacheStore store = cacheManager.find(name);
+        return store != null ? describe(store) : null;
+    }
+
+    @DeleteOperation
+    public void clearAll() {
+        cacheManager.clearAll();
+    }
+
+    @DeleteOperation
+    public boolean clear(@Selector String name) {
+        return cacheManager.clear(name);
+    }
+
+    private static CacheDescriptor describe(SmartCacheStore store) {
+        return new CacheDescriptor(store.getPolicy(), store.size(), store.weight(), store.hitCount(),
+                store.missCount(), store.hitRate(), store.evictionCount(), store.expirationCount(),
+                store.offHeapSize(), store.offHeapBytes(), store.offHeapHitCount());
+    }
+
+    public record CacheDescriptor(SmartCachePolicy policy, int size, long weight, long hits, long misses,
+                                  double hitRate, long evictions, long expirations,
+                                  int offHeapSize, long offHeapBytes, long offHeapHits) {}
+}
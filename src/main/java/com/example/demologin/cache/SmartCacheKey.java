@@ -0,0 +1,102 @@
+package com.example.demologin.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Key of a {@code @SmartCache} entry: the cache (method) name plus the
+ * argument values, compared with {@code equals} rather than their string
+ * forms. Sets compare as sets, so {@code {A, B}} and {@code {B, A}} hit the
+ * same entry whatever their implementation. The hash is computed once.
+ *
+ * A lookup key references the caller's arguments as-is; the store keeps a
+ * {@link #detached()} copy so later mutation of a collection argument cannot
+ * corrupt the entry.
+ */
+public final class SmartCacheKey {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final String cacheName;
+    private final Object[] args;
+    private final int hash;
+
+    public SmartCacheKey(String cacheName, Object[] args) {
+        this.cacheName = cacheName;
+        this.args = args != null ? args : NO_ARGS;
+        this.hash = 31 * cacheName.hashCode() + Arrays.deepHashCode(this.args);
+    }
+
+    private SmartCacheKey(String cacheName, Object[] args, int hash) {
+        this.cacheName = cacheName;
+        this.args = args;
+        this.hash = hash;
+    }
+
+    public static SmartCacheKey of(String cacheName, Object... args) {
+        return new SmartCacheKey(cacheName, args);
+    }
+
+    public String cacheName() {
+        return cacheName;
+    }
+
+    /**
+     * Copy safe to keep in the store: collection and array arguments are
+     * snapshotted. Returns this key when no argument is mutable in that way.
+     */
+    SmartCacheKey detached() {
+        Object[] copy = null;
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            Object snapshot = snapshot(arg);
+            if (snapshot != arg) {
+                if (copy == null) {
+                    copy = args.clone();
+                }
+                copy[i] = snapshot;
+            }
+        }
+        return copy == null ? this : new SmartCacheKey(cacheName, copy, hash);
+    }
+
+    private static Object snapshot(Object arg) {
+        if (arg instanceof Set<?> set) {
+            return Collections.unmodifiableSet(new HashSet<>(set));
+        }
+        if (arg instanceof List<?> list) {
+            return Collections.unmodifiableList(new ArrayList<>(list));
+        }
+        if (arg instanceof Object[] array) {
+            return array.clone();
+        }
+        return arg;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SmartCacheKey other)) {
+            return false;
+        }
+        return hash == other.hash
+                && cacheName.equals(other.cacheName)
+                && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return cacheName + Arrays.deepToString(args);
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.SmartCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the per-method {@link SmartCacheStore}s created by
+ * {@link com.example.demologin.aspect.SmartCacheAspect}. Publishes per-cache
+ * Micrometer meters (tagged {@code cache=<name>}) and sweeps expired entries.
+ * Tag invalidation goes through the shared {@link TagIndex} and is relayed to
+ * other instances over the {@link InvalidationBus}. Refresh-ahead
+ * reloads share one small bounded executor.
+ */
+@Component
+@Slf4j
+public class SmartCacheManager {
+
+    private final Map<String, SmartCacheStore> stores = new ConcurrentHashMap<>();
+    private final TagIndex tagIndex = new TagIndex();
+    private final MeterRegistry meterRegistry;
+    private final SmartCachePolicy defaults;
+    private final long loadTimeoutMillis;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final InvalidationBus invalidationBus;
+    private final List<Consumer<String>> tagListeners = new CopyOnWriteArrayList<>();
+
+    public SmartCacheManager(MeterRegistry meterRegistry,
+                             @Value("${smartcache.default.max-entries:1000}") int maxEntries,
+                             @Value("${smartcache.default.ttl-seconds:600}") long ttlSeconds,
+                             @Value("${smartcache.default.refresh-after-seconds:0}") long refreshAfterSeconds,
+                             @Value("${smartcache.default.max-weight:0}") long maxWeight,
+                             @Value("${smartcache.default.stale-if-error-seconds:0}") long staleIfErrorSeconds,
+                             @Value("${smartcache.default.off-heap-max-bytes:0}") long offHeapMaxBytes,
+                             @Value("${smartcache.load-timeout-ms:5000}") long loadTimeoutMillis,
+                             @Value("${smartcache.refresh.threads:2}") int refreshThreads,
+                             @Value("${smartcache.refresh.queue-capacity:256}") int refreshQueueCapacity,
+                             InvalidationBus invalidationBus) {
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationEvent.Type.CACHE_TAG, event -> invalidateTagsNow(List.of(event.key())));
+        this.loadTimeoutMillis = loadTimeoutMillis;
+        this.defaults = new SmartCachePolicy(maxEntries, ttlSeconds, refreshAfterSeconds, maxWeight,
+                staleIfErrorSeconds, offHeapMaxBytes);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Full queue rejects: the entry keeps its current value and a later read retries
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueueCapacity), r -> {
+                    Thread t = new Thread(r, "smartcache-refresh-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public SmartCacheStore getOrCreate(String name, SmartCache annotation) {
+        SmartCacheStore store = stores.get(name);
+        if (store != null) {
+            return store;
+        }
+        return stores.computeIfAbsent(name, n -> register(
+                new SmartCacheStore(n, SmartCachePolicy.of(annotation, defaults), loadTimeoutMillis, tagIndex,
+                        refreshExecutor)));
+    }
+
+    public SmartCacheStore find(String name) {
+        return stores.get(name);
+    }
+
+    public Collection<SmartCacheStore> getStores() {
+        return stores.values();
+    }
+
+    /**
+     * Invalidate every entry carrying one of the tags. Inside a transaction
+     * this runs again after commit, so a concurrent reader cannot re-cache the
+     * pre-commit state, and the tags are then published to other instances.
+     */
+    public void invalidateTags(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        invalidateTagsNow(tags);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateTagsNow(tags);
+                }
+            });
+        }
+        publish(tags, true);
+    }
+
+    /**
+     * Invalidate every entry carrying one of the tags for a write that has
+     * already committed.
+     */
+    public void invalidateCommittedTags(Collection<String> tags) {
+        invalidateTagsNow(tags);
+        publish(tags, false);
+    }
+
+    private void publish(Collection<String> tags, boolean afterCommit) {
+        for (String tag : tags) {
+            InvalidationEvent event = InvalidationEvent.cacheTag(tag);
+            if (afterCommit) {
+                invalidationBus.publishAfterCommit(event);
+            } else {
+                invalidationBus.publish(event);
+            }
+        }
+    }
+
+    /**
+     * Also hand every invalidated tag to {@code listener}, whether the write
+     * happened here or on another instance, for caches kept outside SmartCache.
+     */
+    public void addTagListener(Consumer<String> listener) {
+        tagListeners.add(listener);
+    }
+
+    private void invalidateTagsNow(Collection<String> tags) {
+        int invalidated = 0;
+        for (String tag : tags) {
+            for (Consumer<String> listener : tagListeners) {
+                listener.accept(tag);
+            }
+            for (TagIndex.EntryRef ref : tagIndex.take(tag)) {
+                ref.store().invalidate(ref.key());
+                invalidated++;
+            }
+            for (SmartCacheStore store : stores.values()) {
+                store.invalidateLoadsTagged(tag);
+            }
+        }
+        log.debug("Invalidated {} cache entr(ies) for tags {}", invalidated, tags);
+    }
+
+    public int tagCount() {
+        return tagIndex.tagCount();
+    }
+
+    public boolean clear(String name) {
+        SmartCacheStore store = stores.get(name);
+        if (store == null) {
+            return false;
+        }
+        store.invalidateAll();
+        log.info("Cleared cache {}", name);
+        return true;
+    }
+
+    public void clearAll() {
+        stores.values().forEach(SmartCacheStore::invalidateAll);
+        log.info("Cleared all {} smart cache(s)", stores.size());
+    }
+
+    @Scheduled(fixedDelayString = "${smartcache.cleanup-interval-ms:60000}")
+    public void cleanUp() {
+        stores.values().forEach(SmartCacheStore::cleanUp);
+    }
+
+    private SmartCacheStore register(SmartCacheStore store) {
+        String name = store.getName();
+        FunctionCounter.builder("smartcache.requests", store, SmartCacheStore::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("smartcache.requests", store, SmartCacheStore::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("smartcache.requests", store, SmartCacheStore::staleHitCount)
+                .tag("cache", name).tag("result", "stale")
+                .register(meterRegistry);
+        FunctionCounter.builder("smartcache.evictions", store, SmartCacheStore::evictionCount)
+                .tag("cache", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("smartcache.expirations", store, SmartCacheStore::expirationCount)
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("smartcache.size", store, SmartCacheStore::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("smartcache.weight", store, SmartCacheStore::weight)
+                .tag("cache", name)
+                .register(meterRegistry);
+        if (store.isOffHeapEnabled()) {
+            FunctionCounter.builder("smartcache.offheap.hits", store, SmartCacheStore::offHeapHitCount)
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("smartcache.offheap.rejections", store, SmartCacheStore::offHeapRejectionCount)
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("smartcache.offheap.size", store, SmartCacheStore::offHeapSize)
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("smartcache.offheap.bytes", store, SmartCacheStore::offHeapBytes)
+                    .tag("cache", name).tag("area", "used")
+                    .register(meterRegistry);
+            Gauge.builder("smartcache.offheap.bytes", store, SmartCacheStore::offHeapReservedBytes)
+                    .tag("cache", name).tag("area", "reserved")
+                    .register(meterRegistry);
+        }
+        log.debug("Created smart cache {} with {}", name, store.getPolicy());
+        return store;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.SmartCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolved limits of one {@link SmartCache} method: annotation attributes
+ * with the {@code smartcache.default.*} values filled in for those left at -1.
+ */
+public record SmartCachePolicy(int maxEntries, long ttlSeconds, long refreshAfterSeconds, long maxWeight,
+                               long staleIfErrorSeconds, long offHeapMaxBytes) {
+
+    public SmartCachePolicy(int maxEntries, long ttlSeconds, long refreshAfterSeconds, long maxWeight) {
+        this(maxEntries, ttlSeconds, refreshAfterSeconds, maxWeight, 0, 0);
+    }
+
+    public static SmartCachePolicy of(SmartCache annotation, SmartCachePolicy defaults) {
+        return new SmartCachePolicy(
+                annotation.maxEntries() >= 0 ? annotation.maxEntries() : defaults.maxEntries(),
+                annotation.ttlSeconds() >= 0 ? annotation.ttlSeconds() : defaults.ttlSeconds(),
+                annotation.refreshAfterSeconds() >= 0 ? annotation.refreshAfterSeconds() : defaults.refreshAfterSeconds(),
+                annotation.maxWeight() >= 0 ? annotation.maxWeight() : defaults.maxWeight(),
+                annotation.staleIfErrorSeconds() >= 0 ? annotation.staleIfErrorSeconds() : defaults.staleIfErrorSeconds(),
+                annotation.offHeapMaxBytes() >= 0 ? annotation.offHeapMaxBytes() : defaults.offHeapMaxBytes());
+    }
+
+    long ttlNanos() {
+        return ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : Long.MAX_VALUE;
+    }
+
+    long refreshAfterNanos() {
+        return refreshAfterSeconds > 0 ? TimeUnit.SECONDS.toNanos(refreshAfterSeconds) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Age until which an expired value is kept as a fallback for a failed reload.
+     */
+    long staleNanos() {
+        long ttl = ttlNanos();
+        long grace = TimeUnit.SECONDS.toNanos(Math.max(staleIfErrorSeconds, 0));
+        return ttl > Long.MAX_VALUE - grace ? Long.MAX_VALUE : ttl + grace;
+    }
+
+    boolean isWeighted() {
+        return maxWeight > 0;
+    }
+}
@@ -0,0 +1,582 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.exception.exceptions.CacheInvocationException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded store behind one {@code @SmartCache} method.
+ *
+ * Reads are a lock-free hash lookup. Entries are kept on an LRU list, with a
+ * TinyLFU frequency sketch deciding whether a new entry may displace the
+ * eldest one, so a burst of one-off keys cannot flush the hot set. Eviction is
+ * O(1) per entry. Access reordering is best-effort (skipped when the eviction
+ * lock is contended) so hits never block. Entries expire after the policy TTL.
+ *
+ * A read of an entry older than refresh-after returns it at once and reloads
+ * it on the refresh executor (bounded; a rejected refresh is simply retried by
+ * a later reader), so hot entries are replaced before they expire. With a
+ * stale-if-error grace, an expired value is kept that much longer and served
+ * when reloading it fails or times out.
+ *
+ * Loads are single-flight per key: the first caller to miss runs the loader,
+ * concurrent callers for the same key wait (up to the load timeout) on its
+ * future and get the same value or the same exception. A load that overlaps an
+ * invalidation of its key still answers its callers but is not cached.
+ *
+ * Entries may carry dependency tags, registered in the shared {@link TagIndex}
+ * so {@link SmartCacheManager#invalidateTags} only touches affected entries.
+ *
+ * With an off-heap budget, entries evicted from the heap move to an
+ * {@link OffHeapTier} (if their value can be encoded) and a later miss takes
+ * them back instead of calling the loader. Keys, tags and TTL carry over.
+ */
+@Slf4j
+public class SmartCacheStore {
+
+    /**
+     * Produces the value on a miss; typically {@code joinPoint::proceed}.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws Throwable;
+    }
+
+    private static final String[] NO_TAGS = new String[0];
+
+    private final String name;
+    private final SmartCachePolicy policy;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final long staleNanos;
+    private final long loadTimeoutMillis;
+
+    private final Map<Object, Node> data = new ConcurrentHashMap<>();
+    private final Map<Object, Load> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final TagIndex tagIndex;
+    private final Executor refreshExecutor;
+    private final OffHeapTier offHeap;
+    // LRU list: sentinel.next is the eldest entry, sentinel.prev the newest
+    private final Node sentinel = new Node(null, null, NO_TAGS, 0, 0);
+    private volatile long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder offHeapHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public SmartCacheStore(String name, SmartCachePolicy policy) {
+        this(name, policy, 5_000);
+    }
+
+    public SmartCacheStore(String name, SmartCachePolicy policy, long loadTimeoutMillis) {
+        this(name, policy, loadTimeoutMillis, new TagIndex());
+    }
+
+    public SmartCacheStore(String name, SmartCachePolicy policy, long loadTimeoutMillis, TagIndex tagIndex) {
+        this(name, policy, loadTimeoutMillis, tagIndex, Runnable::run);
+    }
+
+    public SmartCacheStore(String name, SmartCachePolicy policy, long loadTimeoutMillis, TagIndex tagIndex,
+                           Executor refreshExecutor) {
+        this.name = name;
+        this.tagIndex = tagIndex;
+        this.refreshExecutor = refreshExecutor;
+        this.policy = policy;
+        this.ttlNanos = policy.ttlNanos();
+        this.refreshAfterNanos = policy.refreshAfterNanos();
+        this.staleNanos = policy.staleNanos();
+        this.loadTimeoutMillis = loadTimeoutMillis;
+        this.sketch = new FrequencySketch(policy.maxEntries());
+        this.offHeap = policy.offHeapMaxBytes() > 0
+                ? new OffHeapTier(policy.offHeapMaxBytes(), (key, tags) -> untag(tags, key))
+                : null;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+    }
+
+    public Object get(Object key, Loader loader) throws Throwable {
+        return get(key, NO_TAGS, loader);
+    }
+
+    /**
+     * Cached value for {@code key}, loading it on a miss; a loaded value is
+     * stored with the given dependency tags.
+     */
+    public Object get(Object key, String[] tags, Loader loader) throws Throwable {
+        Node node = data.get(key);
+        if (node != null) {
+            long age = System.nanoTime() - node.loadedAtNanos;
+            if (age < ttlNanos) {
+                hits.increment();
+                onAccess(node);
+                if (age >= refreshAfterNanos) {
+                    refreshAhead(key, tags, loader);
+                }
+                return node.value;
+            }
+            if (age >= staleNanos) {
+                expire(node);
+                node = null;
+            }
+            // Otherwise expired but within the grace: fallback if the reload fails
+        }
+
+        misses.increment();
+        Load load = new Load(tags);
+        Load inFlight = loading.putIfAbsent(key, load);
+        try {
+            return inFlight != null ? await(inFlight) : runLoad(key, load, loader);
+        } catch (Exception e) {
+            if (node == null) {
+                throw e;
+            }
+            staleHits.increment();
+            log.debug("Reload of {} in cache {} failed, serving stale value: {}", key, name, e.getMessage());
+            return node.value;
+        }
+    }
+
+    /**
+     * Reload a live entry in the background; only one refresh per key runs,
+     * and every caller meanwhile keeps getting the current value.
+     */
+    private void refreshAhead(Object key, String[] tags, Loader loader) {
+        Load load = new Load(tags);
+        if (loading.putIfAbsent(key, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    runLoad(key, load, loader);
+                } catch (Throwable t) {
+                    log.debug("Refresh of {} in cache {} failed, keeping current value: {}", key, name, t.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, load);
+            load.future.completeExceptionally(
+                    new CacheInvocationException("Refresh of cache " + name + " rejected: executor saturated"));
+        }
+    }
+
+    private Object runLoad(Object key, Load load, Loader loader) throws Throwable {
+        try {
+            Object value = promote(key, load);
+            if (value == null) {
+                value = loader.load();
+                store(key, value, load.tags, load, System.nanoTime());
+            }
+            load.future.complete(value);
+            return value;
+        } catch (Throwable t) {
+            load.future.completeExceptionally(t);
+            throw t;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Move the key's entry from the off-heap tier back to the heap; null if
+     * there is none that is still fresh.
+     */
+    private Object promote(Object key, Load load) {
+        OffHeapTier.Entry entry = offHeap != null ? offHeap.take(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAtNanos() >= ttlNanos) {
+            untag(entry.tags(), key);
+            return null;
+        }
+        Object value = SmartCacheCodec.decode(entry.bytes());
+        offHeapHits.increment();
+        if (!store(key, value, entry.tags(), load, entry.loadedAtNanos())) {
+            untag(entry.tags(), key);
+        }
+        return value;
+    }
+
+    private Object await(Load load) throws Throwable {
+        try {
+            return load.future.get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Same exception the loading caller got
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new CacheInvocationException("Timed out after " + loadTimeoutMillis
+                    + "ms waiting for cache " + name + " to load");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheInvocationException("Interrupted while waiting for cache " + name + " to load");
+        }
+    }
+
+    public Object getIfPresent(Object key) {
+        Node node = data.get(key);
+        if (node == null || System.nanoTime() - node.loadedAtNanos >= ttlNanos) {
+            return null;
+        }
+        return node.value;
+    }
+
+    public void put(Object key, Object value) {
+        store(key, value, NO_TAGS, null, System.nanoTime());
+    }
+
+    public void put(Object key, Object value, String[] tags) {
+        store(key, value, tags, null, System.nanoTime());
+    }
+
+    /**
+     * False if the value was not stored on the heap (null, over the limits,
+     * or its load overlapped an invalidation).
+     */
+    private boolean store(Object key, Object value, String[] tags, Load load, long loadedAtNanos) {
+        if (value == null) {
+            invalidate(key);
+            return false;
+        }
+        long weight = policy.isWeighted() ? SmartCacheWeigher.weigh(value) : 1;
+        if (policy.maxEntries() <= 0 || (policy.isWeighted() && weight > policy.maxWeight())) {
+            invalidate(key);
+            return false;
+        }
+
+        if (key instanceof SmartCacheKey cacheKey) {
+            // Lookup keys alias the caller's arguments; keep a private copy
+            key = cacheKey.detached();
+        }
+        Node node = new Node(key, value, tags, weight, loadedAtNanos);
+        evictionLock.lock();
+        try {
+            if (load != null && load.invalidated) {
+                return false;
+            }
+            sketch.increment(key);
+            Node previous = data.put(key, node);
+            if (previous != null) {
+                unlink(previous);
+                untag(previous);
+            }
+            linkLast(node);
+            if (offHeap != null) {
+                // An older copy demoted earlier must not outlive this one
+                offHeap.remove(key);
+            }
+            if (tags.length > 0) {
+                tagIndex.add(tags, this, key);
+            }
+            if (previous == null) {
+                evictIfNeeded(node);
+            } else {
+                evictIfNeeded(null);
+            }
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(Object key) {
+        evictionLock.lock();
+        try {
+            Load load = loading.remove(key);
+            if (load != null) {
+                load.invalidated = true;
+            }
+            Node node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+                untag(node);
+            }
+            if (offHeap != null) {
+                offHeap.remove(key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            loading.values().forEach(load -> load.invalidated = true);
+            loading.clear();
+            data.values().forEach(this::untag);
+            data.clear();
+            if (offHeap != null) {
+                offHeap.clear();
+            }
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            totalWeight = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Drop expired entries (past any stale-if-error grace) that nobody has
+     * read since they expired.
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        for (Node node : data.values()) {
+            if (now - node.loadedAtNanos >= staleNanos) {
+                expire(node);
+            }
+        }
+        if (offHeap != null) {
+            offHeap.cleanUp(now, ttlNanos);
+        }
+    }
+
+    private void expire(Node node) {
+        evictionLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                unlink(node);
+                untag(node);
+                expirations.increment();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void onAccess(Node node) {
+        // Lossy: a contended lock just skips the reordering
+        if (evictionLock.tryLock()) {
+            try {
+                sketch.increment(node.key);
+                if (node.next != null) {
+                    unlink(node);
+                    linkLast(node);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private boolean overCapacity() {
+        return data.size() > policy.maxEntries()
+                || (policy.isWeighted() && totalWeight > policy.maxWeight());
+    }
+
+    /**
+     * Evict from the LRU end until within bounds. A new {@code candidate} that
+     * is requested less often than the eldest entry is rejected instead.
+     */
+    private void evictIfNeeded(Node candidate) {
+        if (!overCapacity()) {
+            return;
+        }
+        if (candidate != null) {
+            Node eldest = sentinel.next;
+            if (eldest != candidate && sketch.frequency(candidate.key) < sketch.frequency(eldest.key)) {
+                evict(candidate);
+                if (!overCapacity()) {
+                    return;
+                }
+            }
+        }
+        while (overCapacity() && sentinel.next != sentinel) {
+            evict(sentinel.next);
+        }
+    }
+
+    private void evict(Node node) {
+        boolean removed = data.remove(node.key, node);
+        if (removed) {
+            evictions.increment();
+        }
+        unlink(node);
+        if (!removed || !demote(node)) {
+            untag(node);
+        }
+    }
+
+    /**
+     * Hand an evicted entry to the off-heap tier; its tags stay registered.
+     */
+    private boolean demote(Node node) {
+        if (offHeap == null) {
+            return false;
+        }
+        byte[] bytes = SmartCacheCodec.encode(node.value);
+        return bytes != null && offHeap.put(node.key, bytes, node.loadedAtNanos, node.tags);
+    }
+
+    private void untag(Node node) {
+        untag(node.tags, node.key);
+    }
+
+    private void untag(String[] tags, Object key) {
+        if (tags.length > 0) {
+            tagIndex.remove(tags, this, key);
+        }
+    }
+
+    /**
+     * Keep in-flight loads carrying the tag from storing what they read
+     * before the invalidating write; their entries are handled by the index.
+     */
+    void invalidateLoadsTagged(String tag) {
+        if (loading.isEmpty()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            loading.entrySet().removeIf(entry -> {
+                Load load = entry.getValue();
+                for (String loadTag : load.tags) {
+                    if (loadTag.equals(tag)) {
+                        load.invalidated = true;
+                        return true;
+                    }
+                }
+                return false;
+            });
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void linkLast(Node node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+        totalWeight += node.weight;
+    }
+
+    private void unlink(Node node) {
+        if (node.next == null) {
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        totalWeight -= node.weight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SmartCachePolicy getPolicy() {
+        return policy;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long weight() {
+        return totalWeight;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long staleHitCount() {
+        return staleHits.sum();
+    }
+
+    public boolean isOffHeapEnabled() {
+        return offHeap != null;
+    }
+
+    public long offHeapHitCount() {
+        return offHeapHits.sum();
+    }
+
+    public int offHeapSize() {
+        return offHeap != null ? offHeap.size() : 0;
+    }
+
+    public long offHeapBytes() {
+        return offHeap != null ? offHeap.usedBytes() : 0;
+    }
+
+    public long offHeapReservedBytes() {
+        return offHeap != null ? offHeap.reservedBytes() : 0;
+    }
+
+    public long offHeapRejectionCount() {
+        return offHeap != null ? offHeap.rejectionCount() : 0;
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public Collection<Object> keys() {
+        return data.keySet();
+    }
+
+    private static final class Load {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final String[] tags;
+        // Guarded by evictionLock
+        boolean invalidated;
+
+        Load(String[] tags) {
+            this.tags = tags;
+        }
+    }
+
+    private static final class Node {
+        final Object key;
+        final Object value;
+        final String[] tags;
+        final long weight;
+        final long loadedAtNanos;
+        // Guarded by evictionLock; next == null means unlinked
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value, String[] tags, long weight, long loadedAtNanos) {
+            this.key = key;
+            this.value = value;
+            this.tags = tags;
+            this.weight = weight;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demologin.cache;
+
+import org.springframework.data.domain.Page;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cheap weight estimate for weighted {@code @SmartCache} policies: the number
+ * of elements for collections, maps, arrays and pages, 1 for anything else.
+ */
+final class SmartCacheWeigher {
+
+    private SmartCacheWeigher() {
+    }
+
+    static long weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        if (value instanceof Page<?> page) {
+            return Math.max(1, page.getNumberOfElements());
+        }
+        if (value != null && value.getClass().isArray()) {
+            return Math.max(1, Array.getLength(value));
+        }
+        return 1;
+    }
+}
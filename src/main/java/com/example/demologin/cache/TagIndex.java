@@ -0,0 +1,51 @@
+package com.example.demologin.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from cache tag to the entries carrying it, shared by all
+ * {@link SmartCacheStore}s, so invalidating a tag touches only the affected
+ * entries. Stores keep it in sync as entries are added and removed.
+ */
+public class TagIndex {
+
+    record EntryRef(SmartCacheStore store, Object key) {}
+
+    private final Map<String, Set<EntryRef>> index = new ConcurrentHashMap<>();
+
+    void add(String[] tags, SmartCacheStore store, Object key) {
+        EntryRef ref = new EntryRef(store, key);
+        for (String tag : tags) {
+            index.compute(tag, (t, refs) -> {
+                Set<EntryRef> set = refs != null ? refs : ConcurrentHashMap.newKeySet();
+                set.add(ref);
+                return set;
+            });
+        }
+    }
+
+    void remove(String[] tags, SmartCacheStore store, Object key) {
+        EntryRef ref = new EntryRef(store, key);
+        for (String tag : tags) {
+            index.computeIfPresent(tag, (t, refs) -> {
+                refs.remove(ref);
+                return refs.isEmpty() ? null : refs;
+            });
+        }
+    }
+
+    /**
+     * Detach and return every entry carrying the tag.
+     */
+    Set<EntryRef> take(String tag) {
+        Set<EntryRef> refs = index.remove(tag);
+        return refs != null ? refs : Collections.emptySet();
+    }
+
+    public int tagCount() {
+        return index.size();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demologin.cache;
+
+import java.util.Collection;
+
+/**
+ * Compiled cache tag expression. {@code "roles"} is a literal tag;
+ * {@code "role:#0"} expands to {@code role:<arg0>}, one tag per element when
+ * the argument is a collection or array.
+ */
+public record TagTemplate(String prefix, int argIndex) {
+
+    public static TagTemplate[] compile(String[] expressions) {
+        TagTemplate[] templates = new TagTemplate[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            String expression = expressions[i];
+            int hash = expression.lastIndexOf('#');
+            if (hash < 0) {
+                templates[i] = new TagTemplate(expression, -1);
+            } else {
+                try {
+                    templates[i] = new TagTemplate(expression.substring(0, hash),
+                            Integer.parseInt(expression.substring(hash + 1)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid cache tag expression: " + expression, e);
+                }
+            }
+        }
+        return templates;
+    }
+
+    public static void resolve(TagTemplate[] templates, Object[] args, Collection<String> out) {
+        for (TagTemplate template : templates) {
+            template.resolve(args, out);
+        }
+    }
+
+    public void resolve(Object[] args, Collection<String> out) {
+        if (argIndex < 0) {
+            out.add(prefix);
+            return;
+        }
+        Object arg = args != null && argIndex < args.length ? args[argIndex] : null;
+        if (arg instanceof Collection<?> values) {
+            values.forEach(value -> out.add(prefix + value));
+        } else if (arg instanceof Object[] values) {
+            for (Object value : values) {
+                out.add(prefix + value);
+            }
+        } else {
+            out.add(prefix + arg);
+        }
+    }
+}
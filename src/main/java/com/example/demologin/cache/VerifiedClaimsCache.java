@@ -0,0 +1,154 @@
+package com.example.demologin.cache;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of JWT claims that already passed signature verification.
+ * Keyed by a SHA-256 digest of the raw token so raw tokens are never retained,
+ * and every entry expires at the token's own {@code exp}. Entries live in a
+ * striped access-order LRU, so a put at capacity drops only the least recently
+ * used entry of its stripe, under that stripe's lock.
+ */
+@Component
+public class VerifiedClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private static final int CACHE_STRIPES = 16;
+
+    private final LinkedHashMap<String, Entry>[] stripes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final int maxEntries;
+
+    public VerifiedClaimsCache(@Value("${jwt.claims-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.stripes = newStripes(Math.max(0, maxEntries));
+    }
+
+    /**
+     * Return verified claims for the token, or null if absent or past {@code exp}.
+     */
+    public Claims get(String token) {
+        if (maxEntries <= 0 || token == null) {
+            return null;
+        }
+        String key = digest(token);
+        LinkedHashMap<String, Entry> stripe = stripeFor(key);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+            if (entry != null && entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                stripe.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.claims();
+    }
+
+    /**
+     * Store claims that were just verified by the parser.
+     */
+    public void put(String token, Claims claims) {
+        if (maxEntries <= 0 || token == null || claims == null) {
+            return;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            // Tokens without exp are never cached: we could not bound their lifetime
+            return;
+        }
+        String key = digest(token);
+        LinkedHashMap<String, Entry> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, new Entry(claims, expiration.getTime()));
+        }
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            String key = digest(token);
+            LinkedHashMap<String, Entry> stripe = stripeFor(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        for (LinkedHashMap<String, Entry> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int count = 0;
+        for (LinkedHashMap<String, Entry> stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private LinkedHashMap<String, Entry> stripeFor(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % CACHE_STRIPES];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LinkedHashMap<String, Entry>[] newStripes(int maxEntries) {
+        int perStripe = (maxEntries + CACHE_STRIPES - 1) / CACHE_STRIPES;
+        LinkedHashMap<String, Entry>[] stripes = new LinkedHashMap[CACHE_STRIPES];
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > perStripe;
+                }
+            };
+        }
+        return stripes;
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA_256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private record Entry(Claims claims, long expiresAtMillis) {}
+}
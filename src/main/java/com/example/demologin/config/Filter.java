@@ -1,20 +1,22 @@
 package com.example.demologin.config;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Set;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.example.demologin.dto.response.ResponseObject;
-import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.InvalidTokenException;
 import com.example.demologin.exception.exceptions.UnauthorizedException;
+import com.example.demologin.security.AccessTokenRevocationStore;
+import com.example.demologin.security.AuthenticatedRequest;
+import com.example.demologin.security.PrincipalSnapshot;
+import com.example.demologin.service.RolePermissionService;
 import com.example.demologin.service.TokenService;
 import com.example.demologin.utils.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -31,7 +33,9 @@ public class Filter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final JwtUtil jwtUtil;
-    private final PublicEndpointHandlerMapping publicEndpointHandlerMapping;
+    private final PublicEndpointMatcher publicEndpointMatcher;
+    private final RolePermissionService rolePermissionService;
+    private final AccessTokenRevocationStore revocationStore;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -56,12 +60,13 @@ public class Filter extends OncePerRequestFilter {
                         // Try to extract user from token (even if expired)
                         String username = jwtUtil.extractUsernameFromExpiredToken(token);
                         if (username != null && !username.isBlank()) {
-                            User user = tokenService.getUserByToken(token);
-                            if (user != null) {
+                            PrincipalSnapshot principal = tokenService.getPrincipalByToken(token);
+                            if (principal != null) {
                                 UsernamePasswordAuthenticationToken authToken =
-                                        new UsernamePasswordAuthenticationToken(user, token, user.getAuthorities());
+                                        new UsernamePasswordAuthenticationToken(principal, token, principal.authorities());
                                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                                bindAuthenticatedRequest(request, token, principal);
                             }
                         }
                     } catch (Exception ignored) {
@@ -82,19 +87,28 @@ public class Filter extends OncePerRequestFilter {
                 throw new InvalidTokenException("Authentication token is invalid!");
             }
 
-            User user = tokenService.getUserByToken(token);
-            if (user == null) {
+            if (jwtUtil.isTokenRevoked(token)) {
+                revocationStore.recordRejected();
+                throw new InvalidTokenException("Authentication token has been revoked!");
+            }
+
+            PrincipalSnapshot principal = tokenService.getPrincipalByToken(token);
+            if (principal == null) {
                 throw new UnauthorizedException("User not found for the provided token!");
             }
+            if (!principal.canAuthenticate()) {
+                throw new UnauthorizedException("Account is disabled or locked!");
+            }
 
-            if (!jwtUtil.validateTokenWithJtiCheck(token, user)) {
+            if (!jwtUtil.validateTokenWithJtiCheck(token, principal.userId(), principal.tokenVersion())) {
                 throw new InvalidTokenException("Authentication token is invalid or revoked!");
             }
 
             UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(user, token, user.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, token, principal.authorities());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
+            bindAuthenticatedRequest(request, token, principal);
 
             filterChain.doFilter(request, response);
         } catch (Exception ex) {
@@ -105,42 +119,36 @@ public class Filter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Build the verified request context once so nothing downstream has to
+     * re-read the header, re-parse the token or resolve permissions again.
+     */
+    private void bindAuthenticatedRequest(HttpServletRequest request, String token, PrincipalSnapshot principal) {
+        Set<String> roles = jwtUtil.extractRoles(token);
+        Integer tokenVersion = jwtUtil.extractTokenVersion(token);
+        // Bitset claim when the token carries a current one, otherwise resolve from roles
+        Set<String> permissions = jwtUtil.extractPermissions(token);
+        if (permissions == null) {
+            permissions = rolePermissionService.getPermissionsForRoles(roles);
+        }
+        new AuthenticatedRequest(
+                token,
+                principal.userId(),
+                tokenVersion != null ? tokenVersion : principal.tokenVersion(),
+                jwtUtil.extractJti(token),
+                roles,
+                jwtUtil.extractExpiration(token).toInstant(),
+                permissions
+        ).bindTo(request);
+    }
+
     private boolean isLogoutEndpoint(HttpServletRequest request) {
         String uri = request.getRequestURI();
         return uri.contains("/session/logout") || uri.contains("/api/logout");
     }
 
     private boolean isPermitted(HttpServletRequest request) {
-        AntPathMatcher pathMatcher = new AntPathMatcher();
-        String uri = request.getRequestURI();
-
-        // Check public endpoints from annotations
-        List<String> annotatedPublicEndpoints = publicEndpointHandlerMapping.getPublicEndpoints();
-        boolean isAnnotatedPublic = annotatedPublicEndpoints.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, uri));
-
-        if (isAnnotatedPublic) {
-            return true;
-        }
-
-        // System public endpoints
-        List<String> systemPublicEndpoints = List.of(
-                "/swagger-ui/**",
-                "/v3/api-docs/**",
-                "/swagger-resources/**",
-                "/webjars/**",
-                "/login/oauth2/code/**",
-            "/oauth2/authorization/**",
-            // Mobile-initiated OAuth2 redirect helper
-            "/mobi/oauth2/authorization/**",
-            // Google Calendar OAuth2 endpoints (public - validate via state/JWT)
-            "/oauth2/google/calendar/callback",
-            "/oauth2/google/calendar/authorize/mobile",
-            "/debug/**"
-        );
-
-        return systemPublicEndpoints.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, uri));
+        return publicEndpointMatcher.isPublic(request.getRequestURI());
     }
 
     private String getToken(HttpServletRequest request) {
@@ -0,0 +1,212 @@
+package com.example.demologin.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Public-endpoint classifier used by {@link Filter}, compiled once at startup
+ * from the {@code @PublicEndpoint} scan plus {@link #SYSTEM_PUBLIC_ENDPOINTS}.
+ *
+ * Literal patterns are a hash lookup and {@code /prefix/**} patterns a
+ * {@code startsWith}, neither allocating. Remaining patterns are precompiled
+ * {@link PathPattern}s grouped by their literal prefix, so only the groups a
+ * URI can actually match are tried. Results are memoized per URI in a striped
+ * LRU bounded by {@code max-cached-paths}, so URIs carrying ids keep cycling
+ * through it instead of pinning whichever arrived first.
+ */
+@Component
+public class PublicEndpointMatcher {
+
+    /**
+     * System endpoints that cannot carry {@code @PublicEndpoint}.
+     */
+    public static final List<String> SYSTEM_PUBLIC_ENDPOINTS = List.of(
+            // Swagger/OpenAPI documentation
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/swagger-resources/**",
+            "/webjars/**",
+            // OAuth2 system endpoints (Spring Security tự động tạo)
+            "/login/oauth2/code/**",
+            "/oauth2/authorization/**",
+            // Mobile-initiated OAuth2 redirect helper
+            "/mobi/oauth2/authorization/**",
+            // Google Calendar OAuth2 endpoints (public - validate via state/JWT)
+            "/oauth2/google/calendar/callback",
+            "/oauth2/google/calendar/authorize/mobile",
+            "/debug/**"
+    );
+
+    private final Set<String> exactPaths = new HashSet<>();
+    private final String[] subtreePrefixes;
+    private final PatternGroup[] patternGroups;
+    private final List<String> antFallbackPatterns = new ArrayList<>();
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    private static final int CACHE_STRIPES = 16;
+
+    private final LinkedHashMap<String, Boolean>[] resultCache;
+
+    @Autowired
+    public PublicEndpointMatcher(PublicEndpointHandlerMapping publicEndpointHandlerMapping,
+                                 @Value("${security.public-endpoints.max-cached-paths:2048}") int maxCachedPaths) {
+        this(concat(publicEndpointHandlerMapping.getPublicEndpoints(), SYSTEM_PUBLIC_ENDPOINTS), maxCachedPaths);
+    }
+
+    public PublicEndpointMatcher(Collection<String> patterns, int maxCachedPaths) {
+        this.resultCache = newResultCache(Math.max(0, maxCachedPaths));
+
+        PathPatternParser parser = new PathPatternParser();
+        List<String> prefixes = new ArrayList<>();
+        Map<String, List<PathPattern>> grouped = new LinkedHashMap<>();
+
+        for (String pattern : patterns) {
+            if (isLiteral(pattern)) {
+                exactPaths.add(pattern);
+            } else if (pattern.endsWith("/**") && isLiteral(pattern.substring(0, pattern.length() - 3))) {
+                prefixes.add(pattern.substring(0, pattern.length() - 3));
+            } else {
+                try {
+                    grouped.computeIfAbsent(literalPrefix(pattern), k -> new ArrayList<>())
+                            .add(parser.parse(pattern));
+                } catch (PatternParseException e) {
+                    // Ant-only syntax (e.g. "**" mid-pattern) keeps the old matcher semantics
+                    antFallbackPatterns.add(pattern);
+                }
+            }
+        }
+
+        this.subtreePrefixes = prefixes.toArray(new String[0]);
+        this.patternGroups = grouped.entrySet().stream()
+                .map(e -> new PatternGroup(e.getKey(), e.getValue().toArray(new PathPattern[0])))
+                .toArray(PatternGroup[]::new);
+    }
+
+    public boolean isPublic(String uri) {
+        if (uri == null) {
+            return false;
+        }
+        LinkedHashMap<String, Boolean> stripe = resultCache[(uri.hashCode() & 0x7fffffff) % CACHE_STRIPES];
+        Boolean cached;
+        synchronized (stripe) {
+            cached = stripe.get(uri);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean result = classify(uri);
+        synchronized (stripe) {
+            stripe.put(uri, result);
+        }
+        return result;
+    }
+
+    int cachedPaths() {
+        int count = 0;
+        for (LinkedHashMap<String, Boolean> stripe : resultCache) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LinkedHashMap<String, Boolean>[] newResultCache(int maxCachedPaths) {
+        int perStripe = (maxCachedPaths + CACHE_STRIPES - 1) / CACHE_STRIPES;
+        LinkedHashMap<String, Boolean>[] stripes = new LinkedHashMap[CACHE_STRIPES];
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > perStripe;
+                }
+            };
+        }
+        return stripes;
+    }
+
+    private boolean classify(String uri) {
+        if (exactPaths.contains(uri)) {
+            return true;
+        }
+
+        for (String prefix : subtreePrefixes) {
+            if (uri.startsWith(prefix)
+                    && (uri.length() == prefix.length() || uri.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+
+        PathContainer path = null;
+        for (PatternGroup group : patternGroups) {
+            if (!uri.startsWith(group.literalPrefix())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(uri);
+            }
+            for (PathPattern pattern : group.patterns()) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+        }
+
+        for (String pattern : antFallbackPatterns) {
+            if (antPathMatcher.match(pattern, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Leading part of the pattern up to (and including) the last '/' before the first wildcard.
+     */
+    private static String literalPrefix(String pattern) {
+        int end = pattern.length();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                end = i;
+                break;
+            }
+        }
+        int slash = pattern.lastIndexOf('/', end - 1);
+        return slash < 0 ? "" : pattern.substring(0, slash + 1);
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private record PatternGroup(String literalPrefix, PathPattern[] patterns) {}
+}
@@ -0,0 +1,46 @@
+package com.example.demologin.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Schedulers for {@code @Scheduled} methods. {@code taskScheduler} is the
+ * default, configured by {@code spring.task.scheduling.*} as Boot's own would
+ * be; jobs whose cadence others rely on get a thread of their own, so they are
+ * never queued behind slower work.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Flush, poll and purge of {@link com.example.demologin.cache.JdbcInvalidationBus},
+     * whose intervals bound how stale other instances' caches can get.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler invalidationBusScheduler() {
+        return singleThread("invalidation-bus-");
+    }
+
+    /**
+     * Maintenance that may run for hours on a large table, such as activity
+     * log retention.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        return singleThread("maintenance-");
+    }
+
+    private static ThreadPoolTaskScheduler singleThread(String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
@@ -75,20 +75,7 @@ public class SecurityConfig {
                     
                     // Các endpoint hệ thống cần permit all (không thể dùng annotation)
                     auth.requestMatchers(
-                            // Swagger/OpenAPI documentation
-                            "/swagger-ui/**",
-                            "/v3/api-docs/**", 
-                            "/swagger-resources/**",
-                            "/webjars/**",
-                            // OAuth2 system endpoints (Spring Security tự động tạo)
-                            "/login/oauth2/code/**",
-                            "/oauth2/authorization/**",
-                            // Mobile-initiated OAuth2 redirect helper
-                            "/mobi/oauth2/authorization/**",
-                            // Google Calendar OAuth2 endpoints (public - validate via state/JWT)
-                            "/oauth2/google/calendar/callback",
-                            "/oauth2/google/calendar/authorize/mobile",
-                            "/debug/**"
+                            PublicEndpointMatcher.SYSTEM_PUBLIC_ENDPOINTS.toArray(new String[0])
                     ).permitAll();
                     
                     // Tất cả các API endpoints khác cần authentication
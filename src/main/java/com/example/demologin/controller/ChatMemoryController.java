@@ -3,9 +3,12 @@ package com.example.demologin.controller;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.ChatMemoryRequest;
 import com.example.demologin.dto.response.ChatMemoryResponse;
+import com.example.demologin.dto.response.CursorSlice;
+import com.example.demologin.dto.response.PageResponse;
 import com.example.demologin.service.ChatMemoryService;
 import com.example.demologin.utils.AccountUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -42,9 +45,15 @@ public class ChatMemoryController {
 
     @GetMapping
     @SecuredEndpoint("CHAT_MEMORY_READ")
-    @Operation(summary = "Get all memories", description = "Get all memories for the authenticated user")
-    public ResponseEntity<List<ChatMemoryResponse>> getAllMemories() {
+    @Operation(summary = "Get all memories",
+            description = "Get all memories for the authenticated user, or one page of them when a cursor is given")
+    public ResponseEntity<?> getAllMemories(
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
         Long userId = accountUtils.getCurrentUser().getUserId();
+        if (cursor != null) {
+            return ResponseEntity.ok(new PageResponse<>(chatMemoryService.getMemories(userId, cursor, size)));
+        }
         log.info("📖 Fetching all memories for user {}", userId);
         List<ChatMemoryResponse> memories = chatMemoryService.getAllMemories(userId);
         return ResponseEntity.ok(memories);
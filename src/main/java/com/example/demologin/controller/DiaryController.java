@@ -3,11 +3,14 @@ package com.example.demologin.controller;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.DiaryBulkSyncRequest;
 import com.example.demologin.dto.request.DiaryEntryRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.DiaryEntryResponse;
 import com.example.demologin.dto.response.DiarySummaryResponse;
+import com.example.demologin.dto.response.PageResponse;
 import com.example.demologin.service.DiaryEntryService;
 import com.example.demologin.utils.AccountUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -65,9 +68,15 @@ public class DiaryController {
 
     @GetMapping
     @SecuredEndpoint("DIARY_READ")
-    @Operation(summary = "Get all diary entries", description = "Get all diary entries for the authenticated user")
-    public ResponseEntity<List<DiaryEntryResponse>> getAllEntries() {
+    @Operation(summary = "Get all diary entries",
+            description = "Get all diary entries for the authenticated user, or one page of them when a cursor is given")
+    public ResponseEntity<?> getAllEntries(
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
         Long userId = accountUtils.getCurrentUser().getUserId();
+        if (cursor != null) {
+            return ResponseEntity.ok(new PageResponse<>(diaryEntryService.getEntries(userId, cursor, size)));
+        }
         log.info("📖 Fetching all diary entries for user {}", userId);
         List<DiaryEntryResponse> entries = diaryEntryService.getAllEntries(userId);
         return ResponseEntity.ok(entries);
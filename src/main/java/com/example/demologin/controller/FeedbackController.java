@@ -5,11 +5,13 @@ import com.example.demologin.annotation.AuthenticatedEndpoint;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.FeedbackRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.FeedbackResponse;
 import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.service.FeedbackService;
 import com.example.demologin.utils.AccountUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -57,7 +59,11 @@ public class FeedbackController {
     @Operation(summary = "Get all feedback", description = "Get all feedback from all users (admin dashboard)")
     public Object getAllFeedback(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return feedbackService.getAllFeedback(cursor, size);
+        }
         return feedbackService.getAllFeedback(PageRequest.of(page, size));
     }
 }
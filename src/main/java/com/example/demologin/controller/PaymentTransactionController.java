@@ -15,6 +15,7 @@ import com.example.demologin.annotation.ApiResponse;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.PaymentTransactionQueryRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.service.TransactionService;
 import com.example.demologin.annotation.PageResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -76,7 +77,8 @@ public class PaymentTransactionController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortDir) {
+            @RequestParam(required = false) String sortDir,
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor) {
 
         PaymentTransactionQueryRequest request = new PaymentTransactionQueryRequest();
         if (id != null && !id.isEmpty()) {
@@ -92,6 +94,9 @@ public class PaymentTransactionController {
         request.setSortBy(sortBy);
         request.setSortDir(sortDir);
 
+        if (cursor != null) {
+            return transactionService.searchTransactions(request, cursor, size);
+        }
         return transactionService.searchTransactions(request, page, size);
     }
 
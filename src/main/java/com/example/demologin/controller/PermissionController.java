@@ -2,6 +2,7 @@ package com.example.demologin.controller;
 
 import com.example.demologin.annotation.ApiResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
+import com.example.demologin.annotation.SmartCache;
 import com.example.demologin.dto.request.PermissionRequest;
 import com.example.demologin.service.PermissionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 
     @SecuredEndpoint("PERMISSION_VIEW")
     @GetMapping
+    @SmartCache(tags = "permissions")
     @ApiResponse(message = "Permissions retrieved successfully")
     @Operation(summary = "Get all permissions", 
                description = "Retrieve all system permissions")
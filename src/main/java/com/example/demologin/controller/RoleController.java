@@ -25,7 +25,7 @@ import org.springframework.web.bind.annotation.*;
 
     @SecuredEndpoint("ROLE_VIEW")
     @GetMapping
-    @SmartCache
+    @SmartCache(tags = "roles")
     @ApiResponse(message = "Roles retrieved successfully")
     @Operation(summary = "Get all roles", 
                description = "Retrieve all roles in the system")
@@ -80,7 +80,7 @@ import org.springframework.web.bind.annotation.*;
 
     @SecuredEndpoint("ROLE_VIEW")
     @GetMapping("/{id}")
-    @SmartCache
+    @SmartCache(tags = "role:#0")
     @ApiResponse(message = "Role retrieved successfully")
     @Operation(summary = "Get role by ID",
             description = "Retrieve a role by its ID")
@@ -1,15 +1,22 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.activity.ActivityLogExporter;
 import com.example.demologin.annotation.ApiResponse;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.service.UserActivityLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.time.LocalDate;
@@ -30,8 +37,12 @@ import java.time.LocalDateTime;
     @Operation(summary = "Get all user activity logs", description = "Retrieve paginated list of all user activity logs")
     public Object getAllActivityLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor) {
+
+        if (cursor != null) {
+            return userActivityLogService.getAllActivityLogs(cursor, size);
+        }
         return userActivityLogService.getAllActivityLogs(page, size);
     }
 
@@ -53,8 +64,12 @@ import java.time.LocalDateTime;
     public Object getActivityLogsByUserId(
             @Parameter(description = "User ID") @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor) {
+
+        if (cursor != null) {
+            return userActivityLogService.getActivityLogsByUserId(userId, cursor, size);
+        }
         return userActivityLogService.getActivityLogsByUserId(userId, page, size);
     }
 
@@ -91,7 +106,7 @@ import java.time.LocalDateTime;
     @PageResponse
     @ApiResponse(message = "Activity logs exported successfully")
     @SecuredEndpoint("ADMIN_ACTIVITY_LOG_EXPORT")
-    @Operation(summary = "Export activity logs", description = "Export activity logs within date range with pagination")
+    @Operation(summary = "Export activity logs", description = "Export activity logs matching the filters with pagination")
     public Object exportActivityLogs(
             @Valid @RequestBody UserActivityLogExportRequest request,
             @RequestParam(defaultValue = "0") int page,
@@ -100,6 +115,36 @@ import java.time.LocalDateTime;
         return userActivityLogService.exportActivityLogs(request, page, size);
     }
 
+    @PostMapping("/export/stream")
+    @SecuredEndpoint("ADMIN_ACTIVITY_LOG_EXPORT")
+    @Operation(summary = "Download activity log export",
+            description = "Stream every activity log matching the filters as a CSV or NDJSON file, optionally gzip-compressed")
+    public ResponseEntity<StreamingResponseBody> streamActivityLogExport(
+            @Valid @RequestBody UserActivityLogExportRequest request,
+            @Parameter(description = "CSV or NDJSON") @RequestParam(defaultValue = "CSV") ActivityLogExporter.Format format,
+            @Parameter(description = "Compress the file with gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+
+        StreamingResponseBody body = userActivityLogService.streamActivityLogExport(request, format, gzip);
+        String filename = "activity-logs-" + request.getStartDate() + "_" + request.getEndDate() + "."
+                + format.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    @ApiResponse(message = "Activity statistics retrieved successfully")
+    @SecuredEndpoint("LOG_VIEW_ACTIVITY")
+    @Operation(summary = "Get activity statistics",
+            description = "Activity counts by type, status, country and device type, with an hourly (daily for older periods) timeline. Defaults to the last 7 days")
+    public Object getActivityStats(
+            @Parameter(description = "Start date (YYYY-MM-DD)") @RequestParam(required = false) LocalDate startDate,
+            @Parameter(description = "End date (YYYY-MM-DD), inclusive") @RequestParam(required = false) LocalDate endDate) {
+
+        return userActivityLogService.getActivityStats(startDate, endDate);
+    }
+
     @GetMapping("/my-login-history")
     @PageResponse
     @ApiResponse(message = "Login history retrieved successfully")
@@ -13,6 +13,7 @@ import com.example.demologin.annotation.AuthenticatedEndpoint;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.PackageRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.QuotaResponse;
 import com.example.demologin.dto.response.UserResponse;
 import com.example.demologin.entity.User;
@@ -20,6 +21,7 @@ import com.example.demologin.service.UserService;
 import com.example.demologin.utils.AccountUtils;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 
@@ -41,7 +43,11 @@ public class UserController {
             description = "Retrieve paginated list of all users in the system (admin only)")
     public Object getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = CursorSlice.CURSOR_PARAM_DOC) @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return userService.getAllUsers(cursor, size);
+        }
         return userService.getAllUsers(page, size);
     }
 
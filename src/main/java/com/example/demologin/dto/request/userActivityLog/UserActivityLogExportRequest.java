@@ -1,5 +1,6 @@
 package com.example.demologin.dto.request.userActivityLog;
 
+import com.example.demologin.enums.ActivityType;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -19,4 +20,9 @@ public class UserActivityLogExportRequest {
     
     @NotNull(message = "End date is required")
     private LocalDate endDate;
+
+    // Optional filters
+    private Long userId;
+    private ActivityType activityType;
+    private String status;
 }
@@ -0,0 +1,22 @@
+package com.example.demologin.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityStatsResponse {
+    private LocalDateTime since;
+    private LocalDateTime until;
+    private long total;
+    private Map<String, Long> byActivityType;
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byCountryCode;
+    private Map<String, Long> byDeviceType;
+    // Bucket start (hour, or day once compacted) to count
+    private Map<LocalDateTime, Long> timeline;
+}
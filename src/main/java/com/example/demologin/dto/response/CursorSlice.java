@@ -0,0 +1,67 @@
+package com.example.demologin.dto.response;
+
+import com.example.demologin.utils.KeysetCursor;
+import lombok.Getter;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Unlike a {@link org.springframework.data.domain.Page}
+ * it carries no totals, so no COUNT query is run; {@code nextCursor} is null on
+ * the last page. Endpoints annotated with {@code @PageResponse} render it as a
+ * {@link PageResponse}.
+ */
+@Getter
+public class CursorSlice<T> {
+
+    // API docs for the {@code cursor} request parameter of endpoints that support keyset pagination
+    public static final String CURSOR_PARAM_DOC = "Keyset pagination: send an empty cursor for the first page, "
+            + "then the previous page's nextCursor. Pages carry no totals and deep pages cost the same as the "
+            + "first. Omit for the default pagination.";
+
+    // Largest page served; larger sizes are clamped, as Spring Data's pageable max-page-size does
+    public static final int MAX_SIZE = 1000;
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+
+    /**
+     * Row limit for a page of {@code size}: one extra row tells whether another page follows.
+     */
+    public static Limit limitFor(int size) {
+        return Limit.of(pageSize(size) + 1);
+    }
+
+    /**
+     * {@code size} clamped to 1..{@link #MAX_SIZE}.
+     */
+    public static int pageSize(int size) {
+        return Math.min(Math.max(1, size), MAX_SIZE);
+    }
+
+    /**
+     * Build a page from rows fetched with {@link #limitFor}, mapping each row
+     * and taking the cursor from the last row kept.
+     */
+    public static <E, T> CursorSlice<T> of(List<E> rows, int size, Function<E, KeysetCursor> cursorOf,
+                                           Function<E, T> mapper) {
+        int pageSize = pageSize(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<E> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(pageSize - 1)).encode() : null;
+        return new CursorSlice<>(page.stream().map(mapper).toList(), pageSize, nextCursor);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demologin.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import org.springframework.data.domain.Page;
@@ -10,26 +11,33 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageResponse<T> {
 
     @JsonProperty("content")
     private List<T> content;
 
+    // Offset pages only
     @JsonProperty("pageNumber")
-    private int pageNumber;
+    private Integer pageNumber;
 
     @JsonProperty("pageSize")
     private int pageSize;
 
+    // Offset pages only; keyset pages skip the COUNT query
     @JsonProperty("totalElements")
-    private long totalElements;
+    private Long totalElements;
 
     @JsonProperty("totalPages")
-    private int totalPages;
+    private Integer totalPages;
 
     @JsonProperty("last")
     private boolean last;
 
+    // Keyset pages only: pass back as ?cursor= for the next page; absent on the last page
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
     /**
      * Constructor to create PageResponse from Spring's Page object
      */
@@ -41,5 +49,14 @@ public class PageResponse<T> {
         this.totalPages = page.getTotalPages();
         this.last = page.isLast();
     }
-}
 
+    /**
+     * Constructor to create PageResponse from a keyset page
+     */
+    public PageResponse(CursorSlice<T> slice) {
+        this.content = slice.getContent();
+        this.pageSize = slice.getSize();
+        this.last = slice.isLast();
+        this.nextCursor = slice.getNextCursor();
+    }
+}
@@ -4,12 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.util.Set;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class RoleResponse {
+public class RoleResponse implements Serializable {
     private Long id;
     private String name;
     private Set<PermissionResponse> permissions;
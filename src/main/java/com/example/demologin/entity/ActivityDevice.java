@@ -0,0 +1,43 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A distinct User-Agent and what it was parsed into, referenced from
+ * {@link UserActivityLog#getDeviceId()}. Kept by
+ * {@link com.example.demologin.activity.ActivityDimensions}; rows are written
+ * and read with plain JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "activity_devices",
+        uniqueConstraints = @UniqueConstraint(name = "uk_activity_devices_hash", columnNames = "hash"))
+@Getter @Setter @NoArgsConstructor
+public class ActivityDevice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // First 64 bits of SHA-256 over the other columns
+    @Column(nullable = false)
+    private Long hash;
+
+    @Column(length = 1000)
+    private String userAgent;
+
+    @Column(length = 100)
+    private String browser;
+
+    @Column(length = 50)
+    private String browserVersion;
+
+    @Column(length = 100)
+    private String operatingSystem;
+
+    @Column(length = 100)
+    private String device;
+
+    @Column(length = 20)
+    private String deviceType;
+}
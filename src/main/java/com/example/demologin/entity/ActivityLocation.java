@@ -0,0 +1,37 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A distinct resolved location, referenced from
+ * {@link UserActivityLog#getLocationId()}. Kept by
+ * {@link com.example.demologin.activity.ActivityDimensions}; rows are written
+ * and read with plain JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "activity_locations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_activity_locations_hash", columnNames = "hash"))
+@Getter @Setter @NoArgsConstructor
+public class ActivityLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // First 64 bits of SHA-256 over the other columns
+    @Column(nullable = false)
+    private Long hash;
+
+    @Column(length = 100)
+    private String city;
+
+    @Column(length = 100)
+    private String region;
+
+    @Column(length = 100)
+    private String country;
+
+    @Column(length = 10)
+    private String countryCode;
+}
@@ -0,0 +1,46 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Activity counts per hour (recent) or day (compacted) and dimension, kept by
+ * {@link com.example.demologin.activity.ActivityStatsRollup}. Rows are written
+ * and read with plain JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "activity_stats_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_activity_stats_rollups_bucket", columnNames = {
+                "granularity", "bucketStart", "activityType", "status", "countryCode", "deviceType"}),
+        indexes = @Index(name = "idx_activity_stats_rollups_start", columnList = "bucketStart"))
+@Getter @Setter @NoArgsConstructor
+public class ActivityStatsBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // HOUR or DAY
+    @Column(nullable = false, length = 8)
+    private String granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = 50)
+    private String activityType;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false, length = 10)
+    private String countryCode;
+
+    @Column(nullable = false, length = 20)
+    private String deviceType;
+
+    @Column(name = "activity_count", nullable = false)
+    private long count;
+}
@@ -0,0 +1,37 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only log behind {@link com.example.demologin.cache.JdbcInvalidationBus}.
+ * Rows are written and read with plain JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created_at", columnList = "createdAt")
+})
+@Getter @Setter @NoArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(nullable = false, length = 32)
+    private String eventType;
+
+    @Column(nullable = false, length = 255)
+    private String eventKey;
+
+    @Column(nullable = false)
+    private long expiresAtMillis;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
  * Records the details of a payment transaction initiated via PayOS.
  */
 @Entity
-@Table(name = "payment_transactions")
+@Table(name = "payment_transactions", indexes = {
+        @Index(name = "idx_payment_transactions_created_id", columnList = "createdAt, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
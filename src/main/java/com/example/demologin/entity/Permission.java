@@ -1,8 +1,10 @@
 package com.example.demologin.entity;
 
+import com.example.demologin.annotation.CacheTags;
 import jakarta.persistence.*;
 
 @Entity
+@CacheTags({"permissions", "roles", "role-permissions"})
 public class Permission {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -1,5 +1,6 @@
 package com.example.demologin.entity;
 
+import com.example.demologin.annotation.CacheTags;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,6 +13,7 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
+@CacheTags({"roles", "role:#id", "role-permissions"})
 public class Role {
 
     @Id
@@ -12,6 +12,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.example.demologin.annotation.CacheTags;
 import com.example.demologin.enums.Gender;
 import com.example.demologin.enums.UserStatus;
 
@@ -29,6 +30,7 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 
 @Entity
+@CacheTags({"users", "user:#id"})
 @Table(name = "users")
 public class User implements UserDetails {
     @Id
@@ -6,7 +6,15 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_activity_logs")
+@Table(name = "user_activity_logs", indexes = {
+        @Index(name = "idx_user_activity_logs_fingerprint", columnList = "fingerprint"),
+        // Keyset pagination seeks on (timestamp, id), overall and per user
+        @Index(name = "idx_user_activity_logs_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_user_activity_logs_user_timestamp_id", columnList = "userId, timestamp, id"),
+        // The by-type and by-status finders filter on one column and sort newest first
+        @Index(name = "idx_user_activity_logs_type_timestamp_id", columnList = "activityType, timestamp, id"),
+        @Index(name = "idx_user_activity_logs_status_timestamp_id", columnList = "status, timestamp, id")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class UserActivityLog {
 
@@ -38,36 +46,43 @@ public class UserActivityLog {
     @Column(length = 45)
     private String ipAddress;
 
-    @Column(length = 1000)
+    // Hash of (userId, activityType, ipAddress, userAgent); repeats of an activity update the row it identifies
+    private Long fingerprint;
+
+    // Device (User-Agent and what it parses to) and location, as ids into ActivityDimensions' dictionaries
+    private Integer deviceId;
+
+    private Integer locationId;
+
+    // Values behind deviceId and locationId: set when logging, filled in by ActivityDimensions.resolve when read
+    @Transient
     private String userAgent;
 
-    // Device and browser information
-    @Column(length = 100)
+    @Transient
     private String browser;
 
-    @Column(length = 50)
+    @Transient
     private String browserVersion;
 
-    @Column(length = 100)
+    @Transient
     private String operatingSystem;
 
-    @Column(length = 100)
+    @Transient
     private String device;
 
-    @Column(length = 20)
+    @Transient
     private String deviceType;
 
-    // Location information
-    @Column(length = 100)
+    @Transient
     private String city;
 
-    @Column(length = 100)
+    @Transient
     private String region;
 
-    @Column(length = 100)
+    @Transient
     private String country;
 
-    @Column(length = 10)
+    @Transient
     private String countryCode;
 
     // Add pre-persist method to ensure required fields are set
@@ -1,11 +1,13 @@
 package com.example.demologin.mapper;
 
+import com.example.demologin.activity.ActivityDimensions;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.repository.UserRepository;
 import com.example.demologin.utils.LocationUtil;
 import com.example.demologin.utils.UserAgentUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,8 +18,12 @@ import java.util.stream.Collectors;
 public class UserActivityLogMapper {
 
     private final UserRepository userRepository;
+    private final ActivityDimensions activityDimensions;
 
     public UserActivityLogResponse toResponse(UserActivityLog log) {
+        // Device and location are stored as dictionary ids
+        activityDimensions.resolve(log);
+
         UserActivityLogResponse response = new UserActivityLogResponse();
         response.setId(log.getId());
         response.setActivityType(log.getActivityType());
@@ -76,8 +82,14 @@ public class UserActivityLogMapper {
     }
 
     public List<UserActivityLogResponse> toResponseList(List<UserActivityLog> logs) {
+        activityDimensions.preload(logs);
         return logs.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
+
+    public Page<UserActivityLogResponse> toResponsePage(Page<UserActivityLog> logs) {
+        activityDimensions.preload(logs.getContent());
+        return logs.map(this::toResponse);
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.demologin.repository;
 
 import com.example.demologin.entity.ChatMemory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,21 @@ public interface ChatMemoryRepository extends JpaRepository<ChatMemory, Long> {
      */
     List<ChatMemory> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    /**
+     * Keyset page of a user's memories, most recent first
+     */
+    @Query("SELECT m FROM ChatMemory m WHERE m.userId = :userId ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMemory> findKeysetFirst(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Keyset page of a user's memories after the (createdAt, id) of the last memory returned
+     */
+    @Query("SELECT m FROM ChatMemory m WHERE m.userId = :userId AND " +
+           "(m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMemory> findKeysetAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+                                     @Param("id") Long id, Limit limit);
+
     /**
      * Find all memories for a user with pagination
      */
@@ -1,6 +1,7 @@
 package com.example.demologin.repository;
 
 import com.example.demologin.entity.DiaryEntry;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -20,6 +21,21 @@ public interface DiaryEntryRepository extends JpaRepository<DiaryEntry, Long> {
      */
     List<DiaryEntry> findByUserIdOrderByTimestampDesc(Long userId);
 
+    /**
+     * Keyset page of a user's entries, newest first
+     */
+    @Query("SELECT d FROM DiaryEntry d WHERE d.userId = :userId ORDER BY d.timestamp DESC, d.id DESC")
+    List<DiaryEntry> findKeysetFirst(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Keyset page of a user's entries after the (timestamp, id) of the last entry returned
+     */
+    @Query("SELECT d FROM DiaryEntry d WHERE d.userId = :userId AND " +
+           "(d.timestamp < :timestamp OR (d.timestamp = :timestamp AND d.id < :id)) " +
+           "ORDER BY d.timestamp DESC, d.id DESC")
+    List<DiaryEntry> findKeysetAfter(@Param("userId") Long userId, @Param("timestamp") Instant timestamp,
+                                     @Param("id") Long id, Limit limit);
+
     /**
      * Find entries for a user with pagination
      */
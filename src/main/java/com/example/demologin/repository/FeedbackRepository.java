@@ -1,15 +1,27 @@
 package com.example.demologin.repository;
 
 import com.example.demologin.entity.Feedback;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     List<Feedback> findByUserIdOrderByCreatedAtDesc(Long userId);
     Page<Feedback> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    // Keyset pages, newest first
+    @Query("SELECT f FROM Feedback f ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findKeysetFirst(Limit limit);
+
+    @Query("SELECT f FROM Feedback f WHERE f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findKeysetAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
 }
@@ -3,6 +3,7 @@ package com.example.demologin.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -40,6 +41,46 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
                                              @Param("end") LocalDateTime end,
                                              Pageable pageable);
 
+    // keyset variants of findWithFilters ordered by (createdAt, id); a null
+    // afterId starts from the first row
+    @Query("SELECT p FROM PaymentTransaction p WHERE " +
+            "(:id IS NULL OR p.id = :id) AND " +
+            "(:userId IS NULL OR p.userId = :userId) AND " +
+            "(:txnRef IS NULL OR p.txnRef = :txnRef) AND " +
+            "(:status IS NULL OR p.status = :status) AND " +
+            "(:start IS NULL OR p.vnpPayDate >= :start) AND " +
+            "(:end IS NULL OR p.vnpPayDate <= :end) AND " +
+            "(:afterId IS NULL OR p.createdAt < :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id < :afterId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentTransaction> findKeysetWithFiltersDesc(@Param("userId") Long userId,
+                                                @Param("txnRef") String txnRef,
+                                                @Param("status") String status,
+                                                @Param("id") Long id,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+
+    @Query("SELECT p FROM PaymentTransaction p WHERE " +
+            "(:id IS NULL OR p.id = :id) AND " +
+            "(:userId IS NULL OR p.userId = :userId) AND " +
+            "(:txnRef IS NULL OR p.txnRef = :txnRef) AND " +
+            "(:status IS NULL OR p.status = :status) AND " +
+            "(:start IS NULL OR p.vnpPayDate >= :start) AND " +
+            "(:end IS NULL OR p.vnpPayDate <= :end) AND " +
+            "(:afterId IS NULL OR p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId)) " +
+            "ORDER BY p.createdAt ASC, p.id ASC")
+    List<PaymentTransaction> findKeysetWithFiltersAsc(@Param("userId") Long userId,
+                                                @Param("txnRef") String txnRef,
+                                                @Param("status") String status,
+                                                @Param("id") Long id,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end,
+                                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                @Param("afterId") Long afterId,
+                                                Limit limit);
+
     List<PaymentTransaction> findByUserId(Long userId);
 
     PaymentTransaction findFirstByUserIdOrderByCreatedAtDesc(Long userId);
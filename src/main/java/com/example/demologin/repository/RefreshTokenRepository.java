@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -31,4 +32,11 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     int deleteByJti(@Param("jti") String jti);
 
     boolean existsByJti(String jti);
+
+    // Lightweight projection used to warm the in-memory JTI registry
+    @Query("SELECT rt.jti, rt.user.userId, rt.expiryDate FROM RefreshToken rt")
+    List<Object[]> findJtiAndUserAndExpiry();
+
+    @Query("SELECT rt.user.userId, rt.expiryDate FROM RefreshToken rt WHERE rt.jti = :jti")
+    List<Object[]> findUserAndExpiryByJti(@Param("jti") String jti);
 }
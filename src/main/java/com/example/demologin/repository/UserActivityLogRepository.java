@@ -2,6 +2,7 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.enums.ActivityType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -47,18 +48,29 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
                                          @Param("endTime") LocalDateTime endTime,
                                          Pageable pageable);
     
-    // Get activity stats
-    @Query("SELECT u.activityType, COUNT(u) FROM UserActivityLog u WHERE u.timestamp >= :startTime GROUP BY u.activityType")
-    List<Object[]> getActivityStatsSince(@Param("startTime") LocalDateTime startTime);
-    
-    // Get user activity count
+    // Get user activity count (activity stats come from ActivityStatsRollup, which has no per-user dimension)
     @Query("SELECT COUNT(u) FROM UserActivityLog u WHERE u.userId = :userId AND u.timestamp >= :startTime")
     Long countUserActivitySince(@Param("userId") Long userId, @Param("startTime") LocalDateTime startTime);
     
-    // Find existing log to update instead of creating duplicate
-    UserActivityLog findTopByUserIdAndActivityTypeAndIpAddressAndUserAgentOrderByTimestampDesc(
-        Long userId, ActivityType activityType, String ipAddress, String userAgent);
-    
+    // Keyset pages, newest first: the rows after the (timestamp, id) of the last row already returned
+    @Query("SELECT u FROM UserActivityLog u ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findKeysetFirst(Limit limit);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findKeysetAfter(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.userId = :userId ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findKeysetFirstByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT u FROM UserActivityLog u WHERE u.userId = :userId AND " +
+           "(u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findKeysetAfterByUserId(@Param("userId") Long userId,
+                                                  @Param("timestamp") LocalDateTime timestamp,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
+
     // Find login history for a specific user
     Page<UserActivityLog> findByUserIdAndActivityTypeOrderByTimestampDesc(
         Long userId, ActivityType activityType, Pageable pageable);
@@ -2,10 +2,12 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.User;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 
@@ -19,5 +21,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<User> findByRoles_Name(String roleName, Pageable pageable);
 
+    // Keyset pages in id order
+    List<User> findByOrderByUserIdAsc(Limit limit);
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(Long userId, Limit limit);
+
     boolean existsByRoles_Id(Long id);
 }
@@ -0,0 +1,103 @@
+package com.example.demologin.security;
+
+import com.example.demologin.cache.InvalidationBus;
+import com.example.demologin.cache.InvalidationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Revoked access tokens (by JTI) that are still within their {@code exp}.
+ * Lookups are a single hash probe; an expiry-ordered queue lets the purge drop
+ * entries as soon as their token would have expired anyway, without scanning
+ * the map. Memory is bounded by the number of revoked tokens that are still live.
+ *
+ * Revocations reach other instances only through the
+ * {@link InvalidationBus}; run several instances
+ * with {@code cache.invalidation-bus.enabled}.
+ */
+@Component
+@Slf4j
+public class AccessTokenRevocationStore {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Revocation> expiryQueue =
+            new PriorityBlockingQueue<>(64, Comparator.comparingLong(Revocation::expiresAtMillis));
+    private final Counter rejectedRequests;
+    private final InvalidationBus invalidationBus;
+
+    public AccessTokenRevocationStore(MeterRegistry meterRegistry, InvalidationBus invalidationBus) {
+        Gauge.builder("security.revocation.store.size", revoked, Map::size)
+                .register(meterRegistry);
+        this.rejectedRequests = Counter.builder("security.revocation.rejected.requests")
+                .register(meterRegistry);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationEvent.Type.ACCESS_TOKEN_REVOKED,
+                event -> revokeLocally(event.key(), event.expiresAtMillis()));
+    }
+
+    /**
+     * Reject the token here right away and on other instances once the
+     * surrounding transaction (if any) commits.
+     */
+    public void revoke(String jti, long expiresAtMillis) {
+        if (revokeLocally(jti, expiresAtMillis)) {
+            invalidationBus.publishAfterCommit(InvalidationEvent.accessTokenRevoked(jti, expiresAtMillis));
+        }
+    }
+
+    private boolean revokeLocally(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return false;
+        }
+        revoked.merge(jti, expiresAtMillis, Math::max);
+        expiryQueue.add(new Revocation(jti, expiresAtMillis));
+        return true;
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Count a request the filter rejected because its token was revoked.
+     */
+    public void recordRejected() {
+        rejectedRequests.increment();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.purge-interval-ms:30000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        Revocation head;
+        while ((head = expiryQueue.peek()) != null && head.expiresAtMillis() <= now) {
+            expiryQueue.poll();
+            // A later revoke of the same JTI may have extended its expiry
+            if (revoked.remove(head.jti(), head.expiresAtMillis())) {
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.debug("Purged {} expired revocation(s), {} still live", purged, revoked.size());
+        }
+    }
+
+    private record Revocation(String jti, long expiresAtMillis) {}
+}
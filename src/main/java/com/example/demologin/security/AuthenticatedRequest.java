@@ -0,0 +1,61 @@
+package com.example.demologin.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable view of a request whose bearer token has been verified by
+ * {@link com.example.demologin.config.Filter}. Built once per request and stored
+ * as a request attribute, so aspects and services never re-read the
+ * Authorization header or re-parse the token.
+ */
+public record AuthenticatedRequest(
+        String token,
+        Long userId,
+        int tokenVersion,
+        String jti,
+        Set<String> roles,
+        Instant expiresAt,
+        Set<String> permissions) {
+
+    public static final String ATTRIBUTE = AuthenticatedRequest.class.getName();
+
+    public AuthenticatedRequest {
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+        // A token bitset is already immutable and answers contains() with a bit test
+        permissions = permissions == null ? Set.of()
+                : permissions instanceof PermissionBitset ? permissions : Set.copyOf(permissions);
+    }
+
+    public void bindTo(HttpServletRequest request) {
+        request.setAttribute(ATTRIBUTE, this);
+    }
+
+    public boolean hasPermission(String permission) {
+        return permissions.contains(permission);
+    }
+
+    /**
+     * The verified context of the current request, if the filter produced one.
+     */
+    public static Optional<AuthenticatedRequest> current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        Object value = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return value instanceof AuthenticatedRequest auth ? Optional.of(auth) : Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        // Never print the raw token
+        return "AuthenticatedRequest[userId=" + userId + ", tokenVersion=" + tokenVersion
+                + ", jti=" + jti + ", roles=" + roles + ", expiresAt=" + expiresAt + "]";
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demologin.security;
+
+import com.example.demologin.cache.InvalidationBus;
+import com.example.demologin.cache.InvalidationEvent;
+import com.example.demologin.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process registry of refresh-token JTIs, so the per-request JTI check in
+ * {@link com.example.demologin.utils.JwtUtil} does not hit the database.
+ * Warmed from {@link RefreshTokenRepository} at startup and kept in sync by the
+ * refresh-token write paths. A JTI the registry does not know is looked up in
+ * the database (it may have been issued by another instance); a database hit
+ * is then remembered. A remembered JTI is trusted for {@code recheck-after-ms},
+ * then looked up again, so a token revoked on another instance stops working
+ * within that time even without the bus; one past its expiry is never active.
+ *
+ * JTIs are never reused, so one found missing (revoked, logged out, expired or
+ * never issued) stays missing. Up to {@code negative-cache-size} of them are
+ * remembered, least recently seen dropped first, so a client retrying a dead
+ * token costs one database lookup rather than one per request.
+ *
+ * Removals reach other instances at once only through the
+ * {@link InvalidationBus}; run several instances with
+ * {@code cache.invalidation-bus.enabled}.
+ */
+@Component
+@Slf4j
+public class JtiRegistry {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> missing;
+    private final long recheckAfterNanos;
+    private final InvalidationBus invalidationBus;
+
+    public JtiRegistry(RefreshTokenRepository refreshTokenRepository,
+                       @Value("${security.jti-registry.negative-cache-size:10000}") int negativeCacheSize,
+                       @Value("${security.jti-registry.recheck-after-ms:5000}") long recheckAfterMillis,
+                       InvalidationBus invalidationBus) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.recheckAfterNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, recheckAfterMillis));
+        int maxMissing = Math.max(0, negativeCacheSize);
+        this.missing = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxMissing;
+            }
+        };
+        this.invalidationBus = invalidationBus;
+        // Registration needs no broadcast (a peer's miss falls back to the database), removal does
+        invalidationBus.subscribe(InvalidationEvent.Type.REFRESH_TOKEN_REMOVED, event -> removeLocally(event.key()));
+        invalidationBus.subscribe(InvalidationEvent.Type.REFRESH_TOKENS_OF_USER, event -> removeUserLocally(event.userId()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Object[]> rows = refreshTokenRepository.findJtiAndUserAndExpiry();
+        for (Object[] row : rows) {
+            putLocal((String) row[0], (Long) row[1], (LocalDateTime) row[2]);
+        }
+        log.info("JTI registry warmed with {} refresh token(s)", rows.size());
+    }
+
+    /**
+     * Whether the JTI belongs to a refresh token that still exists and has not expired.
+     */
+    public boolean isActive(String jti) {
+        Entry entry = entries.get(jti);
+        if (entry != null) {
+            if (entry.isExpired(LocalDateTime.now())) {
+                removeLocally(jti);
+                return false;
+            }
+            if (System.nanoTime() - entry.checkedAtNanos() < recheckAfterNanos) {
+                return true;
+            }
+            // Stale: the token may have been removed on another node
+        } else {
+            synchronized (missing) {
+                if (missing.get(jti) != null) {
+                    return false;
+                }
+            }
+            // Local miss: the token may have been issued on another node
+        }
+
+        List<Object[]> rows = refreshTokenRepository.findUserAndExpiryByJti(jti);
+        if (rows.isEmpty()) {
+            removeLocally(jti);
+            return false;
+        }
+        Object[] row = rows.get(0);
+        Entry found = putLocal(jti, (Long) row[0], (LocalDateTime) row[1]);
+        if (found.isExpired(LocalDateTime.now())) {
+            removeLocally(jti);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record a freshly issued refresh token. Inside a transaction the JTI only
+     * becomes visible once the row is committed.
+     */
+    public void register(String jti, Long userId, LocalDateTime expiryDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(() -> putLocal(jti, userId, expiryDate));
+        } else {
+            putLocal(jti, userId, expiryDate);
+        }
+    }
+
+    /**
+     * Forget a deleted refresh token. Repeated after commit so a concurrent
+     * database fallback cannot re-register the row before it is gone.
+     */
+    public void remove(String jti) {
+        if (jti == null) {
+            return;
+        }
+        removeLocally(jti);
+        afterCommit(() -> removeLocally(jti));
+        invalidationBus.publishAfterCommit(InvalidationEvent.refreshTokenRemoved(jti));
+    }
+
+    public void removeAllForUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        removeUserLocally(userId);
+        afterCommit(() -> removeUserLocally(userId));
+        invalidationBus.publishAfterCommit(InvalidationEvent.refreshTokensOfUser(userId));
+    }
+
+    private void removeLocally(String jti) {
+        entries.remove(jti);
+        rememberMissing(jti);
+    }
+
+    private void removeUserLocally(Long userId) {
+        entries.entrySet().removeIf(entry -> {
+            if (userId.equals(entry.getValue().userId())) {
+                rememberMissing(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void rememberMissing(String jti) {
+        synchronized (missing) {
+            missing.put(jti, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Mirror of {@code deleteByExpiryDateBefore}: drop JTIs whose refresh token
+     * expired before {@code now}.
+     */
+    public void removeExpiredBefore(LocalDateTime now) {
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private Entry putLocal(String jti, Long userId, LocalDateTime expiryDate) {
+        Entry entry = new Entry(userId, expiryDate, System.nanoTime());
+        entries.put(jti, entry);
+        return entry;
+    }
+
+    private record Entry(Long userId, LocalDateTime expiryDate, long checkedAtNanos) {
+        boolean isExpired(LocalDateTime now) {
+            return expiryDate != null && expiryDate.isBefore(now);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demologin.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Signing and verification keys for access tokens.
+ *
+ * {@code HS256} (default) signs with {@code jwt.secret}. {@code ES256} and
+ * {@code EdDSA} sign with the private key of {@code jwt.signing.active-kid} and
+ * put that kid in the JWS header. Every key in {@code jwt.signing.keys}
+ * ({@code kid:base64-X.509-public[:base64-PKCS#8-private]}, separated by
+ * {@code ;}) stays valid for verification. A key can be rotated by adding the
+ * new key everywhere, switching the active kid, and dropping the old key once
+ * its tokens have expired. Verification picks the key by kid from a map built
+ * once; the public keys are published as a JWKS document.
+ */
+@Component
+@Slf4j
+public class JwtSigningKeys {
+
+    private final SignatureAlgorithm algorithm;
+    private final SecretKey hmacKey;
+    private final String activeKid;
+    private final PrivateKey activePrivateKey;
+    private final Map<String, PublicKey> verificationKeys;
+    private final JwtParser parser;
+    private final String jwksJson;
+
+    public JwtSigningKeys(@Value("${jwt.secret}") String jwtSecret,
+                          @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                          @Value("${jwt.signing.active-kid:}") String activeKid,
+                          @Value("${jwt.signing.keys:}") String keys,
+                          @Value("${jwt.signing.accept-legacy-hmac:true}") boolean acceptLegacyHmac) {
+        this.algorithm = switch (algorithm.trim().toUpperCase()) {
+            case "HS256" -> null;
+            case "ES256" -> Jwts.SIG.ES256;
+            case "EDDSA" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithm);
+        };
+
+        boolean hmacUsable = jwtSecret != null && !jwtSecret.isBlank()
+                && (this.algorithm == null || acceptLegacyHmac);
+        this.hmacKey = hmacUsable ? Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)) : null;
+
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        Map<String, PrivateKey> privateKeys = new LinkedHashMap<>();
+        if (this.algorithm != null) {
+            parseKeys(keys, publicKeys, privateKeys);
+            if (publicKeys.isEmpty()) {
+                String kid = "ephemeral-" + UUID.randomUUID();
+                KeyPair pair = generateKeyPair();
+                publicKeys.put(kid, pair.getPublic());
+                privateKeys.put(kid, pair.getPrivate());
+                activeKid = kid;
+                log.warn("No jwt.signing.keys configured; signing with ephemeral key {} (tokens will not survive a restart)", kid);
+            }
+            if (activeKid == null || activeKid.isBlank()) {
+                activeKid = publicKeys.keySet().iterator().next();
+            }
+            if (!privateKeys.containsKey(activeKid)) {
+                throw new IllegalStateException("No private key configured for active kid " + activeKid);
+            }
+        }
+        this.activeKid = this.algorithm != null ? activeKid : null;
+        this.activePrivateKey = this.algorithm != null ? privateKeys.get(activeKid) : null;
+        this.verificationKeys = Map.copyOf(publicKeys);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        return kid != null ? verificationKeys.get(kid) : hmacKey;
+                    }
+                })
+                .build();
+        this.jwksJson = buildJwks(publicKeys);
+
+        if (this.algorithm != null) {
+            log.info("JWT signing with {} (active kid {}, {} verification key(s))",
+                    this.algorithm.getId(), this.activeKid, publicKeys.size());
+        }
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm != null;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    /**
+     * Shared, thread-safe parser that resolves the verification key by kid.
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (algorithm == null) {
+            return builder.signWith(hmacKey);
+        }
+        return builder.header().keyId(activeKid).and()
+                .signWith(activePrivateKey, algorithm);
+    }
+
+    /**
+     * JWKS document with every verification key; empty in HS256 mode.
+     */
+    public String jwksJson() {
+        return jwksJson;
+    }
+
+    private void parseKeys(String keys, Map<String, PublicKey> publicKeys, Map<String, PrivateKey> privateKeys) {
+        if (keys == null || keys.isBlank()) {
+            return;
+        }
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm == Jwts.SIG.EdDSA ? "Ed25519" : "EC");
+            for (String entry : keys.split(";")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                String[] parts = entry.trim().split(":");
+                if (parts.length < 2 || parts.length > 3) {
+                    throw new IllegalStateException("Invalid jwt.signing.keys entry for kid " + parts[0]);
+                }
+                publicKeys.put(parts[0], keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(parts[1]))));
+                if (parts.length == 3) {
+                    privateKeys.put(parts[0], keyFactory.generatePrivate(
+                            new PKCS8EncodedKeySpec(Base64.getDecoder().decode(parts[2]))));
+                }
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load jwt.signing.keys: " + e.getMessage(), e);
+        }
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            if (algorithm == Jwts.SIG.EdDSA) {
+                return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            }
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate JWT signing key", e);
+        }
+    }
+
+    private String buildJwks(Map<String, PublicKey> publicKeys) {
+        List<String> jwks = new ArrayList<>();
+        publicKeys.forEach((kid, key) -> jwks.add(Jwks.json(Jwks.builder()
+                .key(key)
+                .id(kid)
+                .algorithm(algorithm.getId())
+                .publicKeyUse("sig")
+                .build())));
+        return "{\"keys\":[" + String.join(",", jwks) + "]}";
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demologin.security;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Permission codes as a bitset over the ordinals of one
+ * {@link PermissionRegistry} version. {@link #contains(Object)} is an ordinal
+ * lookup plus a bit test; iteration decodes codes only when something (e.g. a
+ * log line) asks for them. Immutable.
+ */
+public final class PermissionBitset extends AbstractSet<String> {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final long[] words;
+    private final Map<String, Integer> ordinals;
+    private final String[] codes;
+
+    PermissionBitset(long[] words, Map<String, Integer> ordinals, String[] codes) {
+        this.words = words;
+        this.ordinals = ordinals;
+        this.codes = codes;
+    }
+
+    static long[] toWords(Collection<String> permissionCodes, Map<String, Integer> ordinals) {
+        int maxOrdinal = -1;
+        for (String code : permissionCodes) {
+            Integer ordinal = ordinals.get(code);
+            if (ordinal != null) {
+                maxOrdinal = Math.max(maxOrdinal, ordinal);
+            }
+        }
+        long[] words = new long[(maxOrdinal >> 6) + 1];
+        for (String code : permissionCodes) {
+            Integer ordinal = ordinals.get(code);
+            if (ordinal != null) {
+                words[ordinal >> 6] |= 1L << ordinal;
+            }
+        }
+        return words;
+    }
+
+    static String encode(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code encoded} is not a valid bitset claim
+     */
+    static long[] decode(String encoded) {
+        byte[] bytes = DECODER.decode(encoded);
+        if (bytes.length % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Bitset length is not a multiple of 8 bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] words = new long[bytes.length / Long.BYTES];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return words;
+    }
+
+    private boolean isSet(int ordinal) {
+        int word = ordinal >> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Integer ordinal = ordinals.get(o);
+        return ordinal != null && isSet(ordinal);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int ordinal = 0; ordinal < codes.length; ordinal++) {
+            if (isSet(ordinal)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                int ordinal = from;
+                while (ordinal < codes.length && !isSet(ordinal)) {
+                    ordinal++;
+                }
+                return ordinal;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < codes.length;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String code = codes[next];
+                next = advance(next + 1);
+                return code;
+            }
+        };
+    }
+}
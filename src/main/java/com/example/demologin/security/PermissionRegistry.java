@@ -0,0 +1,176 @@
+package com.example.demologin.security;
+
+import com.example.demologin.cache.InvalidationBus;
+import com.example.demologin.cache.InvalidationEvent;
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.repository.PermissionRepository;
+import com.example.demologin.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Ordinal assignment for permission codes, used to carry a user's permissions
+ * in the access token as a compact bitset ({@code jwt.permission-bitset.enabled}).
+ *
+ * The registry version is a checksum over all permission codes and every
+ * role's permission assignments, so all instances agree on it and any change to
+ * either produces a new version. Tokens minted under another version (or while
+ * a change is being applied) are not trusted for permissions; the filter falls
+ * back to resolving them server-side from the token's roles.
+ */
+@Component
+@Slf4j
+public class PermissionRegistry {
+
+    private final PermissionRepository permissionRepository;
+    private final RoleRepository roleRepository;
+    private final boolean enabled;
+    private final InvalidationBus invalidationBus;
+
+    // null until loaded and while a role/permission change is being applied
+    private volatile Snapshot snapshot;
+
+    public PermissionRegistry(PermissionRepository permissionRepository,
+                              RoleRepository roleRepository,
+                              @Value("${jwt.permission-bitset.enabled:false}") boolean enabled,
+                              InvalidationBus invalidationBus) {
+        this.permissionRepository = permissionRepository;
+        this.roleRepository = roleRepository;
+        this.enabled = enabled;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(InvalidationEvent.Type.PERMISSIONS, event -> refresh());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current registry version, or null when not loaded.
+     */
+    public Integer currentVersion() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.version();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * Picks up role/permission changes made by other instances.
+     */
+    @Scheduled(fixedDelayString = "${jwt.permission-bitset.refresh-interval-ms:60000}",
+            initialDelayString = "${jwt.permission-bitset.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        TreeSet<String> codes = new TreeSet<>();
+        for (Permission permission : permissionRepository.findAll()) {
+            codes.add(permission.getCode());
+        }
+        Map<String, TreeSet<String>> assignments = new TreeMap<>();
+        for (Role role : roleRepository.findAll()) {
+            TreeSet<String> roleCodes = new TreeSet<>();
+            role.getPermissions().forEach(permission -> roleCodes.add(permission.getCode()));
+            assignments.put(role.getName(), roleCodes);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(codes.toString().getBytes(StandardCharsets.UTF_8));
+        crc.update(assignments.toString().getBytes(StandardCharsets.UTF_8));
+        int version = (int) crc.getValue();
+
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version) {
+            return;
+        }
+        String[] byOrdinal = codes.toArray(new String[0]);
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < byOrdinal.length; i++) {
+            ordinals.put(byOrdinal[i], i);
+        }
+        snapshot = new Snapshot(version, Map.copyOf(ordinals), byOrdinal);
+        log.debug("Permission registry version {} with {} permission(s)", version, byOrdinal.length);
+    }
+
+    /**
+     * Stop trusting token bitsets now and reload once the change is committed;
+     * other instances reload when the change reaches them instead of on their
+     * next scheduled refresh.
+     */
+    public void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        snapshot = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+        invalidationBus.publishAfterCommit(InvalidationEvent.permissions());
+    }
+
+    /**
+     * Bitset claim for the given permission codes, or null when the mode is
+     * off or the registry is not loaded.
+     */
+    public EncodedPermissions encode(Collection<String> permissionCodes) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return null;
+        }
+        long[] words = PermissionBitset.toWords(permissionCodes, current.ordinals());
+        return new EncodedPermissions(current.version(), PermissionBitset.encode(words));
+    }
+
+    /**
+     * Permissions carried by a token, or null when they must be resolved
+     * server-side (mode off, no claim, or a different registry version).
+     */
+    public PermissionBitset decode(Integer version, String encoded) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null || version == null || encoded == null
+                || version != current.version()) {
+            return null;
+        }
+        try {
+            return new PermissionBitset(PermissionBitset.decode(encoded), current.ordinals(), current.codes());
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed permission bitset claim: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public record EncodedPermissions(int version, String bits) {}
+
+    private record Snapshot(int version, Map<String, Integer> ordinals, String[] codes) {}
+}
@@ -0,0 +1,70 @@
+package com.example.demologin.security;
+
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.entity.User;
+import com.example.demologin.enums.UserStatus;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight, immutable copy of the fields the authentication path needs from
+ * {@link User}. Cached per user so the filter does not run the eager
+ * user → roles → permissions load on every request.
+ */
+public record PrincipalSnapshot(
+        Long userId,
+        String username,
+        String fullName,
+        int tokenVersion,
+        UserStatus status,
+        boolean locked,
+        Set<String> roleNames,
+        List<GrantedAuthority> authorities) implements AuthenticatedPrincipal {
+
+    public PrincipalSnapshot {
+        roleNames = Set.copyOf(roleNames);
+        authorities = List.copyOf(authorities);
+    }
+
+    public static PrincipalSnapshot from(User user) {
+        Set<String> roleNames = new HashSet<>();
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (Role role : user.getRoles()) {
+            roleNames.add(role.getName());
+            authorities.add(new SimpleGrantedAuthority(role.getName()));
+            if (role.getPermissions() != null) {
+                for (Permission perm : role.getPermissions()) {
+                    authorities.add(new SimpleGrantedAuthority(perm.getCode()));
+                }
+            }
+        }
+        return new PrincipalSnapshot(
+                user.getUserId(),
+                user.getUsername(),
+                user.getFullName(),
+                user.getTokenVersion(),
+                user.getStatus(),
+                user.isLocked(),
+                roleNames,
+                authorities);
+    }
+
+    /**
+     * Whether the account may still use its tokens: active and not locked.
+     */
+    public boolean canAuthenticate() {
+        return status == UserStatus.ACTIVE && !locked;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demologin.service;
 
 import com.example.demologin.dto.request.ChatMemoryRequest;
 import com.example.demologin.dto.response.ChatMemoryResponse;
+import com.example.demologin.dto.response.CursorSlice;
 
 import java.util.List;
 
@@ -28,6 +29,16 @@ public interface ChatMemoryService {
      */
     List<ChatMemoryResponse> getAllMemories(Long userId);
 
+    /**
+     * Get a keyset page of memories, most recent first
+     *
+     * @param userId The user ID
+     * @param cursor nextCursor of the previous page, blank for the first page
+     * @param size Page size
+     * @return One page of the user's memories
+     */
+    CursorSlice<ChatMemoryResponse> getMemories(Long userId, String cursor, int size);
+
     /**
      * Get recent memories for a user (limited to 50)
      * 
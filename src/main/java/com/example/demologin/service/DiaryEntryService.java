@@ -2,6 +2,7 @@ package com.example.demologin.service;
 
 import com.example.demologin.dto.request.DiaryBulkSyncRequest;
 import com.example.demologin.dto.request.DiaryEntryRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.DiaryEntryResponse;
 import com.example.demologin.dto.response.DiarySummaryResponse;
 
@@ -33,6 +34,11 @@ public interface DiaryEntryService {
      */
     List<DiaryEntryResponse> getAllEntries(Long userId);
 
+    /**
+     * Get a keyset page of entries, newest first (blank cursor for the first page)
+     */
+    CursorSlice<DiaryEntryResponse> getEntries(Long userId, String cursor, int size);
+
     /**
      * Get recent entries (last 50)
      */
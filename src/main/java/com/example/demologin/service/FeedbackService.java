@@ -1,6 +1,7 @@
 package com.example.demologin.service;
 
 import com.example.demologin.dto.request.FeedbackRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.FeedbackResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,4 +12,5 @@ public interface FeedbackService {
     FeedbackResponse submitFeedback(Long userId, FeedbackRequest request);
     List<FeedbackResponse> getUserFeedback(Long userId);
     Page<FeedbackResponse> getAllFeedback(Pageable pageable);
+    CursorSlice<FeedbackResponse> getAllFeedback(String cursor, int size);
 }
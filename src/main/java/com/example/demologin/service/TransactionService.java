@@ -1,6 +1,7 @@
 package com.example.demologin.service;
 
 import com.example.demologin.dto.request.PaymentTransactionQueryRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.PaymentTransactionResponse;
 import org.springframework.data.domain.Page;
 
@@ -36,6 +37,13 @@ public interface TransactionService {
     Page<PaymentTransactionResponse> searchTransactions(PaymentTransactionQueryRequest request,
                                                        int page, int size);
 
+    /**
+     * Same filters, keyset-paginated on (createdAt, id) without a count query.
+     * A blank cursor starts from the first row.
+     */
+    CursorSlice<PaymentTransactionResponse> searchTransactions(PaymentTransactionQueryRequest request,
+                                                              String cursor, int size);
+
     PaymentTransactionResponse getTransactionById(Long id);
 
     /**
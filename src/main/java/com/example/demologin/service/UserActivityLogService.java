@@ -1,12 +1,17 @@
 package com.example.demologin.service;
 
+import com.example.demologin.activity.ActivityLogExporter;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.User;
 import com.example.demologin.enums.ActivityType;
 import org.springframework.data.domain.Page;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public interface UserActivityLogService {
@@ -15,11 +20,15 @@ public interface UserActivityLogService {
 
     
     Page<UserActivityLogResponse> getAllActivityLogs(int page, int size);
+    CursorSlice<UserActivityLogResponse> getAllActivityLogs(String cursor, int size);
     UserActivityLogResponse getActivityLogById(Long id);
     Page<UserActivityLogResponse> getActivityLogsByUserId(Long userId, int page, int size);
+    CursorSlice<UserActivityLogResponse> getActivityLogsByUserId(Long userId, String cursor, int size);
     Page<UserActivityLogResponse> getActivityLogsByType(String activityType, int page, int size);
     Page<UserActivityLogResponse> getActivityLogsByDateRange(LocalDateTime startTime, LocalDateTime endTime, int page, int size);
     Page<UserActivityLogResponse> exportActivityLogs(UserActivityLogExportRequest request, int page, int size);
+    StreamingResponseBody streamActivityLogExport(UserActivityLogExportRequest request, ActivityLogExporter.Format format, boolean gzip);
+    ActivityStatsResponse getActivityStats(LocalDate startDate, LocalDate endDate);
     String deleteActivityLog(Long id);
     Page<UserActivityLogResponse> getMyLoginHistory(int page, int size);
 
@@ -1,9 +1,11 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.activity.ActivityStatsRollup;
 import com.example.demologin.dto.request.login.FacebookLoginRequest;
 import com.example.demologin.dto.request.login.GoogleLoginRequest;
 import com.example.demologin.dto.request.login.LoginRequest;
 import com.example.demologin.dto.request.user.UserRegistrationRequest;
+import com.example.demologin.cache.PrincipalSnapshotCache;
 import com.example.demologin.dto.response.LoginResponse;
 import com.example.demologin.dto.response.LoginResponse;
 import com.example.demologin.entity.RefreshToken;
@@ -75,7 +77,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final RoleRepository roleRepository;
 
-    public AuthenticationServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, @Lazy AuthenticationManager authenticationManager, TokenService tokenService, RefreshTokenService refreshTokenService, UserActivityLogRepository userActivityLogRepository, RoleRepository roleRepository) {
+    private final PrincipalSnapshotCache principalSnapshotCache;
+    private final ActivityStatsRollup activityStatsRollup;
+
+    public AuthenticationServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, @Lazy AuthenticationManager authenticationManager, TokenService tokenService, RefreshTokenService refreshTokenService, UserActivityLogRepository userActivityLogRepository, RoleRepository roleRepository, PrincipalSnapshotCache principalSnapshotCache, ActivityStatsRollup activityStatsRollup) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
@@ -83,6 +88,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         this.refreshTokenService = refreshTokenService;
         this.userActivityLogRepository = userActivityLogRepository;
         this.roleRepository = roleRepository;
+        this.principalSnapshotCache = principalSnapshotCache;
+        this.activityStatsRollup = activityStatsRollup;
     }
 
     @Override
@@ -155,6 +162,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         } finally {
             if (log != null) {
                 userActivityLogRepository.save(log);
+                activityStatsRollup.record(log);
             }
         }
     }
@@ -438,6 +446,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 }
                 if (updated) {
                     user = userRepository.save(user);
+                    // Status / roles may have changed
+                    principalSnapshotCache.evictUser(user.getUserId());
                 }
             }
             
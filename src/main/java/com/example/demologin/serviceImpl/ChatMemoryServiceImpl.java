@@ -2,10 +2,12 @@ package com.example.demologin.serviceImpl;
 
 import com.example.demologin.dto.request.ChatMemoryRequest;
 import com.example.demologin.dto.response.ChatMemoryResponse;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.entity.ChatMemory;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.ChatMemoryRepository;
 import com.example.demologin.service.ChatMemoryService;
+import com.example.demologin.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -63,6 +65,15 @@ public class ChatMemoryServiceImpl implements ChatMemoryService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorSlice<ChatMemoryResponse> getMemories(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ChatMemory> memories = after == null
+                ? chatMemoryRepository.findKeysetFirst(userId, CursorSlice.limitFor(size))
+                : chatMemoryRepository.findKeysetAfter(userId, after.instant(), after.id(), CursorSlice.limitFor(size));
+        return CursorSlice.of(memories, size, m -> KeysetCursor.of(m.getCreatedAt(), m.getId()), this::toResponse);
+    }
+
     @Override
     public List<ChatMemoryResponse> getRecentMemories(Long userId) {
         return chatMemoryRepository.findTop50ByUserIdOrderByCreatedAtDesc(userId)
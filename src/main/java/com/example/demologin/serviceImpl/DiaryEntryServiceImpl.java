@@ -2,12 +2,14 @@ package com.example.demologin.serviceImpl;
 
 import com.example.demologin.dto.request.DiaryBulkSyncRequest;
 import com.example.demologin.dto.request.DiaryEntryRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.DiaryEntryResponse;
 import com.example.demologin.dto.response.DiarySummaryResponse;
 import com.example.demologin.entity.DiaryEntry;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.DiaryEntryRepository;
 import com.example.demologin.service.DiaryEntryService;
+import com.example.demologin.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -98,6 +100,15 @@ public class DiaryEntryServiceImpl implements DiaryEntryService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorSlice<DiaryEntryResponse> getEntries(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<DiaryEntry> entries = after == null
+                ? diaryEntryRepository.findKeysetFirst(userId, CursorSlice.limitFor(size))
+                : diaryEntryRepository.findKeysetAfter(userId, after.instant(), after.id(), CursorSlice.limitFor(size));
+        return CursorSlice.of(entries, size, e -> KeysetCursor.of(e.getTimestamp(), e.getId()), this::toResponse);
+    }
+
     @Override
     public List<DiaryEntryResponse> getRecentEntries(Long userId) {
         return diaryEntryRepository.findTop50ByUserIdOrderByTimestampDesc(userId)
@@ -1,12 +1,14 @@
 package com.example.demologin.serviceImpl;
 
 import com.example.demologin.dto.request.FeedbackRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.FeedbackResponse;
 import com.example.demologin.entity.Feedback;
 import com.example.demologin.entity.User;
 import com.example.demologin.repository.FeedbackRepository;
 import com.example.demologin.repository.UserRepository;
 import com.example.demologin.service.FeedbackService;
+import com.example.demologin.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -53,16 +55,29 @@ public class FeedbackServiceImpl implements FeedbackService {
     @Override
     public Page<FeedbackResponse> getAllFeedback(Pageable pageable) {
         Page<Feedback> page = feedbackRepository.findAllByOrderByCreatedAtDesc(pageable);
+        Map<Long, User> userMap = loadUsers(page.getContent());
+        return page.map(f -> toResponse(f, userMap.get(f.getUserId())));
+    }
 
-        // Batch-load users for the page
-        List<Long> userIds = page.getContent().stream()
+    @Override
+    public CursorSlice<FeedbackResponse> getAllFeedback(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Feedback> rows = after == null
+                ? feedbackRepository.findKeysetFirst(CursorSlice.limitFor(size))
+                : feedbackRepository.findKeysetAfter(after.instant(), after.id(), CursorSlice.limitFor(size));
+        Map<Long, User> userMap = loadUsers(rows);
+        return CursorSlice.of(rows, size, f -> KeysetCursor.of(f.getCreatedAt(), f.getId()),
+                f -> toResponse(f, userMap.get(f.getUserId())));
+    }
+
+    // Batch-load users for the page
+    private Map<Long, User> loadUsers(List<Feedback> feedback) {
+        List<Long> userIds = feedback.stream()
                 .map(Feedback::getUserId)
                 .distinct()
                 .collect(Collectors.toList());
-        Map<Long, User> userMap = userRepository.findAllById(userIds).stream()
+        return userRepository.findAllById(userIds).stream()
                 .collect(Collectors.toMap(User::getUserId, Function.identity()));
-
-        return page.map(f -> toResponse(f, userMap.get(f.getUserId())));
     }
 
     private FeedbackResponse toResponse(Feedback feedback, User user) {
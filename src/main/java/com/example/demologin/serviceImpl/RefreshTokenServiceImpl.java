@@ -5,6 +5,7 @@ import com.example.demologin.entity.RefreshToken;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.TokenRefreshException;
 import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.security.JtiRegistry;
 import com.example.demologin.service.RefreshTokenService;
 import com.example.demologin.service.TokenService;
 import lombok.AllArgsConstructor;
@@ -33,6 +34,8 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final TokenService tokenService;
 
+    private final JtiRegistry jtiRegistry;
+
     @Override
     public Optional<RefreshToken> findByToken(String token) {
         return refreshTokenRepository.findByToken(token);
@@ -50,7 +53,9 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         refreshToken.setToken(UUID.randomUUID().toString());
         refreshToken.setJti(UUID.randomUUID().toString());
 
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        jtiRegistry.register(saved.getJti(), user.getUserId(), saved.getExpiryDate());
+        return saved;
     }
 
 
@@ -59,6 +64,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().isBefore(LocalDateTime.now())) {
             refreshTokenRepository.delete(token);
+            jtiRegistry.remove(token.getJti());
             throw new TokenRefreshException(
                     token.getToken(),
                     "Refresh token was expired. Please make a new login request"
@@ -86,6 +92,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public void cleanExpiredTokens() {
         LocalDateTime now = LocalDateTime.now();
         int deletedCount = refreshTokenRepository.deleteByExpiryDateBefore(now);
+        jtiRegistry.removeExpiredBefore(now);
         if (deletedCount > 0) {
             log.info("✅ Đã xóa {} refresh token hết hạn trước {}", deletedCount, now);
         }
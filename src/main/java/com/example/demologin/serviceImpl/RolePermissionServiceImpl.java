@@ -20,7 +20,7 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     private final RoleRepository roleRepository;
 
     @Override
-    @SmartCache
+    @SmartCache(tags = "role-permissions", refreshAfterSeconds = 300, staleIfErrorSeconds = 120)
     public Set<String> getPermissionsForRoles(Set<String> roleNames) {
         if (roleNames == null || roleNames.isEmpty()) {
             return Collections.emptySet();
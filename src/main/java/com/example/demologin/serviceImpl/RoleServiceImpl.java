@@ -1,5 +1,6 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.cache.PrincipalSnapshotCache;
 import com.example.demologin.dto.request.role.CreateRoleRequest;
 import com.example.demologin.dto.request.role.RolePermissionsRequest;
 import com.example.demologin.dto.request.role.UpdateRoleRequest;
@@ -10,6 +11,7 @@ import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.RoleMapper;
 import com.example.demologin.repository.RoleRepository;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.PermissionRegistry;
 import com.example.demologin.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -22,6 +24,8 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
     private final UserRepository userRepository;
+    private final PrincipalSnapshotCache principalSnapshotCache;
+    private final PermissionRegistry permissionRegistry;
 
     @Override
     public List<RoleResponse> getAll() {
@@ -50,6 +54,9 @@ public class RoleServiceImpl implements RoleService {
                 .orElseThrow(() -> new NotFoundException("Role with id " + id + " not found"));
         roleMapper.fromUpdateDto(req, r);
         Role updatedRole = roleRepository.save(r);
+        // Role names are baked into every cached principal holding this role
+        principalSnapshotCache.evictAll();
+        permissionRegistry.invalidate();
         return roleMapper.toResponse(updatedRole);
     }
 
@@ -63,6 +70,8 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepository.delete(r);
+        principalSnapshotCache.evictAll();
+        permissionRegistry.invalidate();
     }
 
     @Override
@@ -70,6 +79,8 @@ public class RoleServiceImpl implements RoleService {
         Role r = roleRepository.findById(id).orElseThrow(() -> new NotFoundException("Role with id " + id + " not found"));
         roleMapper.fromPermissionDto(req, r);
         Role updatedRole = roleRepository.save(r);
+        principalSnapshotCache.evictAll();
+        permissionRegistry.invalidate();
         return roleMapper.toResponse(updatedRole);
     }
 
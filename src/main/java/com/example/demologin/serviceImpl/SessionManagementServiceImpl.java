@@ -5,6 +5,8 @@ import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.RefreshTokenRepository;
 import com.example.demologin.repository.UserActivityLogRepository;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthenticatedRequest;
+import com.example.demologin.security.JtiRegistry;
 import com.example.demologin.service.SessionManagementService;
 import com.example.demologin.service.TokenVersionService;
 import com.example.demologin.utils.AccountUtils;
@@ -27,16 +29,18 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     private final JwtUtil jwtUtil;
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserActivityLogRepository userActivityLogReppsitory;
+    private final JtiRegistry jtiRegistry;
 
     @Override
     @Transactional
     public void logoutCurrentDevice() {
-        String currentToken = accountUtils.getCurrentToken();
-        String jti = jwtUtil.extractJti(currentToken);
-        Date expiryDate = jwtUtil.extractExpiration(currentToken);
+        AuthenticatedRequest authenticated = accountUtils.getAuthenticatedRequest();
+        String jti = authenticated.jti();
+        Date expiryDate = Date.from(authenticated.expiresAt());
 
         // Xóa refresh token khỏi DB
         refreshTokenRepository.deleteByJti(jti);
+        jtiRegistry.remove(jti);
 
         // Revoke access token trong memory
         jwtUtil.revokeToken(jti, expiryDate);
@@ -51,6 +55,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         User currentUser = accountUtils.getCurrentUser();
         log.info("User {} logging out from all devices", currentUser.getUsername());
         refreshTokenRepository.deleteByUser(currentUser);
+        jtiRegistry.removeAllForUser(currentUser.getUserId());
         // Invalidate all tokens by incrementing token version
         tokenVersionService.incrementTokenVersionByUserId(currentUser.getUserId());
         userActivityLogReppsitory.deleteByUserId(currentUser.getUserId());
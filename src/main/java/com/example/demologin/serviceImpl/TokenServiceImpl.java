@@ -1,9 +1,11 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.cache.PrincipalSnapshotCache;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.exception.exceptions.ValidationException;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.PrincipalSnapshot;
 import com.example.demologin.service.TokenService;
 import com.example.demologin.utils.JwtUtil;
 import lombok.AllArgsConstructor;
@@ -26,12 +28,15 @@ public class TokenServiceImpl implements TokenService {
 
     private final UserRepository userRepository;
 
+    private final PrincipalSnapshotCache principalSnapshotCache;
+
     @Override
     public String generateTokenForUser(User user) {
         log.debug("Generating token for user: {}", user.getUsername());
         return jwtUtil.generateToken(user);
     }
 
+    @Override
     public User getUserByToken(String token) {
         try {
             String userIdStr = jwtUtil.extractUsername(token); // vẫn dùng method cũ, nhưng thực chất đang lấy subject
@@ -49,4 +54,25 @@ public class TokenServiceImpl implements TokenService {
         }
     }
 
+    @Override
+    public PrincipalSnapshot getPrincipalByToken(String token) {
+        try {
+            String userIdStr = jwtUtil.extractUsername(token);
+            if (userIdStr == null || userIdStr.trim().isEmpty()) {
+                throw new ValidationException("Invalid token: userId not found");
+            }
+
+            Long userId = Long.parseLong(userIdStr);
+            Integer tokenVersion = jwtUtil.extractTokenVersion(token);
+
+            return principalSnapshotCache.get(userId, tokenVersion != null ? tokenVersion : 0,
+                    () -> userRepository.findById(userId)
+                            .map(PrincipalSnapshot::from)
+                            .orElseThrow(() -> new NotFoundException("User not found with id: " + userId)));
+        } catch (Exception e) {
+            log.warn("Failed to extract principal from token: {}", e.getMessage());
+            throw new ValidationException("Invalid token: " + e.getMessage());
+        }
+    }
+
 }
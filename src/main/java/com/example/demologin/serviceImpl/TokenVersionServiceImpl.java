@@ -1,5 +1,6 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.cache.PrincipalSnapshotCache;
 import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.NotFoundException;
@@ -24,12 +25,14 @@ public class TokenVersionServiceImpl implements TokenVersionService {
 
     private final UserRepository userRepository;
     private final AccountUtils accountUtils;
+    private final PrincipalSnapshotCache principalSnapshotCache;
 
     @Override
     public User incrementTokenVersion(User user) {
         log.info("Incrementing token version for user: {}", user.getUsername());
         user.incrementTokenVersion();
         User savedUser = userRepository.save(user);
+        principalSnapshotCache.evictUser(savedUser.getUserId());
         log.info("Token version incremented to {} for user: {}", savedUser.getTokenVersion(), user.getUsername());
         return savedUser;
     }
@@ -108,6 +111,7 @@ public class TokenVersionServiceImpl implements TokenVersionService {
 
         user.setTokenVersion(0);
         User savedUser = userRepository.save(user);
+        principalSnapshotCache.evictUser(userId);
         log.info("Token version reset to 0 for user: {}", user.getUsername());
         return savedUser;
     }
@@ -16,12 +16,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demologin.dto.request.PaymentTransactionQueryRequest;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.PaymentTransactionResponse;
 import com.example.demologin.entity.PaymentTransaction;
+import com.example.demologin.exception.exceptions.BadRequestException;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.PaymentTransactionMapper;
 import com.example.demologin.repository.PaymentTransactionRepository;
 import com.example.demologin.service.TransactionService;
+import com.example.demologin.utils.KeysetCursor;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -131,13 +134,8 @@ public class TransactionServiceImpl implements TransactionService {
         String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
         pageable = PageRequest.of(page, size, Sort.by(dir, sortBy));
 
-        LocalDateTime start = null, end = null;
-        if (request.getStartDate() != null) {
-            start = LocalDate.parse(request.getStartDate()).atStartOfDay();
-        }
-        if (request.getEndDate() != null) {
-            end = LocalDate.parse(request.getEndDate()).atTime(23, 59, 59);
-        }
+        LocalDateTime start = startOf(request);
+        LocalDateTime end = endOf(request);
 
         Page<PaymentTransaction> results;
         try {
@@ -159,6 +157,35 @@ public class TransactionServiceImpl implements TransactionService {
         return results.map(mapper::toResponse);
     }
 
+    @Override
+    public CursorSlice<PaymentTransactionResponse> searchTransactions(PaymentTransactionQueryRequest request,
+                                                                     String cursor, int size) {
+        if (request.getSortBy() != null && !request.getSortBy().equals("createdAt")) {
+            throw new BadRequestException("Cursor pagination only supports sortBy=createdAt");
+        }
+        boolean ascending = request.getSortDir() != null && request.getSortDir().equalsIgnoreCase("ASC");
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime afterCreatedAt = after == null ? null : after.localDateTime();
+        Long afterId = after == null ? null : after.id();
+
+        List<PaymentTransaction> rows = ascending
+                ? transactionRepository.findKeysetWithFiltersAsc(request.getUserId(), request.getTxnRef(),
+                        request.getStatus(), request.getId(), startOf(request), endOf(request),
+                        afterCreatedAt, afterId, CursorSlice.limitFor(size))
+                : transactionRepository.findKeysetWithFiltersDesc(request.getUserId(), request.getTxnRef(),
+                        request.getStatus(), request.getId(), startOf(request), endOf(request),
+                        afterCreatedAt, afterId, CursorSlice.limitFor(size));
+        return CursorSlice.of(rows, size, tx -> KeysetCursor.of(tx.getCreatedAt(), tx.getId()), mapper::toResponse);
+    }
+
+    private static LocalDateTime startOf(PaymentTransactionQueryRequest request) {
+        return request.getStartDate() == null ? null : LocalDate.parse(request.getStartDate()).atStartOfDay();
+    }
+
+    private static LocalDateTime endOf(PaymentTransactionQueryRequest request) {
+        return request.getEndDate() == null ? null : LocalDate.parse(request.getEndDate()).atTime(23, 59, 59);
+    }
+
     @Override
     public PaymentTransactionResponse getTransactionById(Long id) {
         PaymentTransaction tx = transactionRepository.findById(id)
@@ -1,15 +1,22 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.activity.ActivityDimensions;
+import com.example.demologin.activity.ActivityLogExporter;
+import com.example.demologin.activity.ActivityStatsRollup;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.entity.User;
 import com.example.demologin.enums.ActivityType;
+import com.example.demologin.exception.exceptions.BadRequestException;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.UserActivityLogMapper;
 import com.example.demologin.repository.UserActivityLogRepository;
 import com.example.demologin.service.UserActivityLogService;
 import com.example.demologin.utils.AccountUtils;
+import com.example.demologin.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -17,8 +24,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +38,9 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     private final UserActivityLogRepository userActivityLogRepository;
     private final UserActivityLogMapper userActivityLogMapper;
     private final AccountUtils accountUtils;
+    private final ActivityLogExporter activityLogExporter;
+    private final ActivityStatsRollup activityStatsRollup;
+    private final ActivityDimensions activityDimensions;
 
     @Override
     @Transactional
@@ -41,6 +54,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
                 .build();
 
             userActivityLogRepository.save(activityLog);
+            activityStatsRollup.record(activityLog);
             log.info("Logged activity for user {}: {} - {}", 
                 user.getUsername(), activityType, details);
         } catch (Exception e) {
@@ -52,7 +66,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     public Page<UserActivityLogResponse> getAllActivityLogs(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<UserActivityLog> logs = userActivityLogRepository.findAll(pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found");
@@ -60,6 +74,19 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
         return mappedLogs;
     }
 
+    @Override
+    public CursorSlice<UserActivityLogResponse> getAllActivityLogs(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<UserActivityLog> rows = after == null
+            ? userActivityLogRepository.findKeysetFirst(CursorSlice.limitFor(size))
+            : userActivityLogRepository.findKeysetAfter(after.localDateTime(), after.id(), CursorSlice.limitFor(size));
+
+        if (after == null && rows.isEmpty()) {
+            throw new NotFoundException("No activity logs found");
+        }
+        return toSlice(rows, size);
+    }
+
     @Override
     public UserActivityLogResponse getActivityLogById(Long id) {
         UserActivityLog log = userActivityLogRepository.findById(id)
@@ -71,7 +98,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     public Page<UserActivityLogResponse> getActivityLogsByUserId(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<UserActivityLog> logs = userActivityLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found for user ID: " + userId);
@@ -79,13 +106,33 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
         return mappedLogs;
     }
 
+    @Override
+    public CursorSlice<UserActivityLogResponse> getActivityLogsByUserId(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<UserActivityLog> rows = after == null
+            ? userActivityLogRepository.findKeysetFirstByUserId(userId, CursorSlice.limitFor(size))
+            : userActivityLogRepository.findKeysetAfterByUserId(userId, after.localDateTime(), after.id(),
+                CursorSlice.limitFor(size));
+
+        if (after == null && rows.isEmpty()) {
+            throw new NotFoundException("No activity logs found for user ID: " + userId);
+        }
+        return toSlice(rows, size);
+    }
+
+    private CursorSlice<UserActivityLogResponse> toSlice(List<UserActivityLog> rows, int size) {
+        activityDimensions.preload(rows);
+        return CursorSlice.of(rows, size, activityLog -> KeysetCursor.of(activityLog.getTimestamp(), activityLog.getId()),
+            userActivityLogMapper::toResponse);
+    }
+
     @Override
     public Page<UserActivityLogResponse> getActivityLogsByType(String activityType, int page, int size) {
         try {
             ActivityType type = ActivityType.valueOf(activityType.toUpperCase());
             Pageable pageable = PageRequest.of(page, size);
             Page<UserActivityLog> logs = userActivityLogRepository.findByActivityTypeOrderByTimestampDesc(type, pageable);
-            Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+            Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
             
             if (mappedLogs.getContent().isEmpty()) {
                 throw new NotFoundException("No activity logs found for activity type: " + activityType);
@@ -100,7 +147,7 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
     public Page<UserActivityLogResponse> getActivityLogsByDateRange(LocalDateTime startTime, LocalDateTime endTime, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<UserActivityLog> logs = userActivityLogRepository.findByTimestampBetween(startTime, endTime, pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found for the specified date range");
@@ -110,12 +157,13 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
 
     @Override
     public Page<UserActivityLogResponse> exportActivityLogs(UserActivityLogExportRequest request, int page, int size) {
-        // Build dynamic query based on request filters
+        validateExportRange(request);
         Pageable pageable = PageRequest.of(page, size);
-        
-        // For now, export all - you can add filtering logic based on request
-        Page<UserActivityLog> logs = userActivityLogRepository.findAll(pageable);
-        Page<UserActivityLogResponse> mappedLogs = logs.map(userActivityLogMapper::toResponse);
+        String status = request.getStatus() == null || request.getStatus().isBlank() ? null : request.getStatus().trim();
+        Page<UserActivityLog> logs = userActivityLogRepository.findWithFilters(request.getUserId(),
+                request.getActivityType(), status, request.getStartDate().atStartOfDay(),
+                request.getEndDate().atTime(23, 59, 59, 999_999_999), pageable);
+        Page<UserActivityLogResponse> mappedLogs = userActivityLogMapper.toResponsePage(logs);
         
         if (mappedLogs.getContent().isEmpty()) {
             throw new NotFoundException("No activity logs found for export");
@@ -123,6 +171,29 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
         return mappedLogs;
     }
 
+    @Override
+    public StreamingResponseBody streamActivityLogExport(UserActivityLogExportRequest request,
+                                                         ActivityLogExporter.Format format, boolean gzip) {
+        validateExportRange(request);
+        return out -> activityLogExporter.export(request, format, gzip, out);
+    }
+
+    private static void validateExportRange(UserActivityLogExportRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+    }
+
+    @Override
+    public ActivityStatsResponse getActivityStats(LocalDate startDate, LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(6);
+        if (end.isBefore(start)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        return activityStatsRollup.summarize(start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+    }
+
     @Override
     public String deleteActivityLog(Long id) {
         UserActivityLog log = userActivityLogRepository.findById(id)
@@ -152,6 +223,6 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
             throw new NotFoundException("No login history found for current user");
         }
         
-        return loginLogs.map(userActivityLogMapper::toResponse);
+        return userActivityLogMapper.toResponsePage(loginLogs);
     }
 }
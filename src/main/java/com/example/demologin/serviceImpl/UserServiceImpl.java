@@ -1,15 +1,19 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.dto.response.CursorSlice;
 import com.example.demologin.dto.response.MemberResponse;
 import com.example.demologin.entity.User;
 import com.example.demologin.repository.UserRepository;
 import com.example.demologin.mapper.UserMapper;
 import com.example.demologin.service.UserService;
+import com.example.demologin.utils.KeysetCursor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 
 @Service
 @AllArgsConstructor
@@ -24,4 +28,13 @@ public class UserServiceImpl implements UserService {
         return users.map(userMapper::toUserResponse);
     }
 
+    @Override
+    public CursorSlice<MemberResponse> getAllUsers(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<User> users = after == null
+                ? userRepository.findByOrderByUserIdAsc(CursorSlice.limitFor(size))
+                : userRepository.findByUserIdGreaterThanOrderByUserIdAsc(after.id(), CursorSlice.limitFor(size));
+        return CursorSlice.of(users, size, user -> KeysetCursor.of(user.getUserId()), userMapper::toUserResponse);
+    }
+
 } 
@@ -4,12 +4,15 @@ import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.InvalidPrincipalTypeException;
 import com.example.demologin.exception.exceptions.UserNotAuthenticatedException;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthenticatedRequest;
+import com.example.demologin.security.PrincipalSnapshot;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
@@ -17,6 +20,8 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 @AllArgsConstructor
 public class AccountUtils {
 
+    private static final String CURRENT_USER_ATTRIBUTE = AccountUtils.class.getName() + ".currentUser";
+
     private final UserRepository userRepository;
 
     public User getCurrentUser() {
@@ -32,6 +37,10 @@ public class AccountUtils {
             return user;
         }
 
+        if (principal instanceof PrincipalSnapshot snapshot) {
+            return loadUserForRequest(snapshot.userId());
+        }
+
         if (principal instanceof String username) {
             return userRepository.findByUsername(username)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -40,7 +49,38 @@ public class AccountUtils {
         throw new InvalidPrincipalTypeException("Principal is of unsupported type: " + principal.getClass().getName());
     }
 
+    /**
+     * The filter only authenticates with a cached snapshot; the full entity is
+     * loaded the first time a service asks for it and reused for the rest of the request.
+     */
+    private User loadUserForRequest(Long userId) {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs != null && attrs.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached) {
+            return cached;
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
+        if (attrs != null) {
+            attrs.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Verified token context bound by the authentication filter.
+     */
+    public AuthenticatedRequest getAuthenticatedRequest() {
+        return AuthenticatedRequest.current()
+                .orElseThrow(() -> new UserNotAuthenticatedException("No authenticated request context found"));
+    }
+
     public String getCurrentToken() {
+        AuthenticatedRequest authenticated = AuthenticatedRequest.current().orElse(null);
+        if (authenticated != null) {
+            return authenticated.token();
+        }
+
         ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attrs == null) {
             throw new UserNotAuthenticatedException("No request context found");
@@ -0,0 +1,379 @@
+package com.example.demologin.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only IPv4/IPv6 range index over a memory-mapped file. Ranges are
+ * sorted by start address and looked up by binary search directly in the
+ * mapping, so the (possibly millions of) ranges cost no heap; only the
+ * distinct locations they point to are decoded onto the heap.
+ *
+ * The mapped format is produced by {@link #compile} from a CSV where each line
+ * is either {@code start,end,<fields>} or {@code cidr,<fields>}. The
+ * {@code columns} list names the fields after the range: {@code city},
+ * {@code region}, {@code country}, {@code countryCode}, or {@code -} to skip
+ * one. Lines that do not start with an address (headers) are ignored.
+ *
+ * Layout (big-endian): magic, IPv4 count, IPv6 count, location count; IPv4
+ * records {start, end, location} as ints; IPv6 records {start, end} as two
+ * longs each plus the location int; then per location its four fields as
+ * length-prefixed UTF-8.
+ */
+final class GeoIpIndex {
+
+    static final int MAGIC = 0x47454F31; // "GEO1"
+    private static final int HEADER_BYTES = 16;
+    private static final int V4_RECORD = 12;
+    private static final int V6_RECORD = 36;
+    private static final List<String> FIELDS = List.of("city", "region", "country", "countryCode");
+
+    private final ByteBuffer v4;
+    private final ByteBuffer v6;
+    private final int v4Count;
+    private final int v6Count;
+    // [city, region, country, countryCode] per location
+    private final String[][] locations;
+
+    private GeoIpIndex(MappedByteBuffer mapped) {
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a GeoIP index file");
+        }
+        v4Count = mapped.getInt(4);
+        v6Count = mapped.getInt(8);
+        int locationCount = mapped.getInt(12);
+        int v6Start = HEADER_BYTES + v4Count * V4_RECORD;
+        int locationsStart = v6Start + v6Count * V6_RECORD;
+        v4 = mapped.slice(HEADER_BYTES, v4Count * V4_RECORD);
+        v6 = mapped.slice(v6Start, v6Count * V6_RECORD);
+
+        ByteBuffer in = mapped.slice(locationsStart, mapped.capacity() - locationsStart);
+        locations = new String[locationCount][];
+        for (int i = 0; i < locationCount; i++) {
+            String[] fields = new String[FIELDS.size()];
+            for (int f = 0; f < fields.length; f++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                fields[f] = new String(bytes, StandardCharsets.UTF_8).intern();
+            }
+            locations[i] = fields;
+        }
+    }
+
+    /**
+     * Map an index file. The file must not be modified while mapped.
+     */
+    static GeoIpIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new GeoIpIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static boolean isIndexFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            return channel.read(magic, 0) == 4 && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    int rangeCount() {
+        return v4Count + v6Count;
+    }
+
+    /**
+     * {@code [city, region, country, countryCode]} for the address, or null
+     * if it is not a literal address or not covered by any range.
+     */
+    String[] lookup(String address) {
+        int v4Address = parseIpv4(address);
+        if (v4Address != -1 || "255.255.255.255".equals(address)) {
+            return lookupV4(v4Address);
+        }
+        if (address.indexOf(':') < 0) {
+            // Never hand a host name to InetAddress: that would be a DNS lookup
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+        if (bytes.length == 4) {
+            // IPv4-mapped IPv6 address
+            return lookupV4(ByteBuffer.wrap(bytes).getInt());
+        }
+        ByteBuffer b = ByteBuffer.wrap(bytes);
+        return lookupV6(b.getLong(), b.getLong());
+    }
+
+    private String[] lookupV4(int address) {
+        int low = 0;
+        int high = v4Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(v4.getInt(mid * V4_RECORD), address) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0 || Integer.compareUnsigned(address, v4.getInt(candidate * V4_RECORD + 4)) > 0) {
+            return null;
+        }
+        return locations[v4.getInt(candidate * V4_RECORD + 8)];
+    }
+
+    private String[] lookupV6(long hi, long lo) {
+        int low = 0;
+        int high = v6Count - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int base = mid * V6_RECORD;
+            if (compare(v6.getLong(base), v6.getLong(base + 8), hi, lo) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate < 0) {
+            return null;
+        }
+        int base = candidate * V6_RECORD;
+        if (compare(hi, lo, v6.getLong(base + 16), v6.getLong(base + 24)) > 0) {
+            return null;
+        }
+        return locations[v6.getInt(base + 32)];
+    }
+
+    private static int compare(long hiA, long loA, long hiB, long loB) {
+        int byHi = Long.compareUnsigned(hiA, hiB);
+        return byHi != 0 ? byHi : Long.compareUnsigned(loA, loB);
+    }
+
+    /**
+     * Dotted-quad IPv4 as an int, or -1 if it is not one (255.255.255.255
+     * also parses to -1; callers check for it).
+     */
+    static int parseIpv4(String address) {
+        int result = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                result = (result << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        return dots == 3 && digits > 0 ? (result << 8) | octet : -1;
+    }
+
+    /**
+     * Parse a range CSV and write it in the mapped format to {@code out}.
+     */
+    static void compile(Path csv, List<String> columns, Path out) throws IOException {
+        for (String column : columns) {
+            if (!column.equals("-") && !FIELDS.contains(column)) {
+                throw new IllegalArgumentException("Unknown GeoIP column " + column);
+            }
+        }
+        List<long[]> v4Ranges = new ArrayList<>();
+        List<long[]> v6Ranges = new ArrayList<>();
+        Map<List<String>, Integer> locationIds = new HashMap<>();
+        List<List<String>> locationList = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> cells = splitCsv(line);
+                if (cells.isEmpty()) {
+                    continue;
+                }
+                byte[][] range = parseRange(cells);
+                if (range == null) {
+                    continue;
+                }
+                int firstField = cells.get(0).indexOf('/') >= 0 ? 1 : 2;
+                List<String> location = location(cells, firstField, columns);
+                Integer id = locationIds.get(location);
+                if (id == null) {
+                    id = locationList.size();
+                    locationIds.put(location, id);
+                    locationList.add(location);
+                }
+                if (range[0].length == 4) {
+                    v4Ranges.add(new long[]{toLong(range[0]), toLong(range[1]), id});
+                } else {
+                    ByteBuffer start = ByteBuffer.wrap(range[0]);
+                    ByteBuffer end = ByteBuffer.wrap(range[1]);
+                    v6Ranges.add(new long[]{start.getLong(), start.getLong(), end.getLong(), end.getLong(), id});
+                }
+            }
+        }
+        v4Ranges.sort(Comparator.comparingLong(r -> r[0]));
+        v6Ranges.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out)))) {
+            data.writeInt(MAGIC);
+            data.writeInt(v4Ranges.size());
+            data.writeInt(v6Ranges.size());
+            data.writeInt(locationList.size());
+            for (long[] r : v4Ranges) {
+                data.writeInt((int) r[0]);
+                data.writeInt((int) r[1]);
+                data.writeInt((int) r[2]);
+            }
+            for (long[] r : v6Ranges) {
+                for (int i = 0; i < 4; i++) {
+                    data.writeLong(r[i]);
+                }
+                data.writeInt((int) r[4]);
+            }
+            for (List<String> location : locationList) {
+                for (String field : location) {
+                    byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                    data.writeInt(bytes.length);
+                    data.write(bytes);
+                }
+            }
+        }
+    }
+
+    private static List<String> location(List<String> cells, int firstField, List<String> columns) {
+        String[] values = new String[FIELDS.size()];
+        for (int i = 0; i < columns.size() && firstField + i < cells.size(); i++) {
+            int field = FIELDS.indexOf(columns.get(i));
+            if (field >= 0 && !cells.get(firstField + i).isBlank()) {
+                values[field] = cells.get(firstField + i).trim();
+            }
+        }
+        // Country name falls back to the code for files that only carry codes
+        if (values[2] == null) {
+            values[2] = values[3];
+        }
+        List<String> location = new ArrayList<>(values.length);
+        for (String value : values) {
+            location.add(value == null ? "Unknown" : value);
+        }
+        return List.copyOf(location);
+    }
+
+    /**
+     * {start, end} address bytes of the line's range, or null for a header or malformed line.
+     */
+    private static byte[][] parseRange(List<String> cells) {
+        String first = cells.get(0).trim();
+        int slash = first.indexOf('/');
+        if (slash >= 0) {
+            byte[] network = parseLiteral(first.substring(0, slash));
+            if (network == null) {
+                return null;
+            }
+            int prefix;
+            try {
+                prefix = Integer.parseInt(first.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            byte[] start = network.clone();
+            byte[] end = network.clone();
+            for (int bit = prefix; bit < network.length * 8; bit++) {
+                start[bit / 8] &= (byte) ~(0x80 >>> (bit % 8));
+                end[bit / 8] |= (byte) (0x80 >>> (bit % 8));
+            }
+            return new byte[][]{start, end};
+        }
+        if (cells.size() < 2) {
+            return null;
+        }
+        byte[] start = parseLiteral(first);
+        byte[] end = parseLiteral(cells.get(1).trim());
+        if (start == null || end == null || start.length != end.length) {
+            return null;
+        }
+        return new byte[][]{start, end};
+    }
+
+    private static byte[] parseLiteral(String address) {
+        int v4Address = parseIpv4(address);
+        if (v4Address != -1 || "255.255.255.255".equals(address)) {
+            return ByteBuffer.allocate(4).putInt(v4Address).array();
+        }
+        if (address.indexOf(':') < 0) {
+            return null;
+        }
+        try {
+            byte[] bytes = InetAddress.getByName(address).getAddress();
+            // Keep v6 ranges 16 bytes wide even when they start at a mapped v4 address
+            if (bytes.length == 4) {
+                ByteBuffer mapped = ByteBuffer.allocate(16);
+                mapped.putLong(0).putInt(0xFFFF).put(bytes);
+                return mapped.array();
+            }
+            return bytes;
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static long toLong(byte[] v4Address) {
+        return ByteBuffer.wrap(v4Address).getInt() & 0xFFFFFFFFL;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (!line.isEmpty()) {
+            cells.add(cell.toString());
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demologin.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Offline IP geolocation from a local range file ({@code geoip.database-path}):
+ * either a CSV of ranges/CIDRs (see {@link GeoIpIndex}) or a pre-built index.
+ * The file is compiled or copied to a private temporary index and memory-mapped,
+ * so updating the configured file in place never disturbs the live mapping.
+ *
+ * The file is checked for changes every {@code geoip.reload-interval-ms}; a
+ * changed file is loaded in the background and swapped in atomically, and a
+ * file that fails to load leaves the previous index in service.
+ */
+@Component
+@Slf4j
+public class GeoIpResolver {
+
+    private final Path databasePath;
+    private final List<String> columns;
+
+    private volatile GeoIpIndex index;
+    private volatile FileTime loadedModifiedTime;
+    private volatile long loadedSize = -1;
+
+    public GeoIpResolver(@Value("${geoip.database-path:}") String databasePath,
+                         @Value("${geoip.csv.columns:countryCode,country,region,city}") String columns) {
+        this.databasePath = databasePath == null || databasePath.isBlank() ? null : Path.of(databasePath.trim());
+        this.columns = Arrays.stream(columns.split(",")).map(String::trim).toList();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (databasePath == null) {
+            log.info("No GeoIP database configured (geoip.database-path); locations come from the remote fallback only");
+            return;
+        }
+        reloadIfChanged();
+    }
+
+    @Scheduled(fixedDelayString = "${geoip.reload-interval-ms:60000}",
+            initialDelayString = "${geoip.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (databasePath == null) {
+            return;
+        }
+        try {
+            if (!Files.isRegularFile(databasePath)) {
+                if (index == null) {
+                    log.warn("GeoIP database {} not found", databasePath);
+                }
+                return;
+            }
+            FileTime modified = Files.getLastModifiedTime(databasePath);
+            long size = Files.size(databasePath);
+            if (index != null && size == loadedSize && Objects.equals(modified, loadedModifiedTime)) {
+                return;
+            }
+            long started = System.nanoTime();
+            index = build(databasePath);
+            loadedModifiedTime = modified;
+            loadedSize = size;
+            log.info("Loaded GeoIP database {} ({} ranges) in {} ms", databasePath, index.rangeCount(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to load GeoIP database {}: {}", databasePath, e.toString());
+        }
+    }
+
+    private GeoIpIndex build(Path source) throws IOException {
+        Path mapped = Files.createTempFile("geoip-", ".idx");
+        try {
+            if (GeoIpIndex.isIndexFile(source)) {
+                Files.copy(source, mapped, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                GeoIpIndex.compile(source, columns, mapped);
+            }
+            return GeoIpIndex.open(mapped);
+        } finally {
+            // The mapping outlives the file on POSIX systems; elsewhere it goes on exit
+            try {
+                Files.delete(mapped);
+            } catch (IOException e) {
+                mapped.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Location of a literal IPv4/IPv6 address, or null when no database is
+     * loaded or no range covers it.
+     */
+    public LocationUtil.LocationInfo resolve(String ipAddress) {
+        GeoIpIndex current = index;
+        if (current == null || ipAddress == null) {
+            return null;
+        }
+        String[] fields = current.lookup(ipAddress.trim());
+        return fields == null ? null : new LocationUtil.LocationInfo(fields[0], fields[1], fields[2], fields[3]);
+    }
+}
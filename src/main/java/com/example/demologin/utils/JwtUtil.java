@@ -1,30 +1,31 @@
 package com.example.demologin.utils;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
-import javax.crypto.SecretKey;
-
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.demologin.cache.VerifiedClaimsCache;
 import com.example.demologin.entity.RefreshToken;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.TokenValidationException;
 import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.security.AccessTokenRevocationStore;
+import com.example.demologin.security.JtiRegistry;
+import com.example.demologin.security.JwtSigningKeys;
+import com.example.demologin.security.PermissionBitset;
+import com.example.demologin.security.PermissionRegistry;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,21 +38,16 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class JwtUtil {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
-
     @Value("${jwt.expiration.ms}")
     private int jwtExpirationMs;
 
     private final RefreshTokenRepository refreshTokenRepository;
-    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
-    /**
-     * Get signing key for JWT
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    private final VerifiedClaimsCache verifiedClaimsCache;
+    private final JtiRegistry jtiRegistry;
+    private final AccessTokenRevocationStore revocationStore;
+    private final PermissionRegistry permissionRegistry;
+    // Key material, kid selection and the shared parser
+    private final JwtSigningKeys signingKeys;
 
     /**
      * Generate JWT token for user
@@ -73,6 +69,19 @@ public class JwtUtil {
 
         claims.put("fullName", user.getFullName());
 
+        // Stateless authorization: permissions as a bitset over the registry ordinals
+        if (permissionRegistry.isEnabled()) {
+            Set<String> permissionCodes = user.getRoles().stream()
+                    .flatMap(role -> role.getPermissions().stream())
+                    .map(permission -> permission.getCode())
+                    .collect(Collectors.toSet());
+            PermissionRegistry.EncodedPermissions encoded = permissionRegistry.encode(permissionCodes);
+            if (encoded != null) {
+                claims.put("permVersion", encoded.version());
+                claims.put("permBits", encoded.bits());
+            }
+        }
+
         // do NOT include package type in the JWT; clients should query /api/quota
         // to avoid stale data when users upgrade/downgrade. Removing this also
         // simplifies token invalidation logic and keeps payload small.
@@ -87,12 +96,11 @@ public class JwtUtil {
                     .toEpochMilli());
         }
 
-        return Jwts.builder()
+        return signingKeys.sign(Jwts.builder()
                 .claims(claims)
                 .subject(String.valueOf(user.getUserId()))
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs)) // access token exp
-                .signWith(getSigningKey())
+                .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs))) // access token exp
                 .compact();
     }
 
@@ -183,39 +191,15 @@ public class JwtUtil {
     }
 
     /**
-     * Extract permissions from JWT token
+     * Extract the permission bitset from JWT token.
+     * Returns null when permissions must be resolved server-side from the roles
+     * (claim absent, bitset mode off, or minted under another registry version).
      */
-    public Set<String> extractPermissions(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            Object codesObj = claims.get("permissionCodes");
-            
-            if (codesObj instanceof List) {
-                @SuppressWarnings("unchecked")
-                List<String> codesList = (List<String>) codesObj;
-                return new HashSet<>(codesList);
-            } else if (codesObj instanceof Set) {
-                @SuppressWarnings("unchecked")
-                Set<String> codesSet = (Set<String>) codesObj;
-                return codesSet;
-            } else {
-                log.warn("Invalid permission format in token for user: {}", claims.getSubject());
-                throw new TokenValidationException("Invalid permission format in token", 
-                    TokenValidationException.TokenErrorType.MISSING_PERMISSIONS);
-            }
-        } catch (ExpiredJwtException e) {
-            log.warn("Expired token used by user: {}", e.getClaims().getSubject());
-            throw new TokenValidationException("Token expired", 
-                TokenValidationException.TokenErrorType.EXPIRED, e);
-        } catch (JwtException e) {
-            log.warn("Invalid token: {}", e.getMessage());
-            throw new TokenValidationException("Token invalid", 
-                TokenValidationException.TokenErrorType.INVALID_SIGNATURE, e);
-        } catch (Exception e) {
-            log.warn("Token validation failed: {}", e.getMessage());
-            throw new TokenValidationException("Token validation failed", 
-                TokenValidationException.TokenErrorType.GENERAL_ERROR, e);
-        }
+    public PermissionBitset extractPermissions(String token) {
+        Claims claims = extractAllClaims(token);
+        return permissionRegistry.decode(
+                claims.get("permVersion", Integer.class),
+                claims.get("permBits", String.class));
     }
 
     /**
@@ -284,21 +268,36 @@ public class JwtUtil {
     }
 
     /**
-     * Extract all claims from JWT token
+     * Extract all claims from JWT token.
+     * Verified claims are cached until the token's exp, so one request
+     * only pays for signature verification and JSON parsing once.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims cached = verifiedClaimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = signingKeys.parser().parseSignedClaims(token).getPayload();
+        verifiedClaimsCache.put(token, claims);
+        return claims;
     }
 
     public void revokeToken(String jti, Date expiryDate) {
-        revokedTokens.put(jti, expiryDate.getTime());
+        revocationStore.revoke(jti, expiryDate.getTime());
+    }
+
+    /**
+     * O(1) check against access tokens revoked before their exp
+     */
+    public boolean isTokenRevoked(String token) {
+        return revocationStore.isRevoked(extractJti(token));
     }
 
     public boolean validateTokenWithJtiCheck(String token, User user) {
+        return validateTokenWithJtiCheck(token, user.getUserId(), user.getTokenVersion());
+    }
+
+    public boolean validateTokenWithJtiCheck(String token, Long userId, int currentTokenVersion) {
         try {
             Claims claims = extractAllClaims(token);
             String userIdFromToken = claims.getSubject(); // giờ subject là userId
@@ -311,19 +310,19 @@ public class JwtUtil {
                 return false;
             }
 
-            // Check JTI có tồn tại trong DB không
-            boolean jtiExists = refreshTokenRepository.existsByJti(jti);
+            // Check JTI còn tồn tại (registry in-memory, chỉ fallback DB khi miss)
+            boolean jtiExists = jtiRegistry.isActive(jti);
             if (!jtiExists) {
                 log.warn("Token JTI {} not found in DB for userId: {}", jti, userIdFromToken);
                 return false;
             }
 
-            return userIdFromToken.equals(String.valueOf(user.getUserId())) // so sánh theo id
-                    && tokenVersion.equals(user.getTokenVersion())
+            return userIdFromToken.equals(String.valueOf(userId)) // so sánh theo id
+                    && tokenVersion.equals(currentTokenVersion)
                     && !isTokenExpired(token);
         } catch (Exception e) {
             log.debug("Token validation with JTI failed for userId {}: {}",
-                    user.getUserId(), e.getMessage());
+                    userId, e.getMessage());
             return false;
         }
     }
@@ -0,0 +1,66 @@
+package com.example.demologin.utils;
+
+import com.example.demologin.exception.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort value and id of the last row
+ * returned. Clients get it as an opaque URL-safe token and send it back to
+ * fetch the rows after it, so each page is an index seek however deep it is.
+ * Time sort values are kept to the microsecond.
+ */
+public record KeysetCursor(long sortKey, long id) {
+
+    private static final String VERSION = "k1";
+
+    public static KeysetCursor of(Instant sortValue, Long id) {
+        return new KeysetCursor(ChronoUnit.MICROS.between(Instant.EPOCH, sortValue), id);
+    }
+
+    public static KeysetCursor of(LocalDateTime sortValue, Long id) {
+        return of(sortValue.toInstant(ZoneOffset.UTC), id);
+    }
+
+    // For lists ordered by id alone
+    public static KeysetCursor of(Long id) {
+        return new KeysetCursor(id, id);
+    }
+
+    public Instant instant() {
+        return Instant.EPOCH.plus(sortKey, ChronoUnit.MICROS);
+    }
+
+    public LocalDateTime localDateTime() {
+        return LocalDateTime.ofInstant(instant(), ZoneOffset.UTC);
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + sortKey + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The cursor in a request, or null for the first page (blank token).
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.US_ASCII)
+                    .split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new KeysetCursor(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
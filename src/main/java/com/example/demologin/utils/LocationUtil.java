@@ -1,19 +1,41 @@
 package com.example.demologin.utils;
 
+import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves client IPs to a location, from the offline {@link GeoIpResolver}
+ * when a database is configured. The remote APIs are only a fallback for
+ * addresses the database does not know (or when there is none), can be turned
+ * off with {@code geoip.remote-fallback.enabled}, and their answers are kept in
+ * a bounded LRU; failed lookups are remembered for
+ * {@code geoip.remote-fallback.unknown-ttl-ms} so an unresolvable address does
+ * not cost a round trip on every request.
+ * <p>
+ * {@link #getLocationIfCached} never calls out: on a miss it queues the remote
+ * lookup on a single background thread and answers "Unknown", so callers on a
+ * hot path (the activity-log writer) are never held up by the remote APIs.
+ */
 @Slf4j
 @Component
 public class LocationUtil {
@@ -25,8 +47,36 @@ public class LocationUtil {
     private static final String IPAPI_CO_URL = "https://ipapi.co/{ip}/json/";
 
     private final RestTemplate restTemplate;
-
-    public LocationUtil(RestTemplateBuilder restTemplateBuilder) {
+    private final GeoIpResolver geoIpResolver;
+    private final boolean remoteFallbackEnabled;
+    private final long unknownTtlNanos;
+    private final Map<String, RemoteResult> remoteResults;
+    private final Set<String> pendingLookups = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor lookupExecutor;
+
+    public LocationUtil(RestTemplateBuilder restTemplateBuilder,
+                        GeoIpResolver geoIpResolver,
+                        @Value("${geoip.remote-fallback.enabled:true}") boolean remoteFallbackEnabled,
+                        @Value("${geoip.remote-fallback.cache-size:10000}") int remoteCacheSize,
+                        @Value("${geoip.remote-fallback.unknown-ttl-ms:300000}") long unknownTtlMs,
+                        @Value("${geoip.remote-fallback.queue-size:1000}") int lookupQueueSize) {
+        this.geoIpResolver = geoIpResolver;
+        this.remoteFallbackEnabled = remoteFallbackEnabled;
+        this.unknownTtlNanos = TimeUnit.MILLISECONDS.toNanos(unknownTtlMs);
+        this.remoteResults = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RemoteResult> eldest) {
+                return size() > remoteCacheSize;
+            }
+        });
+        // One thread is plenty at the APIs' free-tier rate limits; when the queue is full the
+        // lookup is dropped and retried the next time the address is seen
+        this.lookupExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, lookupQueueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "geoip-remote-lookup");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
         this.restTemplate = restTemplateBuilder
                 .requestFactory(() -> {
                     SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
@@ -47,8 +97,48 @@ public class LocationUtil {
         private String countryCode;
     }
 
-    @Cacheable(value = "ipLocations", unless = "#result.city == null || #result.city.equals('Unknown')")
+    /** A remote answer; "Unknown" ones are only trusted until {@code unknownTtlNanos} has passed. */
+    private record RemoteResult(LocationInfo info, boolean unknown, long storedAtNanos) {
+    }
+
+    /** Resolves the address, calling the remote APIs on this thread when nothing local or cached knows it. */
     public LocationInfo getLocationFromIP(String ipAddress) {
+        LocationInfo known = resolveWithoutRemote(ipAddress);
+        if (known != null) {
+            return known;
+        }
+        return lookupAndCache(ipAddress);
+    }
+
+    /**
+     * Like {@link #getLocationFromIP} but never blocks on the network: an address
+     * that needs a remote lookup answers "Unknown" now and is looked up in the
+     * background, so later calls for it are served from the cache.
+     */
+    public LocationInfo getLocationIfCached(String ipAddress) {
+        LocationInfo known = resolveWithoutRemote(ipAddress);
+        if (known != null) {
+            return known;
+        }
+        if (pendingLookups.add(ipAddress)) {
+            try {
+                lookupExecutor.execute(() -> {
+                    try {
+                        lookupAndCache(ipAddress);
+                    } finally {
+                        pendingLookups.remove(ipAddress);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pendingLookups.remove(ipAddress);
+                log.debug("GeoIP remote lookup queue full, skipping {}", ipAddress);
+            }
+        }
+        return unknownLocation();
+    }
+
+    /** The answer that needs no remote call, or null when only the remote APIs could tell. */
+    private LocationInfo resolveWithoutRemote(String ipAddress) {
         if (ipAddress == null || ipAddress.trim().isEmpty()) {
             return unknownLocation();
         }
@@ -58,6 +148,44 @@ public class LocationUtil {
             return localLocation();
         }
 
+        LocationInfo offline = geoIpResolver.resolve(ipAddress);
+        if (offline != null) {
+            return offline;
+        }
+        if (!remoteFallbackEnabled) {
+            return unknownLocation();
+        }
+
+        RemoteResult cached = remoteResults.get(ipAddress);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.unknown() && System.nanoTime() - cached.storedAtNanos() > unknownTtlNanos) {
+            remoteResults.remove(ipAddress, cached);
+            return null;
+        }
+        return copyOf(cached.info());
+    }
+
+    private LocationInfo lookupAndCache(String ipAddress) {
+        LocationInfo remote = lookupRemote(ipAddress);
+        remoteResults.put(ipAddress,
+                new RemoteResult(copyOf(remote), "Unknown".equals(remote.getCity()), System.nanoTime()));
+        return remote;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    private static LocationInfo copyOf(LocationInfo info) {
+        // LocationInfo is mutable; never hand out the cached instance
+        return new LocationInfo(info.getCity(), info.getRegion(), info.getCountry(), info.getCountryCode());
+    }
+
+    /** Package-private so tests can stub the network without a server. */
+    LocationInfo lookupRemote(String ipAddress) {
         // Try primary API first
         LocationInfo locationInfo = tryIpApi(ipAddress);
         if (!"Unknown".equals(locationInfo.getCity())) {
@@ -1,180 +1,258 @@
 package com.example.demologin.utils;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
+import lombok.ToString;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Browser, OS and device detection from a User-Agent header. Each marker is
+ * searched for once per string and version patterns are compiled once. Traffic
+ * comes from few distinct User-Agents, so results are kept in a bounded LRU
+ * keyed by the raw header; {@link DeviceInfo} is immutable and shared.
+ */
 @Component
 public class UserAgentUtil {
 
+    private static final int CACHE_STRIPES = 16;
+    private static final int CACHE_ENTRIES_PER_STRIPE = 64;
+    // Longer headers are parsed every time rather than allowed to fill the cache
+    private static final int MAX_CACHED_LENGTH = 512;
+
+    private static final Pattern CHROME_VERSION = Pattern.compile("Chrome/([0-9.]+)");
+    private static final Pattern FIREFOX_VERSION = Pattern.compile("Firefox/([0-9.]+)");
+    private static final Pattern SAFARI_VERSION = Pattern.compile("Version/([0-9.]+).*Safari/");
+    private static final Pattern EDGE_VERSION = Pattern.compile("Edg/([0-9.]+)");
+    private static final Pattern OPR_VERSION = Pattern.compile("OPR/([0-9.]+)");
+    private static final Pattern OPERA_VERSION = Pattern.compile("Opera/([0-9.]+)");
+    private static final Pattern MSIE_VERSION = Pattern.compile("MSIE ([0-9.]+)");
+    private static final Pattern RV_VERSION = Pattern.compile("rv:([0-9.]+)");
+    private static final Pattern ANDROID_VERSION = Pattern.compile("Android ([0-9.]+)");
+    private static final Pattern IOS_VERSION = Pattern.compile("OS ([0-9_]+)");
+    private static final Pattern MAC_VERSION = Pattern.compile("Mac OS X ([0-9_]+)");
+
+    private static final DeviceInfo UNKNOWN = new DeviceInfo("Unknown", "Unknown", "Unknown", "Unknown", "Unknown");
+
+    @SuppressWarnings("unchecked")
+    private static final LinkedHashMap<String, DeviceInfo>[] CACHE = new LinkedHashMap[CACHE_STRIPES];
+
+    static {
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            CACHE[i] = new LinkedHashMap<>(CACHE_ENTRIES_PER_STRIPE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DeviceInfo> eldest) {
+                    return size() > CACHE_ENTRIES_PER_STRIPE;
+                }
+            };
+        }
+    }
+
     @Getter
-    @Setter
     @AllArgsConstructor
-    public static class DeviceInfo {
-        private String browser;
-        private String browserVersion;
-        private String operatingSystem;
-        private String device;
-        private String deviceType;
+    @EqualsAndHashCode
+    @ToString
+    public static final class DeviceInfo {
+        private final String browser;
+        private final String browserVersion;
+        private final String operatingSystem;
+        private final String device;
+        private final String deviceType;
     }
 
     public static DeviceInfo parseUserAgent(String userAgent) {
         if (userAgent == null || userAgent.trim().isEmpty()) {
-            return new DeviceInfo("Unknown", "Unknown", "Unknown", "Unknown", "Unknown");
+            return UNKNOWN;
+        }
+        if (userAgent.length() > MAX_CACHED_LENGTH) {
+            return parse(userAgent);
+        }
+
+        LinkedHashMap<String, DeviceInfo> stripe = CACHE[(userAgent.hashCode() & 0x7fffffff) % CACHE_STRIPES];
+        DeviceInfo info;
+        synchronized (stripe) {
+            info = stripe.get(userAgent);
+        }
+        if (info == null) {
+            info = parse(userAgent);
+            synchronized (stripe) {
+                stripe.put(userAgent, info);
+            }
         }
+        return info;
+    }
+
+    private static DeviceInfo parse(String userAgent) {
+        Markers m = new Markers(userAgent);
+        String browser = extractBrowser(m);
+        return new DeviceInfo(browser, extractBrowserVersion(userAgent, browser, m),
+                extractOperatingSystem(userAgent, m), extractDevice(m), extractDeviceType(m));
+    }
 
-        String browser = extractBrowser(userAgent);
-        String browserVersion = extractBrowserVersion(userAgent, browser);
-        String operatingSystem = extractOperatingSystem(userAgent);
-        String device = extractDevice(userAgent);
-        String deviceType = extractDeviceType(userAgent);
+    /**
+     * Every substring the rules below test for, searched for once.
+     */
+    private static final class Markers {
+        final boolean edg;
+        final boolean chrome;
+        final boolean chromium;
+        final boolean firefox;
+        final boolean safari;
+        final boolean opera;
+        final boolean opr;
+        final boolean msie;
+        final boolean trident;
+        final boolean android;
+        final boolean mobile;
+        final boolean iphone;
+        final boolean iphoneOs;
+        final boolean ios;
+        final boolean ipad;
+        final boolean tablet;
+        final boolean windowsNt;
+        final boolean windowsPhone;
+        final boolean windows;
+        final boolean blackBerry;
+        final boolean macOsX;
+        final boolean mac;
+        final boolean linux;
 
-        return new DeviceInfo(browser, browserVersion, operatingSystem, device, deviceType);
+        Markers(String ua) {
+            edg = ua.contains("Edg/");
+            chrome = ua.contains("Chrome/");
+            chromium = ua.contains("Chromium/");
+            firefox = ua.contains("Firefox/");
+            safari = ua.contains("Safari/");
+            opera = ua.contains("Opera/");
+            opr = ua.contains("OPR/");
+            msie = ua.contains("MSIE");
+            trident = ua.contains("Trident/");
+            android = ua.contains("Android");
+            mobile = ua.contains("Mobile");
+            iphone = ua.contains("iPhone");
+            iphoneOs = iphone && ua.contains("iPhone OS");
+            ios = ua.contains("iOS");
+            ipad = ua.contains("iPad");
+            tablet = ua.contains("Tablet");
+            windows = ua.contains("Windows");
+            windowsNt = windows && ua.contains("Windows NT");
+            windowsPhone = windows && ua.contains("Windows Phone");
+            blackBerry = ua.contains("BlackBerry");
+            mac = ua.contains("Mac");
+            macOsX = mac && ua.contains("Mac OS X");
+            linux = ua.contains("Linux");
+        }
     }
 
-    private static String extractBrowser(String userAgent) {
-        if (userAgent.contains("Edg/")) {
+    private static String extractBrowser(Markers m) {
+        if (m.edg) {
             return "Microsoft Edge";
-        } else if (userAgent.contains("Chrome/") && !userAgent.contains("Chromium/")) {
+        } else if (m.chrome && !m.chromium) {
             return "Google Chrome";
-        } else if (userAgent.contains("Firefox/")) {
+        } else if (m.firefox) {
             return "Mozilla Firefox";
-        } else if (userAgent.contains("Safari/") && !userAgent.contains("Chrome/")) {
+        } else if (m.safari && !m.chrome) {
             return "Safari";
-        } else if (userAgent.contains("Opera/") || userAgent.contains("OPR/")) {
+        } else if (m.opera || m.opr) {
             return "Opera";
-        } else if (userAgent.contains("MSIE") || userAgent.contains("Trident/")) {
+        } else if (m.msie || m.trident) {
             return "Internet Explorer";
-        } else if (userAgent.contains("Chromium/")) {
+        } else if (m.chromium) {
             return "Chromium";
         }
         return "Unknown Browser";
     }
 
-    private static String extractBrowserVersion(String userAgent, String browser) {
-        Pattern pattern = null;
-        
-        switch (browser) {
-            case "Google Chrome":
-                pattern = Pattern.compile("Chrome/([0-9.]+)");
-                break;
-            case "Mozilla Firefox":
-                pattern = Pattern.compile("Firefox/([0-9.]+)");
-                break;
-            case "Safari":
-                pattern = Pattern.compile("Version/([0-9.]+).*Safari/");
-                break;
-            case "Microsoft Edge":
-                pattern = Pattern.compile("Edg/([0-9.]+)");
-                break;
-            case "Opera":
-                if (userAgent.contains("OPR/")) {
-                    pattern = Pattern.compile("OPR/([0-9.]+)");
-                } else {
-                    pattern = Pattern.compile("Opera/([0-9.]+)");
-                }
-                break;
-            case "Internet Explorer":
-                if (userAgent.contains("MSIE")) {
-                    pattern = Pattern.compile("MSIE ([0-9.]+)");
-                } else {
-                    pattern = Pattern.compile("rv:([0-9.]+)");
-                }
-                break;
-        }
-
+    private static String extractBrowserVersion(String userAgent, String browser, Markers m) {
+        Pattern pattern = switch (browser) {
+            case "Google Chrome" -> CHROME_VERSION;
+            case "Mozilla Firefox" -> FIREFOX_VERSION;
+            case "Safari" -> SAFARI_VERSION;
+            case "Microsoft Edge" -> EDGE_VERSION;
+            case "Opera" -> m.opr ? OPR_VERSION : OPERA_VERSION;
+            case "Internet Explorer" -> m.msie ? MSIE_VERSION : RV_VERSION;
+            default -> null;
+        };
         if (pattern != null) {
-            Matcher matcher = pattern.matcher(userAgent);
-            if (matcher.find()) {
-                return matcher.group(1);
+            String version = firstGroup(pattern, userAgent);
+            if (version != null) {
+                return version;
             }
         }
         return "Unknown";
     }
 
-    private static String extractOperatingSystem(String userAgent) {
-        if (userAgent.contains("Android")) {
-            Pattern pattern = Pattern.compile("Android ([0-9.]+)");
-            Matcher matcher = pattern.matcher(userAgent);
-            if (matcher.find()) {
-                return "Android " + matcher.group(1);
-            }
-            return "Android";
-        } else if (userAgent.contains("iPhone OS") || userAgent.contains("iOS")) {
-            Pattern pattern = Pattern.compile("OS ([0-9_]+)");
-            Matcher matcher = pattern.matcher(userAgent);
-            if (matcher.find()) {
-                return "iOS " + matcher.group(1).replace("_", ".");
+    private static String extractOperatingSystem(String userAgent, Markers m) {
+        if (m.android) {
+            String version = firstGroup(ANDROID_VERSION, userAgent);
+            return version != null ? "Android " + version : "Android";
+        } else if (m.iphoneOs || m.ios) {
+            String version = firstGroup(IOS_VERSION, userAgent);
+            return version != null ? "iOS " + version.replace('_', '.') : "iOS";
+        } else if (m.windowsNt) {
+            if (userAgent.contains("Windows NT 10.0")) {
+                return "Windows 10/11";
+            } else if (userAgent.contains("Windows NT 6.3")) {
+                return "Windows 8.1";
+            } else if (userAgent.contains("Windows NT 6.2")) {
+                return "Windows 8";
+            } else if (userAgent.contains("Windows NT 6.1")) {
+                return "Windows 7";
             }
-            return "iOS";
-        } else if (userAgent.contains("Windows NT 10.0")) {
-            return "Windows 10/11";
-        } else if (userAgent.contains("Windows NT 6.3")) {
-            return "Windows 8.1";
-        } else if (userAgent.contains("Windows NT 6.2")) {
-            return "Windows 8";
-        } else if (userAgent.contains("Windows NT 6.1")) {
-            return "Windows 7";
-        } else if (userAgent.contains("Windows NT")) {
             return "Windows";
-        } else if (userAgent.contains("Mac OS X")) {
-            Pattern pattern = Pattern.compile("Mac OS X ([0-9_]+)");
-            Matcher matcher = pattern.matcher(userAgent);
-            if (matcher.find()) {
-                return "macOS " + matcher.group(1).replace("_", ".");
-            }
-            return "macOS";
-        } else if (userAgent.contains("Linux")) {
+        } else if (m.macOsX) {
+            String version = firstGroup(MAC_VERSION, userAgent);
+            return version != null ? "macOS " + version.replace('_', '.') : "macOS";
+        } else if (m.linux) {
             return "Linux";
         }
         return "Unknown OS";
     }
 
-    private static String extractDevice(String userAgent) {
-        if (userAgent.contains("iPhone")) {
+    private static String extractDevice(Markers m) {
+        if (m.iphone) {
             return "iPhone";
-        } else if (userAgent.contains("iPad")) {
+        } else if (m.ipad) {
             return "iPad";
-        } else if (userAgent.contains("Android")) {
-            if (userAgent.contains("Mobile")) {
-                return "Android Phone";
-            } else {
-                return "Android Tablet";
-            }
-        } else if (userAgent.contains("Windows Phone")) {
+        } else if (m.android) {
+            return m.mobile ? "Android Phone" : "Android Tablet";
+        } else if (m.windowsPhone) {
             return "Windows Phone";
-        } else if (userAgent.contains("BlackBerry")) {
+        } else if (m.blackBerry) {
             return "BlackBerry";
-        } else if (userAgent.contains("Mac")) {
+        } else if (m.mac) {
             return "Mac Computer";
-        } else if (userAgent.contains("Windows")) {
+        } else if (m.windows) {
             return "Windows Computer";
-        } else if (userAgent.contains("Linux")) {
+        } else if (m.linux) {
             return "Linux Computer";
         }
         return "Unknown Device";
     }
 
-    private static String extractDeviceType(String userAgent) {
-        if (userAgent.contains("Mobile") || userAgent.contains("iPhone") || 
-            userAgent.contains("Android") && userAgent.contains("Mobile")) {
+    private static String extractDeviceType(Markers m) {
+        if (m.mobile || m.iphone) {
             return "Mobile";
-        } else if (userAgent.contains("Tablet") || userAgent.contains("iPad") ||
-                   userAgent.contains("Android") && !userAgent.contains("Mobile")) {
+        } else if (m.tablet || m.ipad || m.android) {
             return "Tablet";
-        } else {
-            return "Desktop";
         }
+        return "Desktop";
+    }
+
+    private static String firstGroup(Pattern pattern, String userAgent) {
+        Matcher matcher = pattern.matcher(userAgent);
+        return matcher.find() ? matcher.group(1) : null;
     }
 
     // Utility method để format thông tin device thành string đẹp
     public static String formatDeviceInfo(DeviceInfo deviceInfo) {
-        return String.format("%s %s on %s (%s)", 
-            deviceInfo.getBrowser(), 
+        return String.format("%s %s on %s (%s)",
+            deviceInfo.getBrowser(),
             deviceInfo.getBrowserVersion(),
             deviceInfo.getOperatingSystem(),
             deviceInfo.getDeviceType()
@@ -0,0 +1,16 @@
+-- Drops the device and location columns user_activity_logs kept before they moved
+-- to activity_devices / activity_locations. Run once ActivityDimensionBackfill has
+-- logged that older rows were moved (or the table had none), and check first:
+--   SELECT COUNT(*) FROM user_activity_logs WHERE user_agent IS NOT NULL OR city IS NOT NULL;
+-- should be 0. Works on PostgreSQL and MySQL.
+ALTER TABLE user_activity_logs
+    DROP COLUMN user_agent,
+    DROP COLUMN browser,
+    DROP COLUMN browser_version,
+    DROP COLUMN operating_system,
+    DROP COLUMN device,
+    DROP COLUMN device_type,
+    DROP COLUMN city,
+    DROP COLUMN region,
+    DROP COLUMN country,
+    DROP COLUMN country_code;
@@ -0,0 +1,29 @@
+-- Converts user_activity_logs into a table range-partitioned by month on `timestamp`.
+-- Run once, with the application stopped; the table is rebuilt, so allow time on
+-- large tables. ActivityLogRetention then splits the coming months off `pmax` and
+-- drops expired months; Hibernate (ddl-auto=update) leaves the layout alone.
+
+-- Unique keys of a partitioned table must include the partition key
+ALTER TABLE user_activity_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, `timestamp`);
+
+-- One partition per month, from the oldest row to the current month, then pmax,
+-- which must stay last. The application splits the following months off pmax at
+-- startup, while pmax is still empty. Needs MySQL 8.0 (recursive CTE).
+SET SESSION group_concat_max_len = 1048576;
+
+WITH RECURSIVE months (month) AS (
+    SELECT CAST(DATE_FORMAT(COALESCE((SELECT MIN(`timestamp`) FROM user_activity_logs), NOW()), '%Y-%m-01') AS DATE)
+    UNION ALL
+    SELECT month + INTERVAL 1 MONTH FROM months WHERE month < CAST(DATE_FORMAT(NOW(), '%Y-%m-01') AS DATE)
+)
+SELECT CONCAT('ALTER TABLE user_activity_logs PARTITION BY RANGE COLUMNS(`timestamp`) (',
+              GROUP_CONCAT('PARTITION p', DATE_FORMAT(month, '%Y%m'),
+                           ' VALUES LESS THAN (''', month + INTERVAL 1 MONTH, ''')'
+                           ORDER BY month SEPARATOR ', '),
+              ', PARTITION pmax VALUES LESS THAN (MAXVALUE))')
+INTO @partition_ddl
+FROM months;
+
+PREPARE partition_stmt FROM @partition_ddl;
+EXECUTE partition_stmt;
+DEALLOCATE PREPARE partition_stmt;
@@ -0,0 +1,39 @@
+-- Converts user_activity_logs into a table range-partitioned by month on "timestamp".
+-- Run once, with the application stopped. ActivityLogRetention then creates the
+-- coming months' partitions and drops expired ones; Hibernate (ddl-auto=update)
+-- leaves the existing layout alone.
+BEGIN;
+
+ALTER TABLE user_activity_logs RENAME TO user_activity_logs_unpartitioned;
+
+CREATE TABLE user_activity_logs (
+    LIKE user_activity_logs_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY,
+    -- Unique keys of a partitioned table must include the partition key
+    PRIMARY KEY (id, "timestamp")
+) PARTITION BY RANGE ("timestamp");
+
+-- One partition per month, from the oldest row to two months ahead
+DO $$
+DECLARE
+    month date := date_trunc('month', COALESCE((SELECT MIN("timestamp") FROM user_activity_logs_unpartitioned), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + interval '2 months' LOOP
+        EXECUTE format('CREATE TABLE user_activity_logs_p%s PARTITION OF user_activity_logs FOR VALUES FROM (%L) TO (%L)',
+                       to_char(month, 'YYYYMM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO user_activity_logs OVERRIDING SYSTEM VALUE SELECT * FROM user_activity_logs_unpartitioned;
+SELECT setval(pg_get_serial_sequence('user_activity_logs', 'id'),
+              COALESCE((SELECT MAX(id) FROM user_activity_logs), 0) + 1, false);
+
+CREATE INDEX idx_user_activity_logs_fingerprint ON user_activity_logs (fingerprint);
+CREATE INDEX idx_user_activity_logs_timestamp_id ON user_activity_logs ("timestamp", id);
+CREATE INDEX idx_user_activity_logs_user_timestamp_id ON user_activity_logs (user_id, "timestamp", id);
+CREATE INDEX idx_user_activity_logs_type_timestamp_id ON user_activity_logs (activity_type, "timestamp", id);
+CREATE INDEX idx_user_activity_logs_status_timestamp_id ON user_activity_logs (status, "timestamp", id);
+
+DROP TABLE user_activity_logs_unpartitioned;
+
+COMMIT;
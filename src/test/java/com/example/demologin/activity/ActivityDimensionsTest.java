@@ -0,0 +1,135 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.entity.UserActivityLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityDimensionsTest {
+
+    private static final String CHROME = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0";
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:activity-dimensions;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        // The log table as it was before the dictionaries, plus their id columns
+        jdbc.execute("CREATE TABLE user_activity_logs (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "user_agent VARCHAR(1000), browser VARCHAR(100), browser_version VARCHAR(50), "
+                + "operating_system VARCHAR(100), device VARCHAR(100), device_type VARCHAR(20), city VARCHAR(100), "
+                + "region VARCHAR(100), country VARCHAR(100), country_code VARCHAR(10), device_id INT, location_id INT)");
+        jdbc.execute("CREATE TABLE activity_devices (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "hash BIGINT NOT NULL UNIQUE, user_agent VARCHAR(1000), browser VARCHAR(100), "
+                + "browser_version VARCHAR(50), operating_system VARCHAR(100), device VARCHAR(100), "
+                + "device_type VARCHAR(20))");
+        jdbc.execute("CREATE TABLE activity_locations (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "hash BIGINT NOT NULL UNIQUE, city VARCHAR(100), region VARCHAR(100), country VARCHAR(100), "
+                + "country_code VARCHAR(10))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE user_activity_logs, activity_devices, activity_locations");
+    }
+
+    private ActivityDimensions dimensions() {
+        return new ActivityDimensions(dataSource, new SimpleMeterRegistry(), 100);
+    }
+
+    private static UserActivityLog logged(String userAgent, String city) {
+        return UserActivityLog.builder()
+                .userAgent(userAgent).browser("Google Chrome").browserVersion("120.0")
+                .operatingSystem("Windows 10/11").device("Windows Computer").deviceType("Desktop")
+                .city(city).region(city).country("Vietnam").countryCode("VN")
+                .build();
+    }
+
+    @Test
+    void intern_storesEachValueOnce_andResolvesItFromAnotherInstance() {
+        ActivityDimensions dimensions = dimensions();
+        UserActivityLog first = logged(CHROME, "Hanoi");
+        UserActivityLog second = logged(CHROME, "Hue");
+        dimensions.intern(first);
+        dimensions.intern(second);
+        dimensions.intern(logged(CHROME, "Hanoi"));
+
+        assertEquals(first.getDeviceId(), second.getDeviceId());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM activity_devices", Integer.class));
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM activity_locations", Integer.class));
+        assertNull(dimensions.locationId(new ActivityDimensions.Location(null, null, null, null)));
+
+        // A fresh instance, like another node, finds the stored values
+        ActivityDimensions other = dimensions();
+        assertEquals(first.getLocationId(), other.locationId(new ActivityDimensions.Location("Hanoi", "Hanoi", "Vietnam", "VN")));
+        UserActivityLog read = UserActivityLog.builder().deviceId(second.getDeviceId()).locationId(second.getLocationId()).build();
+        other.preload(List.of(read));
+        other.resolve(read);
+        assertEquals(CHROME, read.getUserAgent());
+        assertEquals("Desktop", read.getDeviceType());
+        assertEquals("Hue", read.getCity());
+        assertEquals("VN", read.getCountryCode());
+    }
+
+    @Test
+    void fullCache_evictsLeastRecentlyUsed_andStillResolves() {
+        ActivityDimensions dimensions = new ActivityDimensions(dataSource, new SimpleMeterRegistry(), 1);
+        UserActivityLog hanoi = logged(CHROME, "Hanoi");
+        UserActivityLog hue = logged(CHROME, "Hue");
+        dimensions.intern(hanoi);
+        dimensions.intern(hue);
+        UserActivityLog again = logged(CHROME, "Hanoi");
+        dimensions.intern(again);
+
+        assertEquals(hanoi.getLocationId(), again.getLocationId());
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM activity_locations", Integer.class));
+        UserActivityLog read = UserActivityLog.builder().locationId(hue.getLocationId()).build();
+        dimensions.resolve(read);
+        assertEquals("Hue", read.getCity());
+    }
+
+    @Test
+    void backfill_movesOlderRowsIntoTheDictionaries() {
+        for (int i = 0; i < 5; i++) {
+            jdbc.update("INSERT INTO user_activity_logs (user_agent, browser, device_type, city, country_code) "
+                    + "VALUES (?, 'Google Chrome', 'Desktop', 'Hanoi', 'VN')", CHROME);
+        }
+        jdbc.update("INSERT INTO user_activity_logs (user_agent) VALUES (NULL)");
+        ActivityDimensions dimensions = dimensions();
+
+        ActivityDimensionBackfill backfill = new ActivityDimensionBackfill(dataSource, dimensions, true, 2, 2);
+
+        // Two chunks of two per run, then the last row, then nothing
+        assertEquals(4, backfill.backfill());
+        assertFalse(backfill.isDone());
+        assertEquals(1, backfill.backfill());
+        assertEquals(0, backfill.backfill());
+        assertTrue(backfill.isDone());
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT device_id, location_id, user_agent, city FROM user_activity_logs WHERE device_id IS NOT NULL");
+        assertEquals(5, rows.size());
+        assertEquals(1, rows.stream().map(row -> row.get("DEVICE_ID")).distinct().count());
+        assertNull(rows.get(0).get("USER_AGENT"));
+        assertNull(rows.get(0).get("CITY"));
+        UserActivityLog read = UserActivityLog.builder()
+                .deviceId((Integer) rows.get(0).get("DEVICE_ID")).locationId((Integer) rows.get(0).get("LOCATION_ID")).build();
+        dimensions.resolve(read);
+        assertEquals("Google Chrome", read.getBrowser());
+        assertNotNull(read.getCity());
+        assertEquals(0, new ActivityDimensionBackfill(dataSource, dimensions, true, 2, 2).backfill());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.enums.ActivityType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityLogExporterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ActivityLogExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:activity-export;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE user_activity_logs (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "activity_type VARCHAR(64) NOT NULL, user_id BIGINT, full_name VARCHAR(100), "
+                + "timestamp TIMESTAMP NOT NULL, status VARCHAR(20) NOT NULL, details VARCHAR(500), "
+                + "ip_address VARCHAR(45), fingerprint BIGINT, device_id INT, location_id INT)");
+        jdbc.execute("CREATE TABLE activity_devices (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "hash BIGINT NOT NULL UNIQUE, user_agent VARCHAR(1000), browser VARCHAR(100), "
+                + "browser_version VARCHAR(50), operating_system VARCHAR(100), device VARCHAR(100), "
+                + "device_type VARCHAR(20))");
+        jdbc.execute("CREATE TABLE activity_locations (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "hash BIGINT NOT NULL UNIQUE, city VARCHAR(100), region VARCHAR(100), country VARCHAR(100), "
+                + "country_code VARCHAR(10))");
+        jdbc.update("INSERT INTO activity_locations (id, hash, city) VALUES (1, 1, 'Hanoi')");
+        // Fetch size smaller than the result, so the cursor makes several round trips
+        exporter = new ActivityLogExporter(dataSource, new DataSourceTransactionManager(dataSource), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE user_activity_logs, activity_devices, activity_locations");
+    }
+
+    private void insert(ActivityType type, Long userId, String details, LocalDateTime timestamp) {
+        jdbc.update("INSERT INTO user_activity_logs (activity_type, user_id, full_name, timestamp, status, details, "
+                        + "ip_address, location_id) VALUES (?, ?, ?, ?, 'SUCCESS', ?, '10.0.0.1', 1)",
+                type.name(), userId, userId == null ? null : "User " + userId, Timestamp.valueOf(timestamp), details);
+    }
+
+    private static UserActivityLogExportRequest request(LocalDate start, LocalDate end) {
+        UserActivityLogExportRequest request = new UserActivityLogExportRequest();
+        request.setStartDate(start);
+        request.setEndDate(end);
+        return request;
+    }
+
+    @Test
+    void csv_coversTheWholeDateRange_andQuotesFieldsThatNeedIt() throws IOException {
+        insert(ActivityType.LOGIN_ATTEMPT, 1L, "plain", DAY.atTime(0, 0));
+        insert(ActivityType.LOGOUT, 2L, "says \"hi\", twice", DAY.atTime(23, 59, 59));
+        insert(ActivityType.LOGIN_ATTEMPT, null, "next day", DAY.plusDays(1).atTime(0, 0));
+        insert(ActivityType.LOGIN_ATTEMPT, 3L, "before", DAY.minusDays(1).atTime(12, 0));
+        for (int i = 0; i < 5; i++) {
+            insert(ActivityType.REGISTRATION, null, "burst " + i, DAY.atTime(12, i));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exporter.export(request(DAY, DAY), ActivityLogExporter.Format.CSV, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(7, count);
+        assertEquals(8, lines.size());
+        assertEquals(String.join(",", ActivityLogExporter.COLUMNS), lines.get(0));
+        assertTrue(lines.get(1).startsWith("1,2024-03-10T00:00,LOGIN_ATTEMPT,SUCCESS,1,User 1,10.0.0.1,"));
+        assertTrue(lines.get(2).endsWith(",Hanoi,,,,\"says \"\"hi\"\", twice\""));
+    }
+
+    @Test
+    void ndjsonGzip_appliesTheOptionalFilters() throws IOException {
+        insert(ActivityType.LOGIN_ATTEMPT, 1L, "one", DAY.atTime(8, 0));
+        insert(ActivityType.LOGOUT, 1L, "two", DAY.atTime(9, 0));
+        insert(ActivityType.LOGIN_ATTEMPT, 2L, "three", DAY.atTime(10, 0));
+        insert(ActivityType.LOGIN_ATTEMPT, 1L, "four", DAY.atTime(11, 0));
+        UserActivityLogExportRequest request = request(DAY, DAY);
+        request.setUserId(1L);
+        request.setActivityType(ActivityType.LOGIN_ATTEMPT);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(request, ActivityLogExporter.Format.NDJSON, true, out);
+
+        String text = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> rows = text.lines().map(line -> {
+            try {
+                return mapper.readTree(line);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }).toList();
+        assertEquals(List.of("one", "four"), rows.stream().map(row -> row.get("details").asText()).toList());
+        assertEquals(1L, rows.get(0).get("userId").asLong());
+        assertEquals("2024-03-10T08:00", rows.get(0).get("timestamp").asText());
+        assertTrue(rows.get(0).get("browser").isNull());
+    }
+}
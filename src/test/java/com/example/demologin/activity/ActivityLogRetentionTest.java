@@ -0,0 +1,127 @@
+package com.example.demologin.activity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ActivityLogRetentionTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2024, 6);
+
+    @TempDir
+    Path archiveDir;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:activity-retention;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE user_activity_logs (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "activity_type VARCHAR(64) NOT NULL, user_id BIGINT, full_name VARCHAR(100), "
+                + "timestamp TIMESTAMP NOT NULL, status VARCHAR(20) NOT NULL, details VARCHAR(500), "
+                + "ip_address VARCHAR(45), fingerprint BIGINT, device_id INT, location_id INT)");
+        jdbc.execute("CREATE TABLE activity_devices (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "hash BIGINT NOT NULL UNIQUE, user_agent VARCHAR(1000), browser VARCHAR(100), "
+                + "browser_version VARCHAR(50), operating_system VARCHAR(100), device VARCHAR(100), "
+                + "device_type VARCHAR(20))");
+        jdbc.execute("CREATE TABLE activity_locations (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "hash BIGINT NOT NULL UNIQUE, city VARCHAR(100), region VARCHAR(100), country VARCHAR(100), "
+                + "country_code VARCHAR(10))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE user_activity_logs, activity_devices, activity_locations");
+    }
+
+    private void insert(LocalDateTime timestamp, int count) {
+        for (int i = 0; i < count; i++) {
+            jdbc.update("INSERT INTO user_activity_logs (activity_type, timestamp, status) VALUES ('LOGIN_ATTEMPT', ?, 'SUCCESS')",
+                    Timestamp.valueOf(timestamp.plusMinutes(i)));
+        }
+    }
+
+    private ActivityLogRetention retention(int months, String archive) {
+        ActivityLogExporter exporter = new ActivityLogExporter(dataSource, new DataSourceTransactionManager(dataSource), 100);
+        return new ActivityLogRetention(dataSource, exporter, months, 2, 0, archive, 2);
+    }
+
+    @Test
+    void expiredMonths_areArchivedThenDeletedInChunks() throws IOException {
+        insert(LocalDateTime.of(2024, 1, 15, 8, 0), 5);
+        // February has nothing, so no archive is written for it
+        insert(LocalDateTime.of(2024, 3, 31, 23, 0), 3);
+        insert(LocalDateTime.of(2024, 4, 1, 0, 0), 4);
+        insert(LocalDateTime.of(2024, 6, 2, 0, 0), 1);
+
+        retention(2, archiveDir.toString()).run(CURRENT);
+
+        assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM user_activity_logs", Integer.class));
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2024, 4, 1, 0, 0)),
+                jdbc.queryForObject("SELECT MIN(timestamp) FROM user_activity_logs", Timestamp.class));
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            assertEquals(List.of("activity-logs-2024-01.csv.gz", "activity-logs-2024-03.csv.gz"),
+                    files.map(path -> path.getFileName().toString()).sorted().toList());
+        }
+        // Header plus one line per archived row
+        assertEquals(6, gunzippedLines(archiveDir.resolve("activity-logs-2024-01.csv.gz")));
+        assertEquals(4, gunzippedLines(archiveDir.resolve("activity-logs-2024-03.csv.gz")));
+    }
+
+    @Test
+    void interruptedRun_archivesTheMonthOnce_andStops() throws IOException {
+        insert(LocalDateTime.of(2024, 1, 15, 8, 0), 5);
+        insert(LocalDateTime.of(2024, 2, 15, 8, 0), 3);
+        ActivityLogExporter exporter = new ActivityLogExporter(dataSource, new DataSourceTransactionManager(dataSource), 100);
+        ActivityLogRetention retention = new ActivityLogRetention(dataSource, exporter, 2, 2, 10, archiveDir.toString(), 2);
+
+        Thread.currentThread().interrupt();
+        try {
+            retention.run(CURRENT);
+        } finally {
+            Thread.interrupted();
+        }
+
+        // One chunk of January went before the pause saw the interrupt; February was not touched
+        assertEquals(6, jdbc.queryForObject("SELECT COUNT(*) FROM user_activity_logs", Integer.class));
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            assertEquals(List.of("activity-logs-2024-01.csv.gz"),
+                    files.map(path -> path.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void retentionOff_keepsEverything() {
+        insert(LocalDateTime.of(2020, 1, 1, 0, 0), 3);
+
+        retention(0, "").run(CURRENT);
+
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM user_activity_logs", Integer.class));
+    }
+
+    private static long gunzippedLines(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().count();
+        }
+    }
+}
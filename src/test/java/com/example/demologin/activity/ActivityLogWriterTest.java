@@ -0,0 +1,197 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.entity.User;
+import com.example.demologin.entity.UserActivityLog;
+import com.example.demologin.enums.ActivityType;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.utils.LocationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ActivityLogWriterTest {
+
+    private UserRepository userRepository;
+    private LocationUtil locationUtil;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        locationUtil = mock(LocationUtil.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(locationUtil.getLocationIfCached(anyString()))
+                .thenReturn(LocationUtil.testLocation("Hanoi", "Hanoi", "Vietnam", "VN"));
+    }
+
+    private ActivityLogWriter writer(int capacity, ActivityLogWriter.OverflowPolicy policy) {
+        return new ActivityLogWriter(userRepository, locationUtil, jdbcTemplate, mock(ActivityStatsRollup.class),
+                mock(ActivityDimensions.class),
+                new SimpleMeterRegistry(), capacity, 100, 50, policy, 1, 60_000, 1_000);
+    }
+
+    private static ActivityLogEvent event(ActivityType type, Long userId, String loginName, String ip) {
+        return new ActivityLogEvent(type, "SUCCESS", userId, userId == null ? null : "User " + userId, loginName,
+                type.name(), ip, "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/120.0", ip, LocalDateTime.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UserActivityLog> capturedRows(String sqlPrefix) {
+        ArgumentCaptor<Collection<UserActivityLog>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith(sqlPrefix), rows.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        return rows.getAllValues().stream().flatMap(Collection::stream).toList();
+    }
+
+    @Test
+    void submit_onlyBuffers_andFlushWritesOneBatchWithRepeatsCollapsed() {
+        ActivityLogWriter writer = writer(1024, ActivityLogWriter.OverflowPolicy.DROP);
+        User alice = new User();
+        alice.setUserId(7L);
+        alice.setFullName("Alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        writer.submit(event(ActivityType.LOGIN_ATTEMPT, null, "alice", "10.0.0.1"));
+        writer.submit(event(ActivityType.LOGIN_ATTEMPT, null, "alice", "10.0.0.1"));
+        writer.submit(event(ActivityType.LOGOUT, 3L, null, "10.0.0.2"));
+        writer.submit(event(ActivityType.REGISTRATION, null, null, "10.0.0.3"));
+        verifyNoInteractions(jdbcTemplate, userRepository, locationUtil);
+
+        writer.flush();
+
+        List<UserActivityLog> inserted = capturedRows("INSERT");
+        assertEquals(3, inserted.size());
+        assertEquals(7L, inserted.get(1).getUserId());
+        assertEquals("Alice", inserted.get(1).getFullName());
+        assertEquals("Google Chrome", inserted.get(1).getBrowser());
+        assertEquals("Hanoi", inserted.get(1).getCity());
+        assertEquals(ActivityLogWriter.fingerprint(inserted.get(1)), inserted.get(1).getFingerprint());
+        verify(userRepository).findByUsername("alice");
+        assertEquals(4, writer.writtenCount());
+    }
+
+    @Test
+    void repeatedActivity_updatesTheUsersLatestMatchingRow_foundByFingerprint() throws SQLException {
+        ActivityLogWriter writer = writer(1024, ActivityLogWriter.OverflowPolicy.DROP);
+        ActivityLogEvent logout = event(ActivityType.LOGOUT, 3L, null, "10.0.0.2");
+        long fingerprint = ActivityLogWriter.fingerprint(UserActivityLog.builder()
+                .userId(3L).activityType(ActivityType.LOGOUT).ipAddress("10.0.0.2").userAgent(logout.userAgent())
+                .build());
+        ResultSet latest = mock(ResultSet.class);
+        when(latest.getLong(1)).thenReturn(fingerprint);
+        when(latest.getLong(2)).thenReturn(42L);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(latest);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT fingerprint"), any(RowCallbackHandler.class), any(Object[].class));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][]{{1}});
+
+        writer.submit(logout);
+        writer.submit(event(ActivityType.LOGOUT, 3L, null, "10.0.0.2"));
+        writer.flush();
+        writer.submit(event(ActivityType.LOGOUT, 3L, null, "10.0.0.2"));
+        writer.flush();
+
+        List<UserActivityLog> updated = capturedRows("UPDATE");
+        assertEquals(List.of(42L, 42L), updated.stream().map(UserActivityLog::getId).toList());
+        assertEquals("User 3", updated.get(0).getFullName());
+        // The row id is remembered after the first lookup
+        verify(jdbcTemplate).query(startsWith("SELECT fingerprint"), any(RowCallbackHandler.class), any(Object[].class));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3, writer.writtenCount());
+    }
+
+    @Test
+    void repeatOfDeletedRow_forgetsTheRowId_andInsertsInstead() throws SQLException {
+        ActivityLogWriter writer = writer(1024, ActivityLogWriter.OverflowPolicy.DROP);
+        ActivityLogEvent logout = event(ActivityType.LOGOUT, 3L, null, "10.0.0.2");
+        long fingerprint = ActivityLogWriter.fingerprint(UserActivityLog.builder()
+                .userId(3L).activityType(ActivityType.LOGOUT).ipAddress("10.0.0.2").userAgent(logout.userAgent())
+                .build());
+        ResultSet latest = mock(ResultSet.class);
+        when(latest.getLong(1)).thenReturn(fingerprint);
+        when(latest.getLong(2)).thenReturn(42L);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(latest);
+            return null;
+        }).doAnswer(invocation -> null)
+                .when(jdbcTemplate).query(startsWith("SELECT fingerprint"), any(RowCallbackHandler.class), any(Object[].class));
+        // Row 42 was deleted after its id was remembered
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][]{{0}});
+
+        writer.submit(logout);
+        writer.flush();
+        writer.submit(event(ActivityType.LOGOUT, 3L, null, "10.0.0.2"));
+        writer.flush();
+
+        // Both flushes insert: the first after its update found no row, the
+        // second because the forgotten fingerprint is looked up again
+        List<UserActivityLog> inserted = capturedRows("INSERT");
+        assertEquals(2, inserted.size());
+        assertNull(inserted.get(0).getId());
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT fingerprint"), any(RowCallbackHandler.class),
+                any(Object[].class));
+        assertEquals(2, writer.writtenCount());
+    }
+
+    @Test
+    void fullBuffer_dropsInsteadOfBlockingTheRequest() {
+        ActivityLogWriter writer = writer(4, ActivityLogWriter.OverflowPolicy.DROP);
+
+        for (int i = 0; i < 6; i++) {
+            writer.submit(event(ActivityType.REGISTRATION, null, null, "10.0.0." + i));
+        }
+
+        assertEquals(4, writer.pendingCount());
+        assertEquals(2, writer.droppedCount());
+        assertFalse(writer.submit(event(ActivityType.REGISTRATION, null, null, "10.0.0.9")));
+    }
+
+    @Test
+    void writerThread_flushesOnInterval_andShutdownWritesTheRest() {
+        ActivityLogWriter writer = writer(1024, ActivityLogWriter.OverflowPolicy.BLOCK);
+        writer.start();
+
+        assertTrue(writer.submit(event(ActivityType.REGISTRATION, null, null, "10.0.0.1")));
+        verify(jdbcTemplate, timeout(2_000)).batchUpdate(startsWith("INSERT"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+
+        writer.submit(event(ActivityType.REGISTRATION, null, null, "10.0.0.2"));
+        writer.shutdown();
+
+        assertEquals(0, writer.pendingCount());
+        assertEquals(2, writer.writtenCount());
+    }
+}
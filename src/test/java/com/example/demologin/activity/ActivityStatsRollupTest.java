@@ -0,0 +1,89 @@
+package com.example.demologin.activity;
+
+import com.example.demologin.dto.response.ActivityStatsResponse;
+import com.example.demologin.enums.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ActivityStatsRollupTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    private JdbcTemplate jdbc;
+    private ActivityStatsRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:activity-stats;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE activity_stats_rollups (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "granularity VARCHAR(8) NOT NULL, bucket_start TIMESTAMP NOT NULL, activity_type VARCHAR(50) NOT NULL, "
+                + "status VARCHAR(20) NOT NULL, country_code VARCHAR(10) NOT NULL, device_type VARCHAR(20) NOT NULL, "
+                + "activity_count BIGINT NOT NULL, CONSTRAINT uk_activity_stats_rollups_bucket UNIQUE "
+                + "(granularity, bucket_start, activity_type, status, country_code, device_type))");
+        rollup = new ActivityStatsRollup(dataSource, new DataSourceTransactionManager(dataSource),
+                new SimpleMeterRegistry(), true, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE activity_stats_rollups");
+    }
+
+    private void record(LocalDateTime at, ActivityType type, String status, String countryCode) {
+        rollup.record(at, type, status, countryCode, "Desktop");
+    }
+
+    @Test
+    void flush_addsToExistingHourlyRows() {
+        record(DAY.atTime(9, 5), ActivityType.LOGIN_ATTEMPT, "SUCCESS", "VN");
+        record(DAY.atTime(9, 55), ActivityType.LOGIN_ATTEMPT, "SUCCESS", "VN");
+        record(DAY.atTime(10, 0), ActivityType.LOGIN_ATTEMPT, "FAIL", null);
+        rollup.flush();
+        record(DAY.atTime(9, 30), ActivityType.LOGIN_ATTEMPT, "SUCCESS", "VN");
+        rollup.flush();
+
+        assertEquals(0, rollup.pendingCount());
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM activity_stats_rollups", Integer.class));
+        assertEquals(3L, jdbc.queryForObject("SELECT activity_count FROM activity_stats_rollups "
+                + "WHERE bucket_start = ? AND status = 'SUCCESS'", Long.class, DAY.atTime(9, 0)));
+
+        ActivityStatsResponse stats = rollup.summarize(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        assertEquals(4, stats.getTotal());
+        assertEquals(Map.of("SUCCESS", 3L, "FAIL", 1L), stats.getByStatus());
+        assertEquals(Map.of("VN", 3L, "UNKNOWN", 1L), stats.getByCountryCode());
+        assertEquals(Map.of(DAY.atTime(9, 0), 3L, DAY.atTime(10, 0), 1L), stats.getTimeline());
+    }
+
+    @Test
+    void compaction_foldsOldHoursIntoDays_andKeepsTotals() {
+        for (int hour = 0; hour < 24; hour++) {
+            record(DAY.atTime(hour, 0), ActivityType.LOGOUT, "SUCCESS", "VN");
+        }
+        record(DAY.plusDays(1).atTime(1, 0), ActivityType.LOGOUT, "SUCCESS", "VN");
+        rollup.flush();
+
+        rollup.compactBefore(DAY.plusDays(1).atStartOfDay());
+        // A second pass finds nothing left to fold
+        rollup.compactBefore(DAY.plusDays(1).atStartOfDay());
+
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM activity_stats_rollups", Integer.class));
+        assertEquals(24L, jdbc.queryForObject("SELECT activity_count FROM activity_stats_rollups "
+                + "WHERE granularity = 'DAY'", Long.class));
+        ActivityStatsResponse stats = rollup.summarize(DAY.atTime(6, 0), DAY.plusDays(2).atStartOfDay());
+        assertEquals(25, stats.getTotal());
+        assertEquals(Map.of(DAY.atStartOfDay(), 24L, DAY.plusDays(1).atTime(1, 0), 1L), stats.getTimeline());
+    }
+}
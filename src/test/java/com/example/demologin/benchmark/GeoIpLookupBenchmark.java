@@ -0,0 +1,92 @@
+package com.example.demologin.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demologin.utils.GeoIpResolver;
+
+/**
+ * Offline lookup through {@link GeoIpResolver} over a synthetic range file
+ * about the size of a city-level IPv4 database, replacing a remote call of up
+ * to 1.5 s connect + 3 s read per login.
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoIpLookupBenchmark {
+
+    @Param({"1000000"})
+    private int ranges;
+
+    private Path csv;
+    private GeoIpResolver resolver;
+    private String[] addresses;
+    private int cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        csv = Files.createTempFile("geoip-bench", ".csv");
+        long step = (1L << 32) / ranges;
+        try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+            for (int i = 0; i < ranges; i++) {
+                long start = i * step;
+                out.write(ip(start) + "," + ip(start + step - 1) + ",C" + (i % 250) + ",Country " + (i % 250)
+                        + ",Region " + (i % 5_000) + ",City " + (i % 50_000) + "\n");
+            }
+        }
+        resolver = new GeoIpResolver(csv.toString(), "countryCode,country,region,city");
+        resolver.load();
+
+        Random random = new Random(42);
+        addresses = new String[1024];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = ip(random.nextLong(1L << 32));
+        }
+    }
+
+    private static String ip(long value) {
+        return (value >>> 24 & 255) + "." + (value >>> 16 & 255) + "." + (value >>> 8 & 255) + "." + (value & 255);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+    }
+
+    @Benchmark
+    public Object lookup() {
+        cursor = (cursor + 1) & 1023;
+        return resolver.resolve(addresses[cursor]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeoIpLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demologin.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demologin.cache.InvalidationBus;
+import com.example.demologin.security.JtiRegistry;
+
+/**
+ * JTI check per authenticated request: the in-memory {@link JtiRegistry} hit
+ * path versus the {@code existsByJti} query it replaces. The query runs on an
+ * in-process H2 database over plain JDBC, so it is a lower bound for the real
+ * repository call (no JPA, pool or network overhead).
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JtiRegistryBenchmark {
+
+    @Param({"10000"})
+    private int tokens;
+
+    private String[] jtis;
+    private JtiRegistry registry;
+    private Connection connection;
+    private PreparedStatement existsByJti;
+    private int cursor;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:jti-bench;DB_CLOSE_DELAY=-1");
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE refresh_token (id BIGINT AUTO_INCREMENT PRIMARY KEY, jti VARCHAR(255) NOT NULL UNIQUE)");
+        }
+
+        registry = new JtiRegistry(null, 0, Long.MAX_VALUE / 1_000_000, InvalidationBus.NOOP);
+        jtis = new String[tokens];
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO refresh_token (jti) VALUES (?)")) {
+            for (int i = 0; i < tokens; i++) {
+                jtis[i] = UUID.randomUUID().toString();
+                insert.setString(1, jtis[i]);
+                insert.addBatch();
+                registry.register(jtis[i], (long) i, LocalDateTime.now().plusDays(7));
+            }
+            insert.executeBatch();
+        }
+        existsByJti = connection.prepareStatement("SELECT COUNT(*) FROM refresh_token WHERE jti = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        existsByJti.close();
+        connection.close();
+    }
+
+    private String nextJti() {
+        cursor = (cursor + 1) % jtis.length;
+        return jtis[cursor];
+    }
+
+    @Benchmark
+    public boolean repositoryExistsByJti() throws SQLException {
+        existsByJti.setString(1, nextJti());
+        try (ResultSet rs = existsByJti.executeQuery()) {
+            return rs.next() && rs.getLong(1) > 0;
+        }
+    }
+
+    @Benchmark
+    public boolean registryHit() {
+        return registry.isActive(nextJti());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JtiRegistryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
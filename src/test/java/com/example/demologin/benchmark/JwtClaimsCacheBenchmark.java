@@ -0,0 +1,113 @@
+package com.example.demologin.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demologin.cache.VerifiedClaimsCache;
+import com.example.demologin.security.JwtSigningKeys;
+import com.example.demologin.utils.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request JWT cost: the five parses an authenticated request used to do
+ * (Filter, TokenService, JTI check, expiry check, aspects) versus the same
+ * five lookups through {@link JwtUtil} with a shared parser and the
+ * verified-claims cache.
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtClaimsCacheBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private String token;
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+
+    @Setup
+    public void setup() {
+        token = Jwts.builder()
+                .subject("42")
+                .claim("tokenVersion", 3)
+                .claim("roles", List.of("MEMBER", "ADMIN"))
+                .claim("fullName", "Benchmark User")
+                .claim("jti", "5f0c7c1e-8a51-4c2e-9a43-1b3f8d1e2a77")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        cachedJwtUtil = newJwtUtil(10_000);
+        uncachedJwtUtil = newJwtUtil(0);
+    }
+
+    private static JwtUtil newJwtUtil(int cacheEntries) {
+        return new JwtUtil(null, new VerifiedClaimsCache(cacheEntries), null, null, null,
+                new JwtSigningKeys(SECRET, "HS256", "", "", true));
+    }
+
+    /** Previous behaviour: a new key and parser for every one of the five parses. */
+    @Benchmark
+    public void rebuildKeyAndParserFiveTimes(Blackhole bh) {
+        for (int i = 0; i < 5; i++) {
+            Claims claims = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            bh.consume(claims.getSubject());
+        }
+    }
+
+    /** Long-lived parser only (cache disabled). */
+    @Benchmark
+    public void sharedParserFiveTimes(Blackhole bh) {
+        consumeFiveLookups(uncachedJwtUtil, bh);
+    }
+
+    /** Long-lived parser plus verified-claims cache. */
+    @Benchmark
+    public void cachedClaimsFiveTimes(Blackhole bh) {
+        consumeFiveLookups(cachedJwtUtil, bh);
+    }
+
+    private void consumeFiveLookups(JwtUtil jwtUtil, Blackhole bh) {
+        bh.consume(jwtUtil.extractUsername(token));
+        bh.consume(jwtUtil.extractTokenVersion(token));
+        bh.consume(jwtUtil.extractJti(token));
+        bh.consume(jwtUtil.isTokenExpired(token));
+        bh.consume(jwtUtil.extractRoles(token));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtClaimsCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
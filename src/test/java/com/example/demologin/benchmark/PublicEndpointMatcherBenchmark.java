@@ -0,0 +1,105 @@
+package com.example.demologin.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import com.example.demologin.config.PublicEndpointMatcher;
+
+/**
+ * {@code Filter.isPermitted} over a synthetic route table: the previous
+ * per-request {@link AntPathMatcher} scan of every pattern versus the
+ * precompiled {@link PublicEndpointMatcher}, with and without its result cache.
+ * Request paths mix public hits with protected misses, which scan everything.
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicEndpointMatcherBenchmark {
+
+    @Param({"200"})
+    private int routes;
+
+    private List<String> patterns;
+    private String[] uris;
+    private PublicEndpointMatcher cachedMatcher;
+    private PublicEndpointMatcher uncachedMatcher;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        patterns = new ArrayList<>();
+        for (int i = 0; i < routes; i++) {
+            switch (i % 4) {
+                case 0 -> patterns.add("/api/module" + i + "/public");
+                case 1 -> patterns.add("/api/module" + i + "/items/{id}");
+                case 2 -> patterns.add("/api/module" + i + "/docs/**");
+                default -> patterns.add("/api/module" + i + "/files/*.json");
+            }
+        }
+        patterns.addAll(PublicEndpointMatcher.SYSTEM_PUBLIC_ENDPOINTS);
+
+        cachedMatcher = new PublicEndpointMatcher(patterns, 4096);
+        uncachedMatcher = new PublicEndpointMatcher(patterns, 0);
+
+        uris = new String[]{
+                "/api/module0/public",
+                "/api/module101/items/42",
+                "/api/module150/docs/guide/intro",
+                "/api/module199/files/report.json",
+                "/swagger-ui/index.html",
+                "/api/users/me",
+                "/api/module7/private/settings",
+                "/api/admin/roles/3/permissions"
+        };
+    }
+
+    private String nextUri() {
+        cursor = (cursor + 1) % uris.length;
+        return uris[cursor];
+    }
+
+    @Benchmark
+    public boolean antPathMatcherPerRequest() {
+        AntPathMatcher pathMatcher = new AntPathMatcher();
+        String uri = nextUri();
+        return new ArrayList<>(patterns).stream().anyMatch(pattern -> pathMatcher.match(pattern, uri));
+    }
+
+    @Benchmark
+    public boolean precompiledMatcher() {
+        return uncachedMatcher.isPublic(nextUri());
+    }
+
+    @Benchmark
+    public boolean precompiledMatcherCached() {
+        return cachedMatcher.isPublic(nextUri());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PublicEndpointMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demologin.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demologin.cache.SmartCacheKey;
+import com.example.demologin.cache.SmartCachePolicy;
+import com.example.demologin.cache.SmartCacheStore;
+
+/**
+ * {@code SmartCacheAspect} hit path: the previous string key (args streamed
+ * through {@code toString()} and joined, then {@code contains} checks and a
+ * substring for the cache name) versus a {@link SmartCacheKey} over the
+ * argument array, against a warm store. Run with {@code -prof gc} to compare
+ * allocation per hit.
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmartCacheKeyBenchmark {
+
+    private static final SmartCacheStore.Loader LOADER = () -> "loaded";
+
+    @Param({"getById", "getPermissionsForRoles"})
+    private String method;
+
+    private Object[] args;
+    private String cacheName;
+    private final Map<String, SmartCacheStore> legacyStores = new ConcurrentHashMap<>();
+    private SmartCacheStore legacyStore;
+    private SmartCacheStore keyedStore;
+
+    @Setup
+    public void setup() throws Throwable {
+        args = method.equals("getById")
+                ? new Object[]{42L}
+                : new Object[]{Set.of("ADMIN", "MANAGER", "USER")};
+        SmartCachePolicy policy = new SmartCachePolicy(1000, 600, 0, 0);
+        cacheName = "RoleController." + method;
+        legacyStore = new SmartCacheStore(cacheName, policy);
+        legacyStores.put(cacheName, legacyStore);
+        keyedStore = new SmartCacheStore(cacheName, policy);
+
+        legacyStore.get(legacyKey(), LOADER);
+        keyedStore.get(new SmartCacheKey(cacheName, args.clone()), LOADER);
+    }
+
+    private String legacyKey() {
+        String argsKey = ":" + Arrays.stream(args)
+                .map(arg -> {
+                    if (arg != null) {
+                        if (arg.getClass().isArray()) {
+                            return Arrays.toString((Object[]) arg);
+                        } else if (arg instanceof java.util.Collection) {
+                            return ((java.util.Collection<?>) arg).toString();
+                        }
+                        return arg.toString();
+                    }
+                    return "null";
+                })
+                .reduce((a, b) -> a + "," + b)
+                .orElse("");
+        String key = "RoleController" + ":" + method + argsKey;
+        if (key.contains("RolePermissionServiceImpl") && key.contains("getPermissionsForRoles")) {
+            return key + ":roles=";
+        }
+        return key;
+    }
+
+    private static String cacheNameOf(String cacheKey) {
+        int first = cacheKey.indexOf(':');
+        int second = cacheKey.indexOf(':', first + 1);
+        return cacheKey.substring(0, first) + "." + cacheKey.substring(first + 1, second < 0 ? cacheKey.length() : second);
+    }
+
+    @Benchmark
+    public Object stringKeyHit() throws Throwable {
+        String key = legacyKey();
+        return legacyStores.get(cacheNameOf(key)).get(key, LOADER);
+    }
+
+    @Benchmark
+    public Object structuredKeyHit() throws Throwable {
+        // getArgs() hands the aspect a fresh array per call
+        return keyedStore.get(new SmartCacheKey(cacheName, args.clone()), LOADER);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SmartCacheKeyBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
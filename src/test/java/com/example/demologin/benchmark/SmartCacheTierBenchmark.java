@@ -0,0 +1,109 @@
+package com.example.demologin.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demologin.cache.SmartCachePolicy;
+import com.example.demologin.cache.SmartCacheStore;
+
+/**
+ * Heap tier versus off-heap tier of {@link SmartCacheStore} for
+ * permission-set values (~40 codes each). Latency: a heap hit, and a read
+ * that promotes the entry from off-heap (decode + heap insert, which in turn
+ * demotes another entry). Memory: {@link #main(String[])} first prints the
+ * heap and direct memory retained by {@value #FOOTPRINT_ENTRIES} entries in
+ * each configuration.
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmartCacheTierBenchmark {
+
+    private static final int FOOTPRINT_ENTRIES = 20_000;
+    private static final SmartCacheStore.Loader UNREACHABLE = () -> {
+        throw new IllegalStateException("benchmark keys are always cached");
+    };
+
+    private SmartCacheStore heapStore;
+    private SmartCacheStore tieredStore;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        heapStore = new SmartCacheStore("heap", new SmartCachePolicy(1024, 0, 0, 0));
+        // One heap slot: every read of another key is a promotion from off-heap
+        tieredStore = new SmartCacheStore("tiered", new SmartCachePolicy(1, 0, 0, 0, 0, 64L * 1024 * 1024));
+        for (int i = 0; i < 1024; i++) {
+            heapStore.put(i, permissions(i));
+            tieredStore.put(i, permissions(i));
+        }
+    }
+
+    private static Set<String> permissions(int seed) {
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            codes.add("PERMISSION_" + ((seed + i * 7) % 300) + "_" + (i % 2 == 0 ? "VIEW" : "UPDATE"));
+        }
+        return codes;
+    }
+
+    @Benchmark
+    public Object heapHit() throws Throwable {
+        cursor = (cursor + 1) & 1023;
+        return heapStore.get(cursor, UNREACHABLE);
+    }
+
+    @Benchmark
+    public Object offHeapPromotion() throws Throwable {
+        cursor = (cursor + 1) & 1023;
+        return tieredStore.get(cursor, UNREACHABLE);
+    }
+
+    private static void printFootprint() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (boolean offHeap : new boolean[]{false, true}) {
+            System.gc();
+            long before = memory.getHeapMemoryUsage().getUsed();
+            SmartCacheStore store = new SmartCacheStore(offHeap ? "tiered" : "heap",
+                    new SmartCachePolicy(offHeap ? 16 : FOOTPRINT_ENTRIES, 0, 0, 0, 0, 256L * 1024 * 1024));
+            for (int i = 0; i < FOOTPRINT_ENTRIES; i++) {
+                store.put(i, permissions(i));
+            }
+            System.gc();
+            long retained = memory.getHeapMemoryUsage().getUsed() - before;
+            System.out.printf("%-8s %,d entries: heap %,d KiB, off-heap used %,d KiB (reserved %,d KiB)%n",
+                    offHeap ? "tiered" : "heap", FOOTPRINT_ENTRIES, retained / 1024,
+                    store.offHeapBytes() / 1024, store.offHeapReservedBytes() / 1024);
+            store.invalidateAll();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printFootprint();
+        new Runner(new OptionsBuilder()
+                .include(SmartCacheTierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demologin.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demologin.utils.UserAgentUtil;
+
+/**
+ * {@link UserAgentUtil#parseUserAgent} over a corpus of real browser, app and
+ * bot User-Agents: the previous parser (a {@code Pattern.compile} and a fresh
+ * {@code contains} scan per rule on every call, kept below as the baseline),
+ * the cached path, and a cache miss on every call (more distinct headers than
+ * the cache holds).
+ *
+ * Run with: {@code mvn test-compile} then execute {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAgentParserBenchmark {
+
+    private static final String[] CORPUS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.67",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/123.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4.1 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (iPad; CPU OS 16_6 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/16.6 Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36",
+            "Mozilla/5.0 (Linux; Android 13; SM-X710) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/123.0.6312.118 Safari/537.36",
+            "Mozilla/5.0 (Linux; Android 10; K) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/24.0 Chrome/117.0.0.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:125.0) Gecko/20100101 Firefox/125.0",
+            "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 OPR/109.0.0.0",
+            "Mozilla/5.0 (Windows NT 6.1; WOW64; Trident/7.0; rv:11.0) like Gecko",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+            "okhttp/4.12.0",
+            "PostmanRuntime/7.37.3",
+    };
+    private static final int DISTINCT_MISSES = 8192;
+
+    private String[] hits;
+    private String[] misses;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        hits = CORPUS.clone();
+        misses = new String[DISTINCT_MISSES];
+        for (int i = 0; i < misses.length; i++) {
+            misses[i] = CORPUS[i % CORPUS.length] + " build/" + i;
+        }
+    }
+
+    @Benchmark
+    public Object legacyParse() {
+        cursor = (cursor + 1) & 15;
+        return LegacyParser.parse(hits[cursor]);
+    }
+
+    @Benchmark
+    public Object cachedParse() {
+        cursor = (cursor + 1) & 15;
+        return UserAgentUtil.parseUserAgent(hits[cursor]);
+    }
+
+    @Benchmark
+    public Object uncachedParse() {
+        cursor = (cursor + 1) & (DISTINCT_MISSES - 1);
+        return UserAgentUtil.parseUserAgent(misses[cursor]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserAgentParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /** The parser as it was before caching and precompiled patterns. */
+    private static final class LegacyParser {
+
+        static UserAgentUtil.DeviceInfo parse(String userAgent) {
+            if (userAgent == null || userAgent.trim().isEmpty()) {
+                return new UserAgentUtil.DeviceInfo("Unknown", "Unknown", "Unknown", "Unknown", "Unknown");
+            }
+
+            String browser = extractBrowser(userAgent);
+            String browserVersion = extractBrowserVersion(userAgent, browser);
+            String operatingSystem = extractOperatingSystem(userAgent);
+            String device = extractDevice(userAgent);
+            String deviceType = extractDeviceType(userAgent);
+
+            return new UserAgentUtil.DeviceInfo(browser, browserVersion, operatingSystem, device, deviceType);
+        }
+
+        private static String extractBrowser(String userAgent) {
+            if (userAgent.contains("Edg/")) {
+                return "Microsoft Edge";
+            } else if (userAgent.contains("Chrome/") && !userAgent.contains("Chromium/")) {
+                return "Google Chrome";
+            } else if (userAgent.contains("Firefox/")) {
+                return "Mozilla Firefox";
+            } else if (userAgent.contains("Safari/") && !userAgent.contains("Chrome/")) {
+                return "Safari";
+            } else if (userAgent.contains("Opera/") || userAgent.contains("OPR/")) {
+                return "Opera";
+            } else if (userAgent.contains("MSIE") || userAgent.contains("Trident/")) {
+                return "Internet Explorer";
+            } else if (userAgent.contains("Chromium/")) {
+                return "Chromium";
+            }
+            return "Unknown Browser";
+        }
+
+        private static String extractBrowserVersion(String userAgent, String browser) {
+            Pattern pattern = null;
+
+            switch (browser) {
+                case "Google Chrome":
+                    pattern = Pattern.compile("Chrome/([0-9.]+)");
+                    break;
+                case "Mozilla Firefox":
+                    pattern = Pattern.compile("Firefox/([0-9.]+)");
+                    break;
+                case "Safari":
+                    pattern = Pattern.compile("Version/([0-9.]+).*Safari/");
+                    break;
+                case "Microsoft Edge":
+                    pattern = Pattern.compile("Edg/([0-9.]+)");
+                    break;
+                case "Opera":
+                    if (userAgent.contains("OPR/")) {
+                        pattern = Pattern.compile("OPR/([0-9.]+)");
+                    } else {
+                        pattern = Pattern.compile("Opera/([0-9.]+)");
+                    }
+                    break;
+                case "Internet Explorer":
+                    if (userAgent.contains("MSIE")) {
+                        pattern = Pattern.compile("MSIE ([0-9.]+)");
+                    } else {
+                        pattern = Pattern.compile("rv:([0-9.]+)");
+                    }
+                    break;
+            }
+
+            if (pattern != null) {
+                Matcher matcher = pattern.matcher(userAgent);
+                if (matcher.find()) {
+                    return matcher.group(1);
+                }
+            }
+            return "Unknown";
+        }
+
+        private static String extractOperatingSystem(String userAgent) {
+            if (userAgent.contains("Android")) {
+                Pattern pattern = Pattern.compile("Android ([0-9.]+)");
+                Matcher matcher = pattern.matcher(userAgent);
+                if (matcher.find()) {
+                    return "Android " + matcher.group(1);
+                }
+                return "Android";
+            } else if (userAgent.contains("iPhone OS") || userAgent.contains("iOS")) {
+                Pattern pattern = Pattern.compile("OS ([0-9_]+)");
+                Matcher matcher = pattern.matcher(userAgent);
+                if (matcher.find()) {
+                    return "iOS " + matcher.group(1).replace("_", ".");
+                }
+                return "iOS";
+            } else if (userAgent.contains("Windows NT 10.0")) {
+                return "Windows 10/11";
+            } else if (userAgent.contains("Windows NT 6.3")) {
+                return "Windows 8.1";
+            } else if (userAgent.contains("Windows NT 6.2")) {
+                return "Windows 8";
+            } else if (userAgent.contains("Windows NT 6.1")) {
+                return "Windows 7";
+            } else if (userAgent.contains("Windows NT")) {
+                return "Windows";
+            } else if (userAgent.contains("Mac OS X")) {
+                Pattern pattern = Pattern.compile("Mac OS X ([0-9_]+)");
+                Matcher matcher = pattern.matcher(userAgent);
+                if (matcher.find()) {
+                    return "macOS " + matcher.group(1).replace("_", ".");
+                }
+                return "macOS";
+            } else if (userAgent.contains("Linux")) {
+                return "Linux";
+            }
+            return "Unknown OS";
+        }
+
+        private static String extractDevice(String userAgent) {
+            if (userAgent.contains("iPhone")) {
+                return "iPhone";
+            } else if (userAgent.contains("iPad")) {
+                return "iPad";
+            } else if (userAgent.contains("Android")) {
+                if (userAgent.contains("Mobile")) {
+                    return "Android Phone";
+                } else {
+                    return "Android Tablet";
+                }
+            } else if (userAgent.contains("Windows Phone")) {
+                return "Windows Phone";
+            } else if (userAgent.contains("BlackBerry")) {
+                return "BlackBerry";
+            } else if (userAgent.contains("Mac")) {
+                return "Mac Computer";
+            } else if (userAgent.contains("Windows")) {
+                return "Windows Computer";
+            } else if (userAgent.contains("Linux")) {
+                return "Linux Computer";
+            }
+            return "Unknown Device";
+        }
+
+        private static String extractDeviceType(String userAgent) {
+            if (userAgent.contains("Mobile") || userAgent.contains("iPhone") || 
+                userAgent.contains("Android") && userAgent.contains("Mobile")) {
+                return "Mobile";
+            } else if (userAgent.contains("Tablet") || userAgent.contains("iPad") ||
+                       userAgent.contains("Android") && !userAgent.contains("Mobile")) {
+                return "Tablet";
+            } else {
+                return "Desktop";
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.entity.ChatMemory;
+import com.example.demologin.entity.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EntityCacheInvalidatorTest {
+
+    private SmartCacheManager manager;
+    private EntityCacheInvalidator invalidator;
+    private SmartCacheStore store;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        manager = new SmartCacheManager(new SimpleMeterRegistry(), 100, 60, 0, 0, 0, 0, 5_000, 1, 16, InvalidationBus.NOOP);
+        invalidator = new EntityCacheInvalidator(manager);
+        store = manager.getOrCreate("RoleController.get",
+                EntityCacheInvalidatorTest.class.getDeclaredMethod("cached").getAnnotation(SmartCache.class));
+        store.put("all", "roles", new String[]{"roles"});
+        store.put("role-1", "admin", new String[]{"role:1"});
+        store.put("role-2", "user", new String[]{"role:2"});
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @SmartCache
+    private static void cached() {
+    }
+
+    private static EntityPersister persisterOf(Class<?> type) {
+        EntityPersister persister = mock(EntityPersister.class);
+        doReturn(type).when(persister).getMappedClass();
+        return persister;
+    }
+
+    @Test
+    void committedRoleUpdate_invalidatesRoleListAndThatRoleOnly() {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        EntityPersister persister = persisterOf(Role.class);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(1L);
+
+        invalidator.onPostUpdate(event);
+
+        assertNull(store.getIfPresent("all"));
+        assertNull(store.getIfPresent("role-1"));
+        assertNotNull(store.getIfPresent("role-2"));
+    }
+
+    @Test
+    void untaggedEntity_doesNotRequestPostCommitHandling() {
+        assertTrue(invalidator.requiresPostCommitHandling(persisterOf(Role.class)));
+        assertFalse(invalidator.requiresPostCommitHandling(persisterOf(ChatMemory.class)));
+    }
+
+    @Test
+    void collectionChange_waitsForCommit() {
+        Role role = new Role();
+        role.setId(2L);
+        PostCollectionRecreateEvent event = mock(PostCollectionRecreateEvent.class);
+        when(event.getAffectedOwnerOrNull()).thenReturn(role);
+        when(event.getAffectedOwnerIdOrNull()).thenReturn(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidator.onPostRecreateCollection(event);
+        assertNotNull(store.getIfPresent("role-2"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(store.getIfPresent("role-2"));
+        assertNotNull(store.getIfPresent("role-1"));
+    }
+}
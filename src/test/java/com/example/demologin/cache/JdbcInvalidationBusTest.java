@@ -0,0 +1,107 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.security.AccessTokenRevocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcInvalidationBusTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private JdbcInvalidationBus nodeA;
+    private JdbcInvalidationBus nodeB;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE cache_invalidations (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "node_id VARCHAR(64) NOT NULL, event_type VARCHAR(32) NOT NULL, event_key VARCHAR(255) NOT NULL, "
+                + "expires_at_millis BIGINT NOT NULL, created_at TIMESTAMP NOT NULL)");
+        nodeA = bus();
+        nodeB = bus();
+        // First poll only picks up the starting high-water mark
+        nodeA.poll();
+        nodeB.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE cache_invalidations");
+    }
+
+    private JdbcInvalidationBus bus() {
+        return new JdbcInvalidationBus(dataSource, new SimpleMeterRegistry(), true, 200, 1_000, 600, 10_000);
+    }
+
+    @Test
+    void events_reachOtherNodes_butNotThePublisher() {
+        AccessTokenRevocationStore storeA = new AccessTokenRevocationStore(new SimpleMeterRegistry(), nodeA);
+        AccessTokenRevocationStore storeB = new AccessTokenRevocationStore(new SimpleMeterRegistry(), nodeB);
+        List<InvalidationEvent> seenByA = new ArrayList<>();
+        nodeA.subscribe(InvalidationEvent.Type.ACCESS_TOKEN_REVOKED, seenByA::add);
+
+        storeA.revoke("jti-1", System.currentTimeMillis() + 60_000);
+        assertFalse(storeB.isRevoked("jti-1"));
+        nodeA.flush();
+        nodeA.poll();
+        nodeB.poll();
+
+        assertTrue(storeB.isRevoked("jti-1"));
+        assertTrue(seenByA.isEmpty());
+        assertEquals(1, nodeB.receivedCount());
+    }
+
+    @Test
+    void flush_batchesAndCollapsesDuplicates() {
+        List<String> tags = new ArrayList<>();
+        nodeB.subscribe(InvalidationEvent.Type.CACHE_TAG, event -> tags.add(event.key()));
+
+        for (int i = 0; i < 3; i++) {
+            nodeA.publish(InvalidationEvent.cacheTag("roles"));
+        }
+        nodeA.publish(InvalidationEvent.cacheTag("role:7"));
+        nodeA.flush();
+        nodeB.poll();
+
+        assertEquals(2, nodeA.publishedCount());
+        assertEquals(List.of("roles", "role:7"), tags);
+    }
+
+    @Test
+    void rowCommittedBehindTheHighWaterMark_isPickedUpFromItsGap() {
+        List<Long> evicted = new ArrayList<>();
+        nodeB.subscribe(InvalidationEvent.Type.PRINCIPAL_USER, event -> evicted.add(event.userId()));
+
+        insert(1, "1");
+        insert(3, "3");
+        nodeB.poll();
+        assertEquals(List.of(1L, 3L), evicted);
+
+        // Id 2 was allocated earlier but committed only now
+        insert(2, "2");
+        nodeB.poll();
+        assertEquals(List.of(1L, 3L, 2L), evicted);
+        nodeB.poll();
+        assertEquals(3, evicted.size());
+    }
+
+    private void insert(long id, String userId) {
+        jdbc.update("INSERT INTO cache_invalidations (id, node_id, event_type, event_key, expires_at_millis, created_at) "
+                        + "VALUES (?, 'other', 'PRINCIPAL_USER', ?, 0, ?)",
+                id, userId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.dto.response.PermissionResponse;
+import com.example.demologin.dto.response.RoleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapTierTest {
+
+    @Test
+    void codec_roundTripsCompactAndSerializableValues() {
+        Set<String> permissions = Set.of("USER_VIEW", "ROLE_VIEW", "ROLE_UPDATE");
+        RoleResponse role = new RoleResponse(1L, "ADMIN", Set.of(new PermissionResponse(2L, "USER_VIEW", "View users")));
+
+        assertEquals(permissions, SmartCacheCodec.decode(SmartCacheCodec.encode(permissions)));
+        assertEquals(List.of(role), SmartCacheCodec.decode(SmartCacheCodec.encode(List.of(role))));
+        assertEquals(42L, SmartCacheCodec.decode(SmartCacheCodec.encode(42L)));
+        assertNull(SmartCacheCodec.encode(new Object()));
+    }
+
+    @Test
+    void tier_evictsLeastRecentlyUsedOfTheSameSizeClass() {
+        List<Object> removed = new ArrayList<>();
+        OffHeapTier tier = new OffHeapTier(OffHeapTier.SLAB_BYTES, (key, tags) -> removed.add(key));
+        byte[] block = new byte[60 * 1024];
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(tier.put("k" + i, block, 0, new String[0]));
+        }
+        assertTrue(tier.put("k4", block, 0, new String[0]));
+
+        assertEquals(List.of("k0"), removed);
+        assertEquals(4, tier.size());
+        assertFalse(tier.put("too-big", new byte[70 * 1024], 0, new String[0]));
+        assertNotNull(tier.take("k4"));
+        assertNull(tier.take("k4"));
+    }
+
+    @Test
+    void tier_movesSlabsBetweenSizeClasses_whenValueSizesShift() {
+        List<Object> removed = new ArrayList<>();
+        OffHeapTier tier = new OffHeapTier(2L * OffHeapTier.SLAB_BYTES, (key, tags) -> removed.add(key));
+        byte[] large = new byte[60 * 1024];
+        for (int i = 0; i < 8; i++) {
+            assertTrue(tier.put("large" + i, large, 0, new String[0]));
+        }
+        assertEquals(2L * OffHeapTier.SLAB_BYTES, tier.reservedBytes());
+
+        // Both slabs belong to the 64 KiB class; the small value takes over the slab of its coldest entries
+        assertTrue(tier.put("small", new byte[100], 0, new String[0]));
+        assertEquals(List.of("large0", "large1", "large2", "large3"), removed);
+        assertEquals(5, tier.size());
+        assertEquals(2L * OffHeapTier.SLAB_BYTES, tier.reservedBytes());
+        assertNotNull(tier.take("large4"));
+        assertNotNull(tier.take("small"));
+
+        // A workload cycling through sizes keeps finding room without growing past the budget
+        int[] sizes = {100, 1000, 5000, 60 * 1024};
+        for (int i = 0; i < 400; i++) {
+            assertTrue(tier.put("mixed" + i, new byte[sizes[i % sizes.length]], 0, new String[0]));
+        }
+        assertEquals(0, tier.rejectionCount());
+        assertTrue(tier.usedBytes() <= tier.reservedBytes());
+        assertEquals(2L * OffHeapTier.SLAB_BYTES, tier.reservedBytes());
+        assertNotNull(tier.take("mixed399"));
+        assertNotNull(tier.take("mixed398"));
+
+        assertFalse(tier.put("too-big", new byte[70 * 1024], 0, new String[0]));
+        assertEquals(1, tier.rejectionCount());
+    }
+
+    @Test
+    void evictedEntries_spillOffHeap_andArePromotedWithoutReloading() throws Throwable {
+        SmartCacheStore store = new SmartCacheStore("tiered",
+                new SmartCachePolicy(10, 60, 0, 0, 0, 1024 * 1024), 5_000, new TagIndex());
+        for (int i = 0; i < 100; i++) {
+            store.put("role-" + i, Set.of("PERM_" + i, "USER_VIEW"));
+        }
+        assertTrue(store.size() <= 10);
+        assertEquals(90, store.offHeapSize());
+
+        AtomicInteger loads = new AtomicInteger();
+        Object value = store.get("role-0", () -> { loads.incrementAndGet(); return Set.of(); });
+
+        assertEquals(Set.of("PERM_0", "USER_VIEW"), value);
+        assertEquals(0, loads.get());
+        assertEquals(1, store.offHeapHitCount());
+        assertNotNull(store.getIfPresent("role-0"));
+    }
+
+    @Test
+    void invalidate_removesOffHeapCopyAndItsTags() throws Throwable {
+        TagIndex index = new TagIndex();
+        SmartCacheStore store = new SmartCacheStore("tiered",
+                new SmartCachePolicy(1, 60, 0, 0, 0, 1024 * 1024), 5_000, index);
+        store.put("a", "value-a", new String[]{"tag-a"});
+        store.put("b", "value-b", new String[]{"tag-b"});
+        assertEquals(1, store.offHeapSize());
+
+        store.invalidateAll();
+
+        assertEquals(0, store.offHeapSize());
+        assertEquals(0, index.tagCount());
+        assertEquals("reloaded", store.get("a", () -> "reloaded"));
+    }
+}
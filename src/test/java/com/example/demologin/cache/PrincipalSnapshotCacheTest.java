@@ -0,0 +1,97 @@
+package com.example.demologin.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demologin.enums.UserStatus;
+import com.example.demologin.security.PrincipalSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PrincipalSnapshotCacheTest {
+
+    private PrincipalSnapshotCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrincipalSnapshotCache(100, 300, 300, new SimpleMeterRegistry(), InvalidationBus.NOOP);
+        loads = new AtomicInteger();
+    }
+
+    private PrincipalSnapshot load(int tokenVersion) {
+        loads.incrementAndGet();
+        return new PrincipalSnapshot(1L, "alice", "Alice", tokenVersion, UserStatus.ACTIVE, false,
+                Set.of("MEMBER"), List.of());
+    }
+
+    @Test
+    void get_sameVersion_hitsCache() {
+        PrincipalSnapshot first = cache.get(1L, 2, () -> load(2));
+        PrincipalSnapshot second = cache.get(1L, 2, () -> load(2));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void get_olderTokenVersion_isAnsweredFromCache() {
+        cache.get(1L, 3, () -> load(3));
+        PrincipalSnapshot stale = cache.get(1L, 2, () -> load(3));
+
+        assertEquals(3, stale.tokenVersion());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_newerTokenVersion_reloads() {
+        cache.get(1L, 2, () -> load(2));
+        PrincipalSnapshot reloaded = cache.get(1L, 3, () -> load(3));
+
+        assertEquals(3, reloaded.tokenVersion());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void withoutBus_ttlIsCapped() {
+        PrincipalSnapshotCache unsynced = new PrincipalSnapshotCache(100, 300, 0, new SimpleMeterRegistry(),
+                InvalidationBus.NOOP);
+        unsynced.get(1L, 2, () -> load(2));
+        unsynced.get(1L, 2, () -> load(2));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void userTagInvalidation_evictsThatUserOnly() {
+        SmartCacheManager manager = new SmartCacheManager(new SimpleMeterRegistry(), 100, 60, 0, 0, 0, 0, 5_000, 1, 16,
+                InvalidationBus.NOOP);
+        PrincipalSnapshotCache wired = new PrincipalSnapshotCache(100, 300, 300, new SimpleMeterRegistry(),
+                InvalidationBus.NOOP, manager);
+        wired.get(1L, 2, () -> load(2));
+        wired.get(2L, 2, () -> load(2));
+
+        // What EntityCacheInvalidator raises for a committed User update
+        manager.invalidateCommittedTags(List.of("users", "user:1"));
+
+        assertEquals(1, wired.size());
+        wired.get(1L, 2, () -> load(2));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictUser_forcesReload() {
+        cache.get(1L, 2, () -> load(2));
+        cache.evictUser(1L);
+        cache.get(1L, 2, () -> load(2));
+
+        assertEquals(2, loads.get());
+    }
+}
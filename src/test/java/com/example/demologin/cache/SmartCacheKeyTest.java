@@ -0,0 +1,46 @@
+package com.example.demologin.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class SmartCacheKeyTest {
+
+    @Test
+    void setArguments_compareAsSets_regardlessOfOrderOrImplementation() {
+        Set<String> linked = new LinkedHashSet<>(List.of("USER", "ADMIN"));
+        SmartCacheKey a = SmartCacheKey.of("Perms.get", linked);
+        SmartCacheKey b = SmartCacheKey.of("Perms.get", new TreeSet<>(Set.of("ADMIN", "USER")));
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+
+    @Test
+    void differentMethodOrArguments_areDifferentKeys() {
+        assertNotEquals(SmartCacheKey.of("Roles.getById", 1L), SmartCacheKey.of("Roles.getById", 2L));
+        assertNotEquals(SmartCacheKey.of("Roles.getById", 1L), SmartCacheKey.of("Users.getById", 1L));
+        assertNotEquals(SmartCacheKey.of("Roles.getById", 1L), SmartCacheKey.of("Roles.getById", "1"));
+        assertEquals(SmartCacheKey.of("Roles.find", (Object) new String[]{"a"}),
+                SmartCacheKey.of("Roles.find", (Object) new String[]{"a"}));
+    }
+
+    @Test
+    void storedKey_isNotAffectedByLaterMutationOfTheArgument() throws Throwable {
+        SmartCacheStore store = new SmartCacheStore("test", new SmartCachePolicy(10, 60, 0, 0));
+        Set<String> roles = new HashSet<>(Set.of("ADMIN"));
+        store.get(SmartCacheKey.of("Perms.get", roles), () -> "admin-perms");
+
+        roles.add("USER");
+
+        assertNotNull(store.getIfPresent(SmartCacheKey.of("Perms.get", Set.of("ADMIN"))));
+    }
+}
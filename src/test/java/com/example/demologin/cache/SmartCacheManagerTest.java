@@ -0,0 +1,109 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.SmartCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SmartCacheManagerTest {
+
+    @SmartCache
+    private static void cached() {
+    }
+
+    private static SmartCacheManager manager() {
+        return new SmartCacheManager(new SimpleMeterRegistry(), 100, 60, 0, 0, 0, 0, 5_000, 1, 16, InvalidationBus.NOOP);
+    }
+
+    private static SmartCache annotation() throws NoSuchMethodException {
+        return SmartCacheManagerTest.class.getDeclaredMethod("cached").getAnnotation(SmartCache.class);
+    }
+
+    private static String[] tags(String... expressions) {
+        return tags(expressions, new Object[0]);
+    }
+
+    private static String[] tags(String[] expressions, Object[] args) {
+        List<String> out = new ArrayList<>();
+        TagTemplate.resolve(TagTemplate.compile(expressions), args, out);
+        return out.toArray(new String[0]);
+    }
+
+    @Test
+    void invalidateTags_removesOnlyTaggedEntries_acrossStores() throws Throwable {
+        SmartCacheManager manager = manager();
+        SmartCacheStore roles = manager.getOrCreate("Roles.getAll", annotation());
+        SmartCacheStore perms = manager.getOrCreate("Perms.get", annotation());
+        roles.get("all", tags("roles"), () -> "roles");
+        perms.get("admin", tags("role-permissions"), () -> "perms");
+        perms.get("untagged", () -> "plain");
+
+        manager.invalidateTags(List.of("role-permissions"));
+
+        assertNotNull(roles.getIfPresent("all"));
+        assertNull(perms.getIfPresent("admin"));
+        assertNotNull(perms.getIfPresent("untagged"));
+        assertEquals(1, manager.tagCount());
+    }
+
+    @Test
+    void argumentTag_expandsPerCollectionElement() throws Throwable {
+        SmartCacheManager manager = manager();
+        SmartCacheStore store = manager.getOrCreate("Perms.get", annotation());
+        store.get("a,b", tags(new String[]{"role:#0"}, new Object[]{List.of("a", "b")}), () -> "ab");
+        store.get("c", tags(new String[]{"role:#0"}, new Object[]{List.of("c")}), () -> "c");
+
+        manager.invalidateTags(List.of(tags(new String[]{"role:#0"}, new Object[]{"b"})));
+
+        assertNull(store.getIfPresent("a,b"));
+        assertNotNull(store.getIfPresent("c"));
+    }
+
+    @Test
+    void tagIndex_shrinksWhenEntriesAreEvicted() {
+        TagIndex index = new TagIndex();
+        SmartCacheStore store = new SmartCacheStore("test", new SmartCachePolicy(10, 60, 0, 0), 5_000, index);
+
+        for (int i = 0; i < 1_000; i++) {
+            store.put("key-" + i, i, new String[]{"tag-" + i});
+        }
+
+        assertEquals(store.size(), index.tagCount());
+    }
+
+    @Test
+    void loadInFlight_isNotCachedAfterItsTagIsInvalidated() throws Exception {
+        SmartCacheManager manager = manager();
+        SmartCacheStore store = manager.getOrCreate("Perms.get", annotation());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> load = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.get("admin", tags("role-permissions"), () -> {
+                    started.countDown();
+                    release.await();
+                    return "stale";
+                });
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        });
+        started.await(5, TimeUnit.SECONDS);
+        manager.invalidateTags(List.of("role-permissions"));
+        release.countDown();
+
+        assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+        assertNull(store.getIfPresent("admin"));
+        assertEquals(0, manager.tagCount());
+    }
+}
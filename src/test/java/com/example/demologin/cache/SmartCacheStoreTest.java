@@ -0,0 +1,269 @@
+package com.example.demologin.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.demologin.exception.exceptions.CacheInvocationException;
+
+class SmartCacheStoreTest {
+
+    private static SmartCacheStore store(int maxEntries, long ttlSeconds, long refreshAfterSeconds, long maxWeight) {
+        return new SmartCacheStore("test", new SmartCachePolicy(maxEntries, ttlSeconds, refreshAfterSeconds, maxWeight));
+    }
+
+    @Test
+    void get_missThenHit_loadsOnce() throws Throwable {
+        SmartCacheStore store = store(10, 60, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v", store.get("k", () -> { loads.incrementAndGet(); return "v"; }));
+        assertEquals("v", store.get("k", () -> { loads.incrementAndGet(); return "other"; }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, store.hitCount());
+        assertEquals(1, store.missCount());
+    }
+
+    @Test
+    void put_staysWithinMaxEntries_underLongUptime() {
+        SmartCacheStore store = store(100, 60, 0, 0);
+
+        for (int i = 0; i < 100_000; i++) {
+            store.put("key-" + i, i);
+        }
+
+        assertTrue(store.size() <= 100);
+        assertTrue(store.evictionCount() >= 100_000 - 100);
+    }
+
+    @Test
+    void frequentlyReadKey_survivesScanOfOneOffKeys() throws Throwable {
+        SmartCacheStore store = store(50, 60, 0, 0);
+        store.put("hot", "value");
+        for (int i = 0; i < 20; i++) {
+            store.get("hot", () -> "reloaded");
+        }
+
+        // Plain LRU would drop "hot": it is read only once per 60 inserts into a 50-entry cache
+        for (int i = 0; i < 10_000; i++) {
+            store.put("scan-" + i, i);
+            if (i % 60 == 0) {
+                assertEquals("value", store.get("hot", () -> "reloaded"));
+            }
+        }
+
+        assertEquals("value", store.getIfPresent("hot"));
+    }
+
+    @Test
+    void weightedPolicy_boundsTotalWeight() {
+        SmartCacheStore store = store(1000, 60, 0, 10);
+
+        store.put("a", List.of(1, 2, 3, 4, 5, 6));
+        store.put("b", List.of(1, 2, 3, 4, 5, 6));
+        store.put("tooBig", List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11));
+
+        assertTrue(store.weight() <= 10);
+        assertNull(store.getIfPresent("tooBig"));
+    }
+
+    @Test
+    void expiredEntry_isReloaded() throws Throwable {
+        SmartCacheStore store = store(10, 0, 0, 0);
+        store.put("k", "old");
+
+        // ttl 0 means no expiry
+        assertEquals("old", store.get("k", () -> "new"));
+
+        SmartCacheStore expiring = new SmartCacheStore("expiring", new SmartCachePolicy(10, 1, 0, 0));
+        expiring.put("k", "old");
+        Thread.sleep(1100);
+        assertEquals("new", expiring.get("k", () -> "new"));
+        assertEquals(1, expiring.expirationCount());
+    }
+
+    @Test
+    void refreshDue_failedReload_servesCurrentValue() throws Throwable {
+        SmartCacheStore store = new SmartCacheStore("refresh", new SmartCachePolicy(10, 60, 1, 0));
+        store.put("k", "current");
+        Thread.sleep(1100);
+
+        Object value = store.get("k", () -> { throw new IllegalStateException("db down"); });
+
+        assertEquals("current", value);
+        assertNotNull(store.getIfPresent("k"));
+    }
+
+    @Test
+    void refreshDue_reloadsInBackground_whileCallersGetCurrentValue() throws Throwable {
+        ExecutorService refresher = Executors.newSingleThreadExecutor();
+        SmartCacheStore store = new SmartCacheStore("refresh", new SmartCachePolicy(10, 60, 1, 0), 5_000,
+                new TagIndex(), refresher);
+        store.put("k", "current");
+        Thread.sleep(1100);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        SmartCacheStore.Loader slowLoader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "refreshed";
+        };
+
+        assertEquals("current", store.get("k", slowLoader));
+        assertEquals("current", store.get("k", slowLoader));
+        release.countDown();
+        refresher.shutdown();
+        assertTrue(refresher.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, loads.get());
+        assertEquals("refreshed", store.getIfPresent("k"));
+    }
+
+    @Test
+    void expiredEntry_failedReload_servesStaleValueWithinGrace() throws Throwable {
+        SmartCacheStore store = new SmartCacheStore("stale", new SmartCachePolicy(10, 1, 0, 0, 60, 0));
+        store.put("k", "stale");
+        Thread.sleep(1100);
+
+        assertNull(store.getIfPresent("k"));
+        assertEquals("stale", store.get("k", () -> { throw new IllegalStateException("db down"); }));
+        assertEquals(1, store.staleHitCount());
+
+        SmartCacheStore noGrace = new SmartCacheStore("strict", new SmartCachePolicy(10, 1, 0, 0));
+        noGrace.put("k", "stale");
+        Thread.sleep(1100);
+        assertThrows(IllegalStateException.class,
+                () -> noGrace.get("k", () -> { throw new IllegalStateException("db down"); }));
+    }
+
+    @Test
+    void nullResult_isNotCached() throws Throwable {
+        SmartCacheStore store = store(10, 60, 0, 0);
+
+        assertNull(store.get("k", () -> null));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void coldKey_200ConcurrentCallers_runLoaderOnce() throws Exception {
+        SmartCacheStore store = store(10, 60, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        int threads = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return load(store, "roles=ADMIN", () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(200);
+                    return List.of("USER_MANAGE");
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<Object> result : results) {
+            assertEquals(List.of("USER_MANAGE"), result.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLoad_propagatesToAllWaiters_andIsNotCached() throws Exception {
+        SmartCacheStore store = store(10, 60, 0, 0);
+        AtomicInteger loads = new AtomicInteger();
+        int threads = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return load(store, "k", () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(200);
+                    throw new IllegalStateException("db down");
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<Object> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals("v", load(store, "k", () -> "v"));
+    }
+
+    @Test
+    void waiter_timesOutWhileLoadIsStuck() throws Exception {
+        SmartCacheStore store = new SmartCacheStore("slow", new SmartCachePolicy(10, 60, 0, 0), 50);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Object> leader = pool.submit(() -> load(store, "k", () -> {
+            release.await();
+            return "v";
+        }));
+        Thread.sleep(50);
+
+        assertThrows(CacheInvocationException.class, () -> store.get("k", () -> "unexpected"));
+
+        release.countDown();
+        assertEquals("v", leader.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    void invalidateDuringLoad_resultIsNotCached() throws Exception {
+        SmartCacheStore store = store(10, 60, 0, 0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Object> leader = pool.submit(() -> load(store, "k", () -> {
+            loading.countDown();
+            release.await();
+            return "stale";
+        }));
+
+        loading.await();
+        store.invalidate("k");
+        release.countDown();
+
+        assertEquals("stale", leader.get(5, TimeUnit.SECONDS));
+        assertNull(store.getIfPresent("k"));
+        pool.shutdown();
+    }
+
+    /** {@link SmartCacheStore#get} for use inside a {@code Callable}. */
+    private static Object load(SmartCacheStore store, Object key, SmartCacheStore.Loader loader) throws Exception {
+        try {
+            return store.get(key, loader);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.security.JwtSigningKeys;
+import com.example.demologin.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedClaimsCacheTest {
+
+    private static final String SECRET = "claims-cache-secret-claims-cache-secret-claims-cache-0123456789";
+    private static final String OTHER_SECRET = "another-secret-another-secret-another-secret-another-0123456789";
+
+    private static Claims claimsExpiringIn(long millis) {
+        return Jwts.claims().subject("42").expiration(new Date(System.currentTimeMillis() + millis)).build();
+    }
+
+    private static String token(String secret, String subject) {
+        return Jwts.builder()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Test
+    void expiredClaims_areNotServed() throws InterruptedException {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(100);
+        // exp has whole-second precision, so this lands 0.1 to 1.1 s from now
+        Claims claims = claimsExpiringIn(1_100);
+        cache.put("token", claims);
+        assertSame(claims, cache.get("token"));
+
+        Thread.sleep(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()) + 20);
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+
+        cache.put("stale", claimsExpiringIn(-1));
+        assertNull(cache.get("stale"));
+    }
+
+    @Test
+    void tokenWithDifferentSignature_missesAndIsVerified() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(100);
+        JwtUtil jwtUtil = new JwtUtil(null, cache, null, null, null,
+                new JwtSigningKeys(SECRET, "HS256", "", "", true));
+        String valid = token(SECRET, "42");
+        assertEquals("42", jwtUtil.extractUsername(valid));
+        assertEquals("42", jwtUtil.extractUsername(valid));
+        assertEquals(1, cache.getHitCount());
+
+        // Same header and payload, signature from another key
+        String forged = valid.substring(0, valid.lastIndexOf('.'))
+                + token(OTHER_SECRET, "42").substring(valid.lastIndexOf('.'));
+        long missesBefore = cache.getMissCount();
+        assertThrows(SignatureException.class, () -> jwtUtil.extractUsername(forged));
+        assertEquals(missesBefore + 1, cache.getMissCount());
+        assertNull(cache.get(forged));
+    }
+
+    @Test
+    void fullCache_dropsLeastRecentlyUsedEntriesOnly() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(32);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, claimsExpiringIn(60_000));
+            // Touched on every round, so it stays the most recently used of its stripe
+            cache.put("hot", claimsExpiringIn(60_000));
+            assertNotNull(cache.get("hot"));
+        }
+        assertTrue(cache.size() <= 32, "size " + cache.size());
+        assertNotNull(cache.get("token-999"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
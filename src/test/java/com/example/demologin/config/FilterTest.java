@@ -0,0 +1,159 @@
+package com.example.demologin.config;
+
+import com.example.demologin.enums.UserStatus;
+import com.example.demologin.exception.exceptions.InvalidTokenException;
+import com.example.demologin.security.AccessTokenRevocationStore;
+import com.example.demologin.security.AuthenticatedRequest;
+import com.example.demologin.security.PrincipalSnapshot;
+import com.example.demologin.service.RolePermissionService;
+import com.example.demologin.service.TokenService;
+import com.example.demologin.utils.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private TokenService tokenService;
+    private JwtUtil jwtUtil;
+    private RolePermissionService rolePermissionService;
+    private AccessTokenRevocationStore revocationStore;
+    private Filter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = mock(TokenService.class);
+        jwtUtil = mock(JwtUtil.class);
+        rolePermissionService = mock(RolePermissionService.class);
+        revocationStore = mock(AccessTokenRevocationStore.class);
+        filter = new Filter(tokenService, jwtUtil, new PublicEndpointMatcher(List.of("/api/public/**"), 16),
+                rolePermissionService, revocationStore);
+
+        when(jwtUtil.extractUsername(TOKEN)).thenReturn("42");
+        when(jwtUtil.validateTokenWithJtiCheck(TOKEN, 42L, 3)).thenReturn(true);
+        when(jwtUtil.extractRoles(TOKEN)).thenReturn(Set.of("MEMBER"));
+        when(jwtUtil.extractTokenVersion(TOKEN)).thenReturn(3);
+        when(jwtUtil.extractJti(TOKEN)).thenReturn("jti-1");
+        when(jwtUtil.extractExpiration(TOKEN)).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+        when(rolePermissionService.getPermissionsForRoles(Set.of("MEMBER"))).thenReturn(Set.of("USER_VIEW"));
+        when(tokenService.getPrincipalByToken(TOKEN)).thenReturn(principal(UserStatus.ACTIVE, false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static PrincipalSnapshot principal(UserStatus status, boolean locked) {
+        return new PrincipalSnapshot(42L, "member", "Member", 3, status, locked, Set.of("MEMBER"), List.of());
+    }
+
+    private static MockHttpServletRequest request(String uri, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    /** Runs the filter and reports what AuthenticatedRequest.current() saw downstream, or null if the chain never ran. */
+    private Optional<AuthenticatedRequest> filter(MockHttpServletRequest request, MockHttpServletResponse response)
+            throws Exception {
+        AtomicReference<Optional<AuthenticatedRequest>> seen = new AtomicReference<>();
+        FilterChain chain = (req, res) -> {
+            // What the DispatcherServlet does before any controller, aspect or service runs
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            seen.set(AuthenticatedRequest.current());
+        };
+        filter.doFilter(request, response, chain);
+        return seen.get();
+    }
+
+    @Test
+    void validToken_bindsRolesVersionJtiAndPermissions() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Optional<AuthenticatedRequest> seen = filter(request("/api/users/me", TOKEN), response);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(seen);
+        AuthenticatedRequest auth = seen.orElseThrow();
+        assertEquals(42L, auth.userId());
+        assertEquals(3, auth.tokenVersion());
+        assertEquals("jti-1", auth.jti());
+        assertEquals(Set.of("MEMBER"), auth.roles());
+        assertTrue(auth.hasPermission("USER_VIEW"));
+        assertFalse(auth.hasPermission("USER_DELETE"));
+        assertEquals(TOKEN, auth.token());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void publicPath_isNotBound_evenWithAToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Optional<AuthenticatedRequest> seen = filter(request("/api/public/ping", TOKEN), response);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(seen.isEmpty());
+        verify(jwtUtil, never()).extractUsername(anyString());
+    }
+
+    @Test
+    void revokedToken_isRejectedAndNotBound() throws Exception {
+        when(jwtUtil.isTokenRevoked(TOKEN)).thenReturn(true);
+        MockHttpServletRequest request = request("/api/users/me", TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(filter(request, response));
+
+        assertEquals(401, response.getStatus());
+        assertNull(request.getAttribute(AuthenticatedRequest.ATTRIBUTE));
+        verify(revocationStore).recordRejected();
+    }
+
+    @Test
+    void invalidOrStaleTokens_andBlockedAccounts_areRejectedAndNotBound() throws Exception {
+        when(jwtUtil.extractUsername("bad")).thenThrow(new InvalidTokenException("bad signature"));
+        when(jwtUtil.validateTokenWithJtiCheck("stale", 42L, 3)).thenReturn(false);
+        when(jwtUtil.extractUsername("stale")).thenReturn("42");
+        when(tokenService.getPrincipalByToken("stale")).thenReturn(principal(UserStatus.ACTIVE, false));
+        when(jwtUtil.extractUsername("locked")).thenReturn("42");
+        when(tokenService.getPrincipalByToken("locked")).thenReturn(principal(UserStatus.ACTIVE, true));
+
+        for (String token : new String[]{null, "bad", "stale", "locked"}) {
+            MockHttpServletRequest request = request("/api/users/me", token);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            assertNull(filter(request, response), "chain ran for " + token);
+            assertEquals(401, response.getStatus(), "status for " + token);
+            assertNull(request.getAttribute(AuthenticatedRequest.ATTRIBUTE), "bound for " + token);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demologin.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+class PublicEndpointMatcherTest {
+
+    private static final List<String> ANNOTATED = List.of(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/public/articles/{id}",
+            "/api/public/files/*.png",
+            "/api/legacy/**/download"
+    );
+
+    private PublicEndpointMatcher matcher() {
+        List<String> patterns = new ArrayList<>(ANNOTATED);
+        patterns.addAll(PublicEndpointMatcher.SYSTEM_PUBLIC_ENDPOINTS);
+        return new PublicEndpointMatcher(patterns, 16);
+    }
+
+    @Test
+    void isPublic_agreesWithAntPathMatcher() {
+        PublicEndpointMatcher matcher = matcher();
+        AntPathMatcher ant = new AntPathMatcher();
+        List<String> patterns = new ArrayList<>(ANNOTATED);
+        patterns.addAll(PublicEndpointMatcher.SYSTEM_PUBLIC_ENDPOINTS);
+
+        List<String> uris = List.of(
+                "/api/auth/login", "/api/auth/login/", "/api/auth/logout",
+                "/api/public/articles/42", "/api/public/articles/42/comments",
+                "/api/public/files/logo.png", "/api/public/files/logo.jpg",
+                "/api/legacy/a/b/download", "/api/legacy/download",
+                "/swagger-ui", "/swagger-ui/index.html", "/swagger-uix",
+                "/oauth2/google/calendar/callback", "/oauth2/google/calendar/callback/x",
+                "/debug/cache", "/api/users/me", "/"
+        );
+        for (String uri : uris) {
+            boolean expected = patterns.stream().anyMatch(p -> ant.match(p, uri));
+            assertEquals(expected, matcher.isPublic(uri), uri);
+            // Second lookup is served from the result cache
+            assertEquals(expected, matcher.isPublic(uri), uri);
+        }
+    }
+
+    @Test
+    void isPublic_nullUri_isProtected() {
+        assertFalse(matcher().isPublic(null));
+    }
+
+    @Test
+    void isPublic_resultCacheFull_stillClassifies() {
+        PublicEndpointMatcher matcher = new PublicEndpointMatcher(List.of("/open/**"), 1);
+
+        assertFalse(matcher.isPublic("/api/a"));
+        assertFalse(matcher.isPublic("/api/b"));
+        assertTrue(matcher.isPublic("/open/x"));
+    }
+
+    @Test
+    void isPublic_manyDistinctUris_cacheStaysBoundedAndKeepsNewUris() {
+        PublicEndpointMatcher matcher = new PublicEndpointMatcher(List.of("/open/**"), 64);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 2 == 0, matcher.isPublic((i % 2 == 0 ? "/open/" : "/api/users/") + i));
+        }
+
+        assertTrue(matcher.cachedPaths() <= 64);
+        assertTrue(matcher.cachedPaths() > 0);
+    }
+}
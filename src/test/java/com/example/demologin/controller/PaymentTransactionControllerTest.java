@@ -30,7 +30,7 @@ class PaymentTransactionControllerTest {
     void search_endpoint_is_secured() throws NoSuchMethodException {
         Method m = PaymentTransactionController.class.getMethod("searchTransactions",
             String.class, String.class, String.class, String.class, String.class, String.class,
-            int.class, int.class, String.class, String.class);
+            int.class, int.class, String.class, String.class, String.class);
         assertTrue(m.isAnnotationPresent(SecuredEndpoint.class));
         SecuredEndpoint ann = m.getAnnotation(SecuredEndpoint.class);
         assertTrue(ann.value().contains("ADMIN_TRANSACTION_VIEW"));
@@ -51,7 +51,7 @@ class PaymentTransactionControllerTest {
     void searchTransactions_returnsDataFromService() {
         when(transactionService.searchTransactions(any(PaymentTransactionQueryRequest.class), anyInt(), anyInt()))
             .thenReturn(org.springframework.data.domain.Page.empty());
-        Object resp = controller.searchTransactions(null, null, null, null, null, null, 0, 10, null, null);
+        Object resp = controller.searchTransactions(null, null, null, null, null, null, 0, 10, null, null, null);
         assertTrue(resp != null);
     }
 
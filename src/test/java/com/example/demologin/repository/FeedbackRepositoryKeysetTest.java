@@ -0,0 +1,73 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.dto.response.CursorSlice;
+import com.example.demologin.entity.Feedback;
+import com.example.demologin.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+class FeedbackRepositoryKeysetTest {
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Feedback save(Instant createdAt) {
+        Feedback feedback = feedbackRepository.save(Feedback.builder().userId(1L).rating(5).comment("ok").build());
+        // createdAt is set on persist; overwrite it to place rows on the same instant
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE feedback SET created_at = ?1 WHERE id = ?2")
+                .setParameter(1, createdAt)
+                .setParameter(2, feedback.getId())
+                .executeUpdate();
+        return feedback;
+    }
+
+    @Test
+    void keysetPages_coverEveryRowOnce_newestFirst_tiesBrokenById() {
+        Instant older = Instant.parse("2024-01-01T10:00:00Z");
+        Instant newer = Instant.parse("2024-01-02T10:00:00Z");
+        List<Long> expected = new ArrayList<>();
+        List<Long> tiedOlder = new ArrayList<>();
+        List<Long> tiedNewer = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tiedOlder.add(save(older).getId());
+            tiedNewer.add(save(newer).getId());
+        }
+        entityManager.clear();
+        expected.addAll(tiedNewer.reversed());
+        expected.addAll(tiedOlder.reversed());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<Feedback> rows = after == null
+                    ? feedbackRepository.findKeysetFirst(CursorSlice.limitFor(3))
+                    : feedbackRepository.findKeysetAfter(after.instant(), after.id(), CursorSlice.limitFor(3));
+            CursorSlice<Long> page = CursorSlice.of(rows, 3, f -> KeysetCursor.of(f.getCreatedAt(), f.getId()),
+                    Feedback::getId);
+            seen.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Pages of 3 cut through both groups of equal timestamps without skipping or repeating
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+        assertNull(cursor);
+    }
+}
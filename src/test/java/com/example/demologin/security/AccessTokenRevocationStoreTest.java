@@ -0,0 +1,65 @@
+package com.example.demologin.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demologin.cache.InvalidationBus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AccessTokenRevocationStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccessTokenRevocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new AccessTokenRevocationStore(meterRegistry, InvalidationBus.NOOP);
+    }
+
+    @Test
+    void revoke_liveToken_isRevokedUntilPurge() {
+        store.revoke("jti", System.currentTimeMillis() + 60_000);
+
+        assertTrue(store.isRevoked("jti"));
+        assertFalse(store.isRevoked("other"));
+        store.purgeExpired();
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void purgeExpired_dropsOnlyExpiredEntries() throws InterruptedException {
+        store.revoke("short", System.currentTimeMillis() + 20);
+        store.revoke("long", System.currentTimeMillis() + 60_000);
+
+        Thread.sleep(40);
+        store.purgeExpired();
+
+        assertFalse(store.isRevoked("short"));
+        assertTrue(store.isRevoked("long"));
+        assertEquals(1, store.size());
+        assertEquals(1.0, meterRegistry.get("security.revocation.store.size").gauge().value());
+    }
+
+    @Test
+    void revoke_sameJtiWithLaterExpiry_survivesEarlierPurge() throws InterruptedException {
+        store.revoke("jti", System.currentTimeMillis() + 20);
+        store.revoke("jti", System.currentTimeMillis() + 60_000);
+
+        Thread.sleep(40);
+        store.purgeExpired();
+
+        assertTrue(store.isRevoked("jti"));
+    }
+
+    @Test
+    void revoke_alreadyExpiredToken_isIgnored() {
+        store.revoke("old", System.currentTimeMillis() - 1);
+
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demologin.security;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.demologin.cache.InvalidationBus;
+import com.example.demologin.repository.RefreshTokenRepository;
+
+class JtiRegistryTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private JtiRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.findUserAndExpiryByJti(anyString())).thenReturn(Collections.emptyList());
+        registry = new JtiRegistry(refreshTokenRepository, 10_000, 60_000, InvalidationBus.NOOP);
+    }
+
+    @Test
+    void warmUp_loadsExistingTokens_andAnswersWithoutDb() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"jti-1", 1L, LocalDateTime.now().plusDays(1)});
+        when(refreshTokenRepository.findJtiAndUserAndExpiry()).thenReturn(rows);
+
+        registry.warmUp();
+
+        assertTrue(registry.isActive("jti-1"));
+        verify(refreshTokenRepository, never()).findUserAndExpiryByJti("jti-1");
+    }
+
+    @Test
+    void isActive_unknownJti_fallsBackToDbAndRemembersHit() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{7L, LocalDateTime.now().plusDays(1)});
+        when(refreshTokenRepository.findUserAndExpiryByJti("remote")).thenReturn(rows);
+
+        assertTrue(registry.isActive("remote"));
+        assertTrue(registry.isActive("remote"));
+        assertFalse(registry.isActive("missing"));
+
+        verify(refreshTokenRepository, times(1)).findUserAndExpiryByJti("remote");
+        verify(refreshTokenRepository, times(1)).findUserAndExpiryByJti("missing");
+    }
+
+    @Test
+    void isActive_missingOrRevokedJti_isRememberedAndSkipsDb() {
+        registry.register("revoked", 1L, LocalDateTime.now().plusDays(1));
+        registry.remove("revoked");
+
+        assertFalse(registry.isActive("missing"));
+        assertFalse(registry.isActive("missing"));
+        assertFalse(registry.isActive("revoked"));
+
+        verify(refreshTokenRepository, times(1)).findUserAndExpiryByJti("missing");
+        verify(refreshTokenRepository, never()).findUserAndExpiryByJti("revoked");
+    }
+
+    @Test
+    void isActive_afterRecheckInterval_seesRemovalOnAnotherNode() {
+        JtiRegistry recheckEveryTime = new JtiRegistry(refreshTokenRepository, 10_000, 0, InvalidationBus.NOOP);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{7L, LocalDateTime.now().plusDays(1)});
+        when(refreshTokenRepository.findUserAndExpiryByJti("shared")).thenReturn(rows);
+        assertTrue(recheckEveryTime.isActive("shared"));
+
+        // Logged out on another instance, with no bus to tell this one
+        when(refreshTokenRepository.findUserAndExpiryByJti("shared")).thenReturn(Collections.emptyList());
+
+        assertFalse(recheckEveryTime.isActive("shared"));
+        assertFalse(recheckEveryTime.isActive("shared"));
+        verify(refreshTokenRepository, times(2)).findUserAndExpiryByJti("shared");
+    }
+
+    @Test
+    void isActive_expiredToken_isInactiveBeforeAnyPurge() {
+        registry.register("expired", 1L, LocalDateTime.now().minusSeconds(1));
+
+        assertFalse(registry.isActive("expired"));
+        assertEquals(0, registry.size());
+        verify(refreshTokenRepository, never()).findUserAndExpiryByJti("expired");
+    }
+
+    @Test
+    void removeAllForUser_dropsOnlyThatUsersTokens() {
+        registry.register("a", 1L, LocalDateTime.now().plusDays(1));
+        registry.register("b", 2L, LocalDateTime.now().plusDays(1));
+
+        registry.removeAllForUser(1L);
+
+        assertFalse(registry.isActive("a"));
+        assertTrue(registry.isActive("b"));
+    }
+
+    @Test
+    void removeExpiredBefore_purgesExpiredTokens() {
+        registry.register("old", 1L, LocalDateTime.now().minusMinutes(1));
+        registry.register("new", 1L, LocalDateTime.now().plusDays(1));
+
+        registry.removeExpiredBefore(LocalDateTime.now());
+
+        assertEquals(1, registry.size());
+        assertTrue(registry.isActive("new"));
+    }
+
+    @Test
+    void concurrentRegisterRemoveAndLookup_staysConsistent() throws Exception {
+        int threads = 16;
+        int perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            final long userId = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String jti = userId + "-" + i;
+                    registry.register(jti, userId, LocalDateTime.now().plusDays(1));
+                    assertTrue(registry.isActive(jti));
+                    if (i % 2 == 0) {
+                        registry.remove(jti);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(threads * perThread / 2, registry.size());
+        // Registered JTIs were always answered from memory
+        verify(refreshTokenRepository, never()).findUserAndExpiryByJti(anyString());
+    }
+}
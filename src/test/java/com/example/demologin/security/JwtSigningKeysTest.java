@@ -0,0 +1,95 @@
+package com.example.demologin.security;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+
+class JwtSigningKeysTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs256-signing";
+
+    private String keys;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keys = entry("k1", ecKeyPair()) + ";" + entry("k2", ecKeyPair());
+    }
+
+    private static KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static String entry(String kid, KeyPair pair) {
+        Base64.Encoder b64 = Base64.getEncoder();
+        return kid + ":" + b64.encodeToString(pair.getPublic().getEncoded())
+                + ":" + b64.encodeToString(pair.getPrivate().getEncoded());
+    }
+
+    private static String token(JwtSigningKeys signingKeys) {
+        return signingKeys.sign(Jwts.builder().subject("42")).compact();
+    }
+
+    @Test
+    void es256_signsWithActiveKid_andVerifiesRotatedKeys() {
+        JwtSigningKeys before = new JwtSigningKeys(SECRET, "ES256", "k1", keys, true);
+        JwtSigningKeys after = new JwtSigningKeys(SECRET, "ES256", "k2", keys, true);
+
+        String oldToken = token(before);
+        String newToken = token(after);
+
+        assertEquals("k2", after.parser().parseSignedClaims(newToken).getHeader().getKeyId());
+        // Tokens signed before the rotation still verify
+        assertEquals("42", after.parser().parseSignedClaims(oldToken).getPayload().getSubject());
+    }
+
+    @Test
+    void unknownKid_isRejected() throws Exception {
+        JwtSigningKeys other = new JwtSigningKeys(SECRET, "ES256", "k3", entry("k3", ecKeyPair()), true);
+        JwtSigningKeys signingKeys = new JwtSigningKeys(SECRET, "ES256", "k1", keys, true);
+
+        assertThrows(JwtException.class, () -> signingKeys.parser().parseSignedClaims(token(other)));
+    }
+
+    @Test
+    void legacyHmacTokens_acceptedOnlyWhileEnabled() {
+        String hmacToken = token(new JwtSigningKeys(SECRET, "HS256", "", "", true));
+
+        JwtSigningKeys migrating = new JwtSigningKeys(SECRET, "ES256", "k1", keys, true);
+        JwtSigningKeys strict = new JwtSigningKeys(SECRET, "ES256", "k1", keys, false);
+
+        assertEquals("42", migrating.parser().parseSignedClaims(hmacToken).getPayload().getSubject());
+        assertThrows(RuntimeException.class, () -> strict.parser().parseSignedClaims(hmacToken));
+    }
+
+    @Test
+    void jwks_publishesPublicKeysOnly() {
+        String jwks = new JwtSigningKeys(SECRET, "ES256", "k1", keys, true).jwksJson();
+
+        assertTrue(jwks.contains("\"kid\":\"k1\""));
+        assertTrue(jwks.contains("\"kid\":\"k2\""));
+        assertFalse(jwks.contains("\"d\""));
+    }
+
+    @Test
+    void eddsa_withoutConfiguredKeys_usesEphemeralKey() {
+        JwtSigningKeys signingKeys = new JwtSigningKeys(SECRET, "EdDSA", "", "", true);
+
+        String token = token(signingKeys);
+
+        assertTrue(signingKeys.isAsymmetric());
+        assertEquals(signingKeys.getActiveKid(), signingKeys.parser().parseSignedClaims(token).getHeader().getKeyId());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demologin.security;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.demologin.cache.InvalidationBus;
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.repository.PermissionRepository;
+import com.example.demologin.repository.RoleRepository;
+
+class PermissionRegistryTest {
+
+    private PermissionRepository permissionRepository;
+    private RoleRepository roleRepository;
+    private PermissionRegistry registry;
+    private List<Permission> permissions;
+
+    @BeforeEach
+    void setUp() {
+        permissionRepository = mock(PermissionRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        permissions = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            permissions.add(new Permission(String.format("PERM_%02d", i), "p" + i));
+        }
+        when(permissionRepository.findAll()).thenReturn(permissions);
+        when(roleRepository.findAll()).thenReturn(List.of(role("ADMIN", permissions)));
+        registry = new PermissionRegistry(permissionRepository, roleRepository, true, InvalidationBus.NOOP);
+        registry.warmUp();
+    }
+
+    private static Role role(String name, List<Permission> permissions) {
+        return Role.builder().name(name).permissions(new HashSet<>(permissions)).build();
+    }
+
+    @Test
+    void encodeDecode_roundTripsAcrossWordBoundary() {
+        Set<String> granted = Set.of("PERM_00", "PERM_63", "PERM_64", "PERM_69");
+        PermissionRegistry.EncodedPermissions encoded = registry.encode(granted);
+
+        PermissionBitset decoded = registry.decode(encoded.version(), encoded.bits());
+
+        assertEquals(granted, decoded);
+        assertTrue(decoded.contains("PERM_64"));
+        assertFalse(decoded.contains("PERM_01"));
+        assertFalse(decoded.contains("UNKNOWN"));
+    }
+
+    @Test
+    void decode_tokenFromOtherRegistryVersion_fallsBack() {
+        PermissionRegistry.EncodedPermissions encoded = registry.encode(Set.of("PERM_01"));
+
+        when(roleRepository.findAll()).thenReturn(List.of(role("ADMIN", permissions.subList(0, 10))));
+        registry.reload();
+
+        assertNotEquals(encoded.version(), registry.currentVersion());
+        assertNull(registry.decode(encoded.version(), encoded.bits()));
+    }
+
+    @Test
+    void invalidate_withoutTransaction_reloadsImmediately() {
+        Integer before = registry.currentVersion();
+        PermissionRegistry.EncodedPermissions encoded = registry.encode(Set.of("PERM_01"));
+
+        registry.invalidate();
+
+        assertEquals(before, registry.currentVersion());
+        assertEquals(Set.of("PERM_01"), registry.decode(encoded.version(), encoded.bits()));
+    }
+
+    @Test
+    void disabled_neverEncodesOrDecodes() {
+        PermissionRegistry off = new PermissionRegistry(permissionRepository, roleRepository, false, InvalidationBus.NOOP);
+        off.warmUp();
+
+        assertNull(off.encode(Set.of("PERM_01")));
+        assertNull(off.decode(1, "AAAAAAAAAAE"));
+    }
+
+    @Test
+    void decode_malformedClaim_fallsBack() {
+        assertNull(registry.decode(registry.currentVersion(), "abc"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demologin.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoIpResolverTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(dir.resolve(name), List.of(lines));
+    }
+
+    @Test
+    void resolvesRangesCidrsAndIpv6_byBinarySearch() throws IOException {
+        Path csv = write("ranges.csv",
+                "start,end,country_code,country,region,city",
+                "1.0.0.0,1.0.0.255,AU,Australia,Queensland,Brisbane",
+                "14.160.0.0/11,VN,Vietnam,Hanoi,Hanoi",
+                "200.0.0.0,255.255.255.255,ZZ,Nowhere,\"Far, Away\",Edge",
+                "2001:db8::/32,DE,Germany,Hesse,Frankfurt");
+        GeoIpResolver resolver = new GeoIpResolver(csv.toString(), "countryCode,country,region,city");
+        resolver.load();
+
+        assertTrue(resolver.isLoaded());
+        assertEquals("Brisbane", resolver.resolve("1.0.0.7").getCity());
+        assertEquals("VN", resolver.resolve("14.191.255.255").getCountryCode());
+        assertNull(resolver.resolve("14.192.0.0"));
+        assertEquals("Far, Away", resolver.resolve("255.255.255.255").getRegion());
+        assertEquals("Frankfurt", resolver.resolve("2001:db8:1::42").getCity());
+        assertEquals("Brisbane", resolver.resolve("::ffff:1.0.0.1").getCity());
+        assertNull(resolver.resolve("2001:db9::1"));
+        assertNull(resolver.resolve("example.com"));
+        assertNull(resolver.resolve("0.255.255.255"));
+    }
+
+    @Test
+    void columnsCanBeSkipped_andCountryFallsBackToCode() throws IOException {
+        // DB-IP lite layout: start,end,continent,country,stateprov,city
+        Path csv = write("dbip.csv", "8.8.8.0,8.8.8.255,NA,US,California,Mountain View");
+        GeoIpResolver resolver = new GeoIpResolver(csv.toString(), "-,countryCode,region,city");
+        resolver.load();
+
+        LocationUtil.LocationInfo info = resolver.resolve("8.8.8.8");
+        assertEquals("Mountain View", info.getCity());
+        assertEquals("US", info.getCountry());
+    }
+
+    @Test
+    void changedFile_isReloaded_andBrokenFileKeepsThePreviousIndex() throws IOException {
+        Path csv = write("ranges.csv", "1.0.0.0,1.0.0.255,AU,Australia,Queensland,Brisbane");
+        GeoIpResolver resolver = new GeoIpResolver(csv.toString(), "countryCode,country,region,city");
+        resolver.load();
+
+        write("ranges.csv", "1.0.0.0,1.0.0.255,AU,Australia,New South Wales,Sydney");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        resolver.reloadIfChanged();
+        assertEquals("Sydney", resolver.resolve("1.0.0.1").getCity());
+
+        Files.write(csv, new byte[]{'G', 'E', 'O', '1', 0, 0});
+        resolver.reloadIfChanged();
+        assertEquals("Sydney", resolver.resolve("1.0.0.1").getCity());
+    }
+
+    @Test
+    void withoutDatabase_resolvesNothing() {
+        GeoIpResolver resolver = new GeoIpResolver("", "countryCode,country,region,city");
+        resolver.load();
+
+        assertFalse(resolver.isLoaded());
+        assertNull(resolver.resolve("1.0.0.1"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demologin.utils;
+
+import com.example.demologin.dto.response.CursorSlice;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_roundTripsTheSortValueAndId() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 10, 12, 30, 15, 123_456_000);
+
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of(timestamp, 42L).encode());
+
+        assertEquals(timestamp, cursor.localDateTime());
+        assertEquals(42L, cursor.id());
+        assertNull(KeysetCursor.decode(""));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("azE6eDox"));
+    }
+
+    @Test
+    void slice_usesTheExtraRowOnlyToDetectAnotherPage() {
+        CursorSlice<String> page = CursorSlice.of(List.of(1L, 2L, 3L), 2, KeysetCursor::of, String::valueOf);
+
+        assertEquals(List.of("1", "2"), page.getContent());
+        assertFalse(page.isLast());
+        assertEquals(2L, KeysetCursor.decode(page.getNextCursor()).id());
+
+        CursorSlice<String> last = CursorSlice.of(List.of(3L), 2, KeysetCursor::of, String::valueOf);
+        assertTrue(last.isLast());
+        assertNull(last.getNextCursor());
+        assertEquals(3, CursorSlice.limitFor(2).max());
+        assertEquals(CursorSlice.MAX_SIZE + 1, CursorSlice.limitFor(Integer.MAX_VALUE).max());
+        assertEquals(2, CursorSlice.limitFor(0).max());
+    }
+}
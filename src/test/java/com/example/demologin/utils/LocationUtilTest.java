@@ -0,0 +1,72 @@
+package com.example.demologin.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationUtilTest {
+
+    /** Counts remote calls instead of going to the network; answers "Unknown" until released. */
+    private static class StubbedRemote extends LocationUtil {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile LocationInfo answer = LocationUtil.testLocation("Unknown", "Unknown", "Unknown", "Unknown");
+
+        StubbedRemote(long unknownTtlMs) {
+            super(new RestTemplateBuilder(), new GeoIpResolver("", "countryCode,country,region,city"),
+                    true, 100, unknownTtlMs, 10);
+        }
+
+        @Override
+        LocationInfo lookupRemote(String ipAddress) {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return answer;
+        }
+    }
+
+    @Test
+    void unknownRemoteAnswers_areCachedUntilTheirTtl() throws InterruptedException {
+        StubbedRemote util = new StubbedRemote(50);
+        util.release.countDown();
+
+        assertEquals("Unknown", util.getLocationFromIP("8.8.8.8").getCity());
+        assertEquals("Unknown", util.getLocationFromIP("8.8.8.8").getCity());
+        assertEquals(1, util.calls.get());
+
+        Thread.sleep(80);
+        util.answer = LocationUtil.testLocation("Mountain View", "California", "United States", "US");
+        assertEquals("Mountain View", util.getLocationFromIP("8.8.8.8").getCity());
+        assertEquals(2, util.calls.get());
+    }
+
+    @Test
+    void getLocationIfCached_neverWaitsForTheRemoteLookup() throws InterruptedException {
+        StubbedRemote util = new StubbedRemote(60_000);
+        util.answer = LocationUtil.testLocation("Mountain View", "California", "United States", "US");
+
+        // The lookup is parked on the latch; the caller still gets an answer straight away
+        assertEquals("Unknown", util.getLocationIfCached("8.8.8.8").getCity());
+        assertEquals("Unknown", util.getLocationIfCached("8.8.8.8").getCity());
+        util.release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"Mountain View".equals(util.getLocationIfCached("8.8.8.8").getCity())) {
+            assertTrue(System.nanoTime() < deadline, "background lookup never filled the cache");
+            Thread.sleep(5);
+        }
+        assertEquals(1, util.calls.get());
+        assertEquals("LOCAL", util.getLocationIfCached("192.168.1.10").getCountryCode());
+        util.shutdown();
+    }
+}
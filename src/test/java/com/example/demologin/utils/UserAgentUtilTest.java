@@ -0,0 +1,48 @@
+package com.example.demologin.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserAgentUtilTest {
+
+    private static void assertParsed(String userAgent, String browser, String version, String os,
+                                     String device, String deviceType) {
+        assertEquals(new UserAgentUtil.DeviceInfo(browser, version, os, device, deviceType),
+                UserAgentUtil.parseUserAgent(userAgent));
+    }
+
+    @Test
+    void parsesCommonBrowsers() {
+        assertParsed("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                        + "Chrome/124.0.0.0 Safari/537.36",
+                "Google Chrome", "124.0.0.0", "Windows 10/11", "Windows Computer", "Desktop");
+        assertParsed("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) "
+                        + "Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.67",
+                "Microsoft Edge", "124.0.2478.67", "Windows 10/11", "Windows Computer", "Desktop");
+        assertParsed("Mozilla/5.0 (iPhone; CPU iPhone OS 17_4_1 like Mac OS X) AppleWebKit/605.1.15 "
+                        + "(KHTML, like Gecko) Version/17.4.1 Mobile/15E148 Safari/604.1",
+                "Safari", "17.4.1", "iOS 17.4.1", "iPhone", "Mobile");
+        assertParsed("Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) "
+                        + "Chrome/124.0.6367.82 Mobile Safari/537.36",
+                "Google Chrome", "124.0.6367.82", "Android 14", "Android Phone", "Mobile");
+        assertParsed("Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+                "Mozilla Firefox", "125.0", "Linux", "Linux Computer", "Desktop");
+        assertParsed("Mozilla/5.0 (Windows NT 6.1; WOW64; Trident/7.0; rv:11.0) like Gecko",
+                "Internet Explorer", "11.0", "Windows 7", "Windows Computer", "Desktop");
+        assertParsed("okhttp/4.12.0", "Unknown Browser", "Unknown", "Unknown OS", "Unknown Device", "Desktop");
+        assertParsed("  ", "Unknown", "Unknown", "Unknown", "Unknown", "Unknown");
+    }
+
+    @Test
+    void repeatedUserAgent_isServedFromCache() {
+        String ua = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) "
+                + "Version/17.4 Safari/605.1.15";
+
+        UserAgentUtil.DeviceInfo first = UserAgentUtil.parseUserAgent(ua);
+
+        assertSame(first, UserAgentUtil.parseUserAgent(new String(ua)));
+        assertEquals("macOS 10.15.7", first.getOperatingSystem());
+    }
+}